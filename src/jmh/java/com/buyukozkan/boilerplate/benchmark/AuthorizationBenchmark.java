@@ -0,0 +1,92 @@
+package com.buyukozkan.boilerplate.benchmark;
+
+import com.buyukozkan.boilerplate.entity.User;
+import com.buyukozkan.boilerplate.security.AuthorityMasks;
+import com.buyukozkan.boilerplate.security.BitmaskMethodSecurityExpressionRoot;
+import com.buyukozkan.boilerplate.security.MaskedAuthenticationToken;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.access.expression.SecurityExpressionRoot;
+import org.springframework.security.access.expression.DenyAllPermissionEvaluator;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * String-based Spring Security checks versus {@link AuthorityMasks}. Roots are created per
+ * invocation, as they are for every {@code @PreAuthorize} call.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorizationBenchmark {
+
+    @Param({"1:4", "3:16", "8:64"})
+    public String rolesByPermissions;
+
+    private Authentication plain;
+    private Authentication masked;
+    private AuthorityMasks masks;
+    private String presentAuthority;
+    private final AuthorizationManager<Object> stringUrlRule = AuthorityAuthorizationManager.hasRole("ROLE7");
+    private AuthorizationManager<Object> bitmaskUrlRule;
+
+    @Setup
+    public void setUp() {
+        String[] shape = rolesByPermissions.split(":");
+        User user = BenchmarkFixtures.user(Integer.parseInt(shape[0]), Integer.parseInt(shape[1]));
+        List<GrantedAuthority> authorities = List.copyOf(user.getAuthorities());
+
+        masks = new AuthorityMasks(BenchmarkFixtures.roleCatalog(user.getRoles()));
+        masks.seed();
+        plain = UsernamePasswordAuthenticationToken.authenticated(user.getEmail(), null, authorities);
+        masked = new MaskedAuthenticationToken(user.getEmail(), authorities, masks.maskOf(authorities));
+        presentAuthority = authorities.get(authorities.size() - 1).getAuthority();
+        bitmaskUrlRule = masks.hasRole("ROLE7");
+    }
+
+    @Benchmark
+    public boolean stringHasAuthorityHit() {
+        return new SecurityExpressionRoot(plain) {
+        }.hasAuthority(presentAuthority);
+    }
+
+    @Benchmark
+    public boolean bitmaskHasAuthorityHit() {
+        return bitmaskRoot().hasAuthority(presentAuthority);
+    }
+
+    @Benchmark
+    public boolean stringHasAnyRoleMiss() {
+        return new SecurityExpressionRoot(plain) {
+        }.hasAnyRole("AUDITOR", "SUPPORT");
+    }
+
+    @Benchmark
+    public boolean bitmaskHasAnyRoleMiss() {
+        return bitmaskRoot().hasAnyRole("AUDITOR", "SUPPORT");
+    }
+
+    @Benchmark
+    public boolean stringUrlRule() {
+        return stringUrlRule.authorize(() -> plain, null).isGranted();
+    }
+
+    @Benchmark
+    public boolean bitmaskUrlRule() {
+        return bitmaskUrlRule.authorize(() -> masked, null).isGranted();
+    }
+
+    private BitmaskMethodSecurityExpressionRoot bitmaskRoot() {
+        return new BitmaskMethodSecurityExpressionRoot(() -> masked, masks,
+                new AuthenticationTrustResolverImpl(), new DenyAllPermissionEvaluator(), null);
+    }
+}
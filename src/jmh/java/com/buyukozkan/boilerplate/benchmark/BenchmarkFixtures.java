@@ -0,0 +1,117 @@
+package com.buyukozkan.boilerplate.benchmark;
+
+import com.buyukozkan.boilerplate.entity.Permission;
+import com.buyukozkan.boilerplate.entity.Role;
+import com.buyukozkan.boilerplate.entity.User;
+import com.buyukozkan.boilerplate.repository.PermissionRepository;
+import com.buyukozkan.boilerplate.repository.RoleRepository;
+import com.buyukozkan.boilerplate.repository.SigningKeyRepository;
+import com.buyukozkan.boilerplate.repository.SigningKeyRepository.StoredKey;
+import com.buyukozkan.boilerplate.security.AuthMetrics;
+import com.buyukozkan.boilerplate.security.AuthorityClaimCodec;
+import com.buyukozkan.boilerplate.security.SigningAlgorithm;
+import com.buyukozkan.boilerplate.security.VerifiedTokenCache;
+import com.buyukozkan.boilerplate.service.JwtService;
+import com.buyukozkan.boilerplate.service.RoleCatalog;
+import com.buyukozkan.boilerplate.service.SigningKeyRing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+final class BenchmarkFixtures {
+
+    static final String SECRET = "3SRc2bDRibfj92LJfSX0Jtel2z9PVRI8XhRtwhCab2s=";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtService jwtService(boolean cacheEnabled) {
+        return jwtService(cacheEnabled, JwtService.AuthoritiesFormat.LIST, user(2, 8).getRoles());
+    }
+
+    static JwtService jwtService(boolean cacheEnabled, JwtService.AuthoritiesFormat format, Collection<Role> roles) {
+        return jwtService(cacheEnabled, format, false, roles);
+    }
+
+    static JwtService jwtService(boolean cacheEnabled, JwtService.AuthoritiesFormat format, boolean fastCodec,
+                                 Collection<Role> roles) {
+        return jwtService(cacheEnabled, format, fastCodec, roles, signingKeyRing(SigningAlgorithm.HS256));
+    }
+
+    static JwtService jwtService(boolean cacheEnabled, JwtService.AuthoritiesFormat format, boolean fastCodec,
+                                 Collection<Role> roles, SigningKeyRing signingKeys) {
+        JwtService jwtService = new JwtService(new VerifiedTokenCache(cacheEnabled, 10_000),
+                new AuthorityClaimCodec(roleCatalog(roles)), authMetrics(), signingKeys);
+        ReflectionTestUtils.setField(jwtService, "authoritiesFormat", format);
+        ReflectionTestUtils.setField(jwtService, "fastCodecEnabled", fastCodec);
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 604_800_000L);
+        jwtService.init();
+        return jwtService;
+    }
+
+    /**
+     * A started key ring over an in-memory key table; the caller shuts it down.
+     */
+    static SigningKeyRing signingKeyRing(SigningAlgorithm algorithm) {
+        List<StoredKey> table = new ArrayList<>();
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        when(repository.findAll()).thenAnswer(invocation -> List.copyOf(table));
+        when(repository.insertSuccessor(any(), any())).thenAnswer(invocation -> table.add(invocation.getArgument(1)));
+        SigningKeyRing ring = new SigningKeyRing(repository);
+        ReflectionTestUtils.setField(ring, "algorithm", algorithm);
+        ReflectionTestUtils.setField(ring, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(ring, "secret", SECRET);
+        ReflectionTestUtils.invokeMethod(ring, "init");
+        return ring;
+    }
+
+    /**
+     * Backed by a simple registry, so benchmarks include the cost of recording like production does.
+     */
+    static AuthMetrics authMetrics() {
+        return new AuthMetrics(new SimpleMeterRegistry());
+    }
+
+    static RoleCatalog roleCatalog(Collection<Role> roles) {
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        when(roleRepository.findAllWithPermissions()).thenReturn(List.copyOf(roles));
+        when(permissionRepository.findAll()).thenReturn(roles.stream()
+                .flatMap(role -> role.getPermissions().stream())
+                .distinct()
+                .toList());
+        RoleCatalog catalog = new RoleCatalog(roleRepository, permissionRepository);
+        catalog.reload();
+        return catalog;
+    }
+
+    /**
+     * A user holding {@code roleCount} roles with {@code permissionsPerRole} permissions each,
+     * half of which are shared between roles to mirror the overlap of real role hierarchies.
+     */
+    static User user(int roleCount, int permissionsPerRole) {
+        Set<Role> roles = new HashSet<>();
+        Map<String, Permission> permissions = new HashMap<>();
+        for (int r = 0; r < roleCount; r++) {
+            Role role = new Role("ROLE" + r);
+            ReflectionTestUtils.setField(role, "id", (long) r + 1);
+            for (int p = 0; p < permissionsPerRole; p++) {
+                String name = p % 2 == 0 ? "shared:perm" + p : "role" + r + ":perm" + p;
+                role.getPermissions().add(permissions.computeIfAbsent(name, key -> {
+                    Permission permission = new Permission(key);
+                    ReflectionTestUtils.setField(permission, "id", (long) permissions.size() + 1);
+                    return permission;
+                }));
+            }
+            roles.add(role);
+        }
+        return new User("bench@example.com", "{noop}secret", roles);
+    }
+}
@@ -0,0 +1,51 @@
+package com.buyukozkan.boilerplate.benchmark;
+
+import com.buyukozkan.boilerplate.security.AuthorityMasks;
+import com.buyukozkan.boilerplate.security.JwtAuthenticationFilter;
+import com.buyukozkan.boilerplate.service.JwtService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+    private final FilterChain chain = (request, response) -> {
+    };
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = BenchmarkFixtures.jwtService(cacheEnabled);
+        AuthorityMasks masks = new AuthorityMasks(BenchmarkFixtures.roleCatalog(BenchmarkFixtures.user(2, 8).getRoles()));
+        filter = new JwtAuthenticationFilter(jwtService, masks, BenchmarkFixtures.authMetrics());
+        authorizationHeader = "Bearer " + jwtService.generateAccessToken(BenchmarkFixtures.user(2, 8));
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/demo");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
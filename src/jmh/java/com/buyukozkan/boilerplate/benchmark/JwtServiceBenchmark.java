@@ -0,0 +1,50 @@
+package com.buyukozkan.boilerplate.benchmark;
+
+import com.buyukozkan.boilerplate.entity.User;
+import com.buyukozkan.boilerplate.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    @Param({"LIST", "BITSET"})
+    public JwtService.AuthoritiesFormat authoritiesFormat;
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user(3, 16);
+        jwtService = BenchmarkFixtures.jwtService(cacheEnabled, authoritiesFormat, user.getRoles());
+        token = jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token);
+    }
+
+    @Benchmark
+    public List<SimpleGrantedAuthority> extractAuthorities() {
+        return jwtService.extractAuthorities(token);
+    }
+}
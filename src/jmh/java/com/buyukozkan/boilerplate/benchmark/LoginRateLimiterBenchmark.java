@@ -0,0 +1,61 @@
+package com.buyukozkan.boilerplate.benchmark;
+
+import com.buyukozkan.boilerplate.exception.RateLimitExceededException;
+import com.buyukozkan.boilerplate.security.LoginRateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a throttle check next to the single BCrypt verification it protects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginRateLimiterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private LoginRateLimiter limiter;
+    private String[] clients;
+    private String[] emails;
+    private BCryptPasswordEncoder bcrypt;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        LoginRateLimiter.Limit limit = new LoginRateLimiter.Limit(20, Duration.ofMinutes(1));
+        limiter = new LoginRateLimiter(true, limit, limit, limit, 100_000);
+        clients = new String[CLIENTS];
+        emails = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+            emails[i] = "user" + i + "@example.com";
+        }
+        bcrypt = new BCryptPasswordEncoder();
+        hash = bcrypt.encode("password");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean throttleCheck() {
+        int i = ThreadLocalRandom.current().nextInt(CLIENTS);
+        try {
+            limiter.checkLogin(clients[i], emails[i]);
+            return true;
+        } catch (RateLimitExceededException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean bcryptVerify() {
+        return bcrypt.matches("password", hash);
+    }
+}
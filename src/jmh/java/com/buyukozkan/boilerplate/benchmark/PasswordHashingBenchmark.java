@@ -0,0 +1,43 @@
+package com.buyukozkan.boilerplate.benchmark;
+
+import com.buyukozkan.boilerplate.security.CalibratedPasswordEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one hash per algorithm and work factor, the table {@code password-hashing.target-latency}
+ * is chosen from. BCrypt strength doubles the cost per step; Argon2id memory (KiB, 2 iterations,
+ * 1 lane) roughly does, and also bounds how many hashes fit in memory at once.
+ * Verifying costs the same as hashing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashingBenchmark {
+
+    @Param({"bcrypt:10", "bcrypt:11", "bcrypt:12", "bcrypt:13",
+            "argon2:19456", "argon2:38912", "argon2:77824"})
+    public String workFactor;
+
+    private PasswordEncoder encoder;
+
+    @Setup
+    public void setUp() {
+        String[] parts = workFactor.split(":");
+        int value = Integer.parseInt(parts[1]);
+        encoder = switch (CalibratedPasswordEncoder.Algorithm.ofId(parts[0])) {
+            case BCRYPT -> CalibratedPasswordEncoder.bcrypt(value);
+            case ARGON2 -> CalibratedPasswordEncoder.argon2(value, 2, 1);
+        };
+    }
+
+    @Benchmark
+    public String hash() {
+        return encoder.encode("benchmark-Password-1");
+    }
+}
@@ -0,0 +1,154 @@
+package com.buyukozkan.boilerplate.benchmark;
+
+import com.buyukozkan.boilerplate.dto.UserImportStatus;
+import com.buyukozkan.boilerplate.entity.Role;
+import com.buyukozkan.boilerplate.repository.UserBulkRepository;
+import com.buyukozkan.boilerplate.repository.UserRepository;
+import com.buyukozkan.boilerplate.service.EmailExistenceFilter;
+import com.buyukozkan.boilerplate.service.UserImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Rows per second for the bulk import against a local Postgres (for example the one from
+ * docker-compose), compared with the register path's query, exists check and single-row
+ * inserts. Connection settings come from {@code -Dbenchmark.datasource.url/username/password}.
+ * {@code batchSize=1} approximates the per-row cost of the import pipeline itself.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostgresUserImportBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"1", "100", "500", "2000"})
+    public int batchSize;
+
+    @Param({"noop", "bcrypt"})
+    public String encoder;
+
+    private JdbcTemplate jdbcTemplate;
+    private UserBulkRepository userBulkRepository;
+    private UserImportService importService;
+    private PasswordEncoder passwordEncoder;
+    private long userRoleId;
+    private byte[] body;
+    private String[] emails;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("benchmark.datasource.url", "jdbc:postgresql://localhost:5432/boilerplate"),
+                System.getProperty("benchmark.datasource.username", "postgres"),
+                System.getProperty("benchmark.datasource.password", "secret123"));
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        Map<String, Long> roleIds = jdbcTemplate.query("SELECT id, name FROM roles", rs -> {
+            Map<String, Long> ids = new HashMap<>();
+            while (rs.next()) {
+                ids.put(rs.getString("name"), rs.getLong("id"));
+            }
+            return ids;
+        });
+        userRoleId = roleIds.get("USER");
+        List<Role> roles = roleIds.entrySet().stream().map(entry -> {
+            Role role = new Role(entry.getKey());
+            ReflectionTestUtils.setField(role, "id", entry.getValue());
+            return role;
+        }).toList();
+
+        // Strength 4 keeps a bcrypt run in seconds; production cost scales linearly with 2^strength
+        passwordEncoder = encoder.equals("bcrypt") ? new BCryptPasswordEncoder(4) : new PlainTextEncoder();
+        userBulkRepository = new UserBulkRepository(jdbcTemplate);
+        importService = new UserImportService(userBulkRepository, BenchmarkFixtures.roleCatalog(roles),
+                passwordEncoder, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                new EmailExistenceFilter(mock(UserRepository.class), TransactionOperations.withoutTransaction()));
+        ReflectionTestUtils.setField(importService, "batchSize", batchSize);
+        ReflectionTestUtils.setField(importService, "hashingThreads", 0);
+        ReflectionTestUtils.setField(importService, "maxReportedErrors", 100);
+        ReflectionTestUtils.setField(importService, "jobRetention", Duration.ofMinutes(10));
+        ReflectionTestUtils.invokeMethod(importService, "init");
+
+        emails = IntStream.range(0, ROWS).mapToObj(i -> "bench-import-" + i + "@example.com").toArray(String[]::new);
+        body = IntStream.range(0, ROWS)
+                .mapToObj(i -> "{\"email\":\"" + emails[i] + "\",\"password\":\"password-" + i + "\"}")
+                .collect(Collectors.joining(",", "[", "]"))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Invocation)
+    public void clean() {
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'bench-import-%'");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clean();
+        ReflectionTestUtils.invokeMethod(importService, "shutdown");
+    }
+
+    @Benchmark
+    public UserImportStatus bulkImport() throws InterruptedException {
+        UserImportStatus status = importService.importUsers(new ByteArrayInputStream(body), false);
+        while ((status = importService.status(status.jobId())).finishedAt() == null) {
+            Thread.sleep(1);
+        }
+        if (status.imported() != ROWS) {
+            throw new IllegalStateException("Imported " + status.imported() + " of " + ROWS + ": " + status);
+        }
+        return status;
+    }
+
+    @Benchmark
+    public int registerPerRow() {
+        // What AuthService.register does per user, minus token generation: new emails miss the
+        // email filter, so each one is a single insert statement
+        int inserted = 0;
+        for (int i = 0; i < ROWS; i++) {
+            userBulkRepository.insert(new UserBulkRepository.NewUser(UUID.randomUUID(), emails[i],
+                    passwordEncoder.encode("password-" + i), List.of(userRoleId)));
+            inserted++;
+        }
+        return inserted;
+    }
+
+    // Stores passwords as given, so the "noop" runs measure parsing and inserts only
+    private record PlainTextEncoder() implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.buyukozkan.boilerplate.benchmark;
+
+import com.buyukozkan.boilerplate.entity.User;
+import com.buyukozkan.boilerplate.security.SigningAlgorithm;
+import com.buyukozkan.boilerplate.security.VerifiedToken;
+import com.buyukozkan.boilerplate.service.JwtService;
+import com.buyukozkan.boilerplate.service.SigningKeyRing;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token signing and verification per {@code jwt.signing.algorithm}, with the
+ * verified-token cache disabled. The asymmetric algorithms cost more here, in exchange for
+ * resource servers verifying on their own instead of calling introspection.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SigningAlgorithmBenchmark {
+
+    @Param({"HS256", "ES256", "EDDSA"})
+    public SigningAlgorithm algorithm;
+
+    private SigningKeyRing signingKeys;
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user(2, 8);
+        signingKeys = BenchmarkFixtures.signingKeyRing(algorithm);
+        jwtService = BenchmarkFixtures.jwtService(false, JwtService.AuthoritiesFormat.LIST, false, user.getRoles(),
+                signingKeys);
+        token = jwtService.generateAccessToken(user);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(signingKeys, "shutdown");
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtService.verify(token);
+    }
+}
@@ -0,0 +1,49 @@
+package com.buyukozkan.boilerplate.benchmark;
+
+import com.buyukozkan.boilerplate.entity.User;
+import com.buyukozkan.boilerplate.security.VerifiedToken;
+import com.buyukozkan.boilerplate.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * jjwt versus the fixed-layout HS256 codec, with the verified-token cache disabled so every
+ * verification does the full signature check.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenCodecBenchmark {
+
+    @Param({"false", "true"})
+    public boolean fastCodec;
+
+    @Param({"1:4", "3:16"})
+    public String rolesByPermissions;
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        String[] shape = rolesByPermissions.split(":");
+        user = BenchmarkFixtures.user(Integer.parseInt(shape[0]), Integer.parseInt(shape[1]));
+        jwtService = BenchmarkFixtures.jwtService(false, JwtService.AuthoritiesFormat.LIST, fastCodec, user.getRoles());
+        token = jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtService.verify(token);
+    }
+}
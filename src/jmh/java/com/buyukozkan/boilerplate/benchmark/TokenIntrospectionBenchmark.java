@@ -0,0 +1,81 @@
+package com.buyukozkan.boilerplate.benchmark;
+
+import com.buyukozkan.boilerplate.entity.User;
+import com.buyukozkan.boilerplate.service.JwtService;
+import com.buyukozkan.boilerplate.service.TokenIntrospectionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch introspection from the request body to the written response, without HTTP. The
+ * {@code tokens} counter is the per-token throughput; its inverse is the cost of one token
+ * at the given batch size. With the cache enabled every token is a hit after the first batch,
+ * as for a gateway re-checking the tokens of its live sessions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenIntrospectionBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int batchSize;
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    private TokenIntrospectionService service;
+    private byte[] body;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Tokens {
+
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        User user = BenchmarkFixtures.user(2, 8);
+        JwtService jwtService = BenchmarkFixtures.jwtService(cacheEnabled);
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> tokens = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            tokens.add(jwtService.generateAccessToken("user" + i + "@example.com", user.getAuthorities()));
+        }
+        body = objectMapper.writeValueAsBytes(tokens);
+
+        service = new TokenIntrospectionService(jwtService, objectMapper, BenchmarkFixtures.authMetrics());
+        ReflectionTestUtils.setField(service, "chunkSize", 256);
+        ReflectionTestUtils.setField(service, "threads", 0);
+        ReflectionTestUtils.setField(service, "minSliceSize", 32);
+        ReflectionTestUtils.invokeMethod(service, "init");
+    }
+
+    @TearDown
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "shutdown");
+    }
+
+    @Benchmark
+    public long introspect(Tokens counter) throws IOException {
+        long introspected = service.introspect(new ByteArrayInputStream(body), OutputStream.nullOutputStream());
+        counter.tokens += introspected;
+        return introspected;
+    }
+}
@@ -0,0 +1,33 @@
+package com.buyukozkan.boilerplate.benchmark;
+
+import com.buyukozkan.boilerplate.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserAuthoritiesBenchmark {
+
+    @Param({"1:4", "3:16", "8:64"})
+    public String rolesByPermissions;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        String[] shape = rolesByPermissions.split(":");
+        user = BenchmarkFixtures.user(Integer.parseInt(shape[0]), Integer.parseInt(shape[1]));
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return user.getAuthorities();
+    }
+}
@@ -0,0 +1,131 @@
+package com.buyukozkan.boilerplate.benchmark.e2e;
+
+import com.buyukozkan.boilerplate.BoilerplateApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Starts the full application against an embedded Postgres (migrated by Flyway on startup) and
+ * runs a mixed register/login/refresh/GET workload over HTTP. Needs no network and no running
+ * database; the Postgres binaries come from the Maven repository.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark -DskipTests verify -Djmh.skip -De2e.skip=false \
+ *     -De2e.args="mode=open rate=300 duration=60s mix=login:20,get:80"
+ * </pre>
+ *
+ * Options: {@code mode=closed|open}, {@code concurrency} (closed), {@code rate} per second and
+ * {@code maxInFlight} (open), {@code warmup}, {@code duration}, {@code users}, {@code mix}
+ * ({@code register:5,login:10,refresh:15,get:70}) and {@code report}. Arguments starting with
+ * {@code --} override application properties, e.g. {@code --jwt.fast-codec.enabled=true}; the
+ * reactive stack runs the same workload with {@code --spring.main.web-application-type=reactive}.
+ */
+public final class EndToEndBenchmark {
+
+    private EndToEndBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ConfigurableApplicationContext application = startApplication(postgres, options)) {
+            String baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+
+            Workload workload = new Workload(baseUrl, options.mix());
+            workload.prepare(options.users());
+
+            LoadGenerator generator = new LoadGenerator(workload, options);
+            System.out.printf("Warming up for %s%n", options.warmup());
+            generator.run(options.warmup());
+            System.out.printf("Measuring %s %s%n", options.mode(), options.duration());
+            Instant startedAt = Instant.now();
+            LoadGenerator.Result result = generator.run(options.duration());
+
+            LoadReport report = report(options, application, startedAt, result);
+            Path path = Path.of(options.report());
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            new ObjectMapper()
+                    .registerModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .writerWithDefaultPrettyPrinter()
+                    .writeValue(path.toFile(), report);
+            print(report);
+            System.out.printf("Report written to %s%n", path.toAbsolutePath());
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(EmbeddedPostgres postgres, LoadOptions options) {
+        // Passed as command line arguments so they win over application.yml and its env placeholders
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"));
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "");
+        properties.put("server.port", "0");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.main.banner-mode", "off");
+        // A single client address would hit the per-client login limit within seconds
+        properties.put("rate-limit.enabled", "false");
+        properties.put("logging.level.com.buyukozkan.boilerplate", "WARN");
+        for (String arg : options.applicationArgs()) {
+            int separator = arg.indexOf('=');
+            properties.put(arg.substring(2, separator < 0 ? arg.length() : separator),
+                    separator < 0 ? "true" : arg.substring(separator + 1));
+        }
+
+        return SpringApplication.run(BoilerplateApplication.class, properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new));
+    }
+
+    private static LoadReport report(LoadOptions options, ConfigurableApplicationContext application,
+                                     Instant startedAt, LoadGenerator.Result result) {
+        Map<String, LoadReport.OperationReport> operations = new LinkedHashMap<>();
+        for (Workload.Operation operation : options.mix().keySet()) {
+            operations.put(operation.name().toLowerCase(Locale.ROOT), result.stats().report(operation, result.seconds()));
+        }
+        Map<String, String> environment = new LinkedHashMap<>();
+        environment.put("java", Runtime.version().toString());
+        environment.put("cpus", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        environment.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        environment.put("webApplicationType", application.getEnvironment().getProperty("spring.main.web-application-type"));
+        environment.put("users", String.valueOf(options.users()));
+        environment.put("applicationArgs", String.join(" ", options.applicationArgs()));
+
+        boolean closed = options.mode() == LoadOptions.Mode.CLOSED;
+        return new LoadReport(
+                options.mode().name().toLowerCase(Locale.ROOT),
+                closed ? options.concurrency() : null,
+                closed ? null : options.rate(),
+                result.seconds(),
+                startedAt,
+                environment,
+                operations,
+                result.stats().total(result.seconds()));
+    }
+
+    private static void print(LoadReport report) {
+        System.out.printf("%n%-10s %10s %10s %8s %10s %10s %10s %10s%n",
+                "operation", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        report.operations().forEach((name, operation) -> print(name, operation));
+        print("total", report.total());
+    }
+
+    private static void print(String name, LoadReport.OperationReport operation) {
+        System.out.printf("%-10s %10d %10.1f %8d %10.2f %10.2f %10.2f %10.2f%n",
+                name, operation.requests(), operation.throughput(), operation.errors() + operation.dropped(),
+                operation.latencyMs().p50(), operation.latencyMs().p99(), operation.latencyMs().p999(),
+                operation.latencyMs().max());
+    }
+}
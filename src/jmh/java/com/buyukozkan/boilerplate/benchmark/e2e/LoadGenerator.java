@@ -0,0 +1,94 @@
+package com.buyukozkan.boilerplate.benchmark.e2e;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the workload for a fixed time. Closed-loop mode measures how much a fixed number of
+ * clients can push through; open-loop mode sends at a fixed rate and measures latency from the
+ * time each request was scheduled, so queueing in the server is not hidden by slow clients
+ * (coordinated omission).
+ */
+final class LoadGenerator {
+
+    private final Workload workload;
+    private final LoadOptions options;
+
+    LoadGenerator(Workload workload, LoadOptions options) {
+        this.workload = workload;
+        this.options = options;
+    }
+
+    /**
+     * @return the stats of the run and its measured length in seconds
+     */
+    Result run(Duration duration) {
+        LoadStats stats = new LoadStats();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (options.mode() == LoadOptions.Mode.CLOSED) {
+                for (int i = 0; i < options.concurrency(); i++) {
+                    executor.submit(() -> closedLoop(stats, end));
+                }
+            } else {
+                openLoop(executor, stats, start, end);
+            }
+        }
+        return new Result(stats, (System.nanoTime() - start) / 1e9);
+    }
+
+    private void closedLoop(LoadStats stats, long end) {
+        while (System.nanoTime() < end) {
+            Workload.Operation operation = workload.pick();
+            long started = System.nanoTime();
+            int status = send(operation);
+            stats.record(operation, started, System.nanoTime(), status);
+        }
+    }
+
+    private void openLoop(ExecutorService executor, LoadStats stats, long start, long end) {
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        double intervalNanos = 1e9 / options.rate();
+        for (long i = 0; ; i++) {
+            long scheduled = start + (long) (i * intervalNanos);
+            if (scheduled >= end) {
+                return;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Workload.Operation operation = workload.pick();
+            if (!inFlight.tryAcquire()) {
+                stats.dropped(operation);
+                continue;
+            }
+            executor.submit(() -> {
+                try {
+                    int status = send(operation);
+                    stats.record(operation, scheduled, System.nanoTime(), status);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    private int send(Workload.Operation operation) {
+        try {
+            return workload.execute(operation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return LoadStats.IO_ERROR;
+        } catch (Exception e) {
+            return LoadStats.IO_ERROR;
+        }
+    }
+
+    record Result(LoadStats stats, double seconds) {
+    }
+}
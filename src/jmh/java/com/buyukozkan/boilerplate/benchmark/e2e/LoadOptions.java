@@ -0,0 +1,77 @@
+package com.buyukozkan.boilerplate.benchmark.e2e;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * {@code key=value} arguments of the end-to-end run; arguments starting with {@code --} are
+ * passed through to the application as Spring properties.
+ */
+record LoadOptions(
+        Mode mode,
+        int concurrency,
+        int rate,
+        int maxInFlight,
+        Duration warmup,
+        Duration duration,
+        int users,
+        Map<Workload.Operation, Integer> mix,
+        String report,
+        List<String> applicationArgs
+) {
+
+    enum Mode {
+        /** A fixed number of workers, each sending its next request when the previous one returns */
+        CLOSED,
+        /** Requests start on a fixed schedule regardless of how fast the server answers */
+        OPEN
+    }
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value or --spring.property=value, got: " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        LoadOptions options = new LoadOptions(
+                Mode.valueOf(values.getOrDefault("mode", "closed").toUpperCase(Locale.ROOT)),
+                Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                Integer.parseInt(values.getOrDefault("maxInFlight", "2000")),
+                duration(values.getOrDefault("warmup", "10s")),
+                duration(values.getOrDefault("duration", "30s")),
+                Integer.parseInt(values.getOrDefault("users", "200")),
+                mix(values.getOrDefault("mix", "register:5,login:10,refresh:15,get:70")),
+                values.getOrDefault("report", "target/e2e-report.json"),
+                List.copyOf(applicationArgs));
+        values.keySet().removeAll(Set.of("mode", "concurrency", "rate", "maxInFlight", "warmup", "duration",
+                "users", "mix", "report"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        return options;
+    }
+
+    private static Duration duration(String value) {
+        return Duration.parse("PT" + value.toUpperCase(Locale.ROOT));
+    }
+
+    private static Map<Workload.Operation, Integer> mix(String value) {
+        Map<Workload.Operation, Integer> weights = new EnumMap<>(Workload.Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(Workload.Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)),
+                    Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+}
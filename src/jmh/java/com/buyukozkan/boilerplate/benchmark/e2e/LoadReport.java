@@ -0,0 +1,63 @@
+package com.buyukozkan.boilerplate.benchmark.e2e;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Machine-readable result of one run, written as JSON so releases can be compared.
+ */
+record LoadReport(
+        String mode,
+        Integer concurrency,
+        Integer targetRate,
+        double durationSeconds,
+        Instant startedAt,
+        Map<String, String> environment,
+        Map<String, OperationReport> operations,
+        OperationReport total
+) {
+
+    record OperationReport(
+            long requests,
+            long errors,
+            long dropped,
+            double errorRate,
+            double throughput,
+            Latency latencyMs,
+            Map<String, Long> statusCodes
+    ) {
+
+        static OperationReport of(Histogram latency, long errors, long dropped,
+                                  Map<String, Long> statusCodes, double seconds) {
+            long requests = latency.getTotalCount();
+            long attempted = requests + dropped;
+            return new OperationReport(
+                    requests,
+                    errors,
+                    dropped,
+                    attempted == 0 ? 0 : (double) (errors + dropped) / attempted,
+                    requests / seconds,
+                    Latency.of(latency),
+                    statusCodes);
+        }
+    }
+
+    record Latency(double p50, double p90, double p99, double p999, double max, double mean) {
+
+        static Latency of(Histogram micros) {
+            return new Latency(
+                    millis(micros.getValueAtPercentile(50)),
+                    millis(micros.getValueAtPercentile(90)),
+                    millis(micros.getValueAtPercentile(99)),
+                    millis(micros.getValueAtPercentile(99.9)),
+                    millis(micros.getMaxValue()),
+                    micros.getTotalCount() == 0 ? 0 : Math.round(micros.getMean()) / 1000.0);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.buyukozkan.boilerplate.benchmark.e2e;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and status counts per operation. Latencies are kept in microseconds
+ * with three significant digits, up to one minute.
+ */
+final class LoadStats {
+
+    /** Recorded for requests that failed before a response arrived */
+    static final int IO_ERROR = -1;
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<Workload.Operation, OperationStats> operations = new EnumMap<>(Workload.Operation.class);
+
+    LoadStats() {
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            operations.put(operation, new OperationStats());
+        }
+    }
+
+    void record(Workload.Operation operation, long startNanos, long endNanos, int status) {
+        OperationStats stats = operations.get(operation);
+        stats.latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS,
+                Math.max(1, TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos))));
+        stats.statusCodes.computeIfAbsent(status, code -> new LongAdder()).increment();
+        if (status < 200 || status >= 300) {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * An open-loop request that was never sent because too many were already in flight.
+     */
+    void dropped(Workload.Operation operation) {
+        operations.get(operation).dropped.increment();
+    }
+
+    LoadReport.OperationReport report(Workload.Operation operation, double seconds) {
+        OperationStats stats = operations.get(operation);
+        return LoadReport.OperationReport.of(stats.latency, stats.errors.sum(), stats.dropped.sum(),
+                statusCodes(stats), seconds);
+    }
+
+    LoadReport.OperationReport total(double seconds) {
+        Histogram latency = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long errors = 0;
+        long dropped = 0;
+        Map<String, Long> statusCodes = new TreeMap<>();
+        for (OperationStats stats : operations.values()) {
+            latency.add(stats.latency);
+            errors += stats.errors.sum();
+            dropped += stats.dropped.sum();
+            statusCodes(stats).forEach((code, count) -> statusCodes.merge(code, count, Long::sum));
+        }
+        return LoadReport.OperationReport.of(latency, errors, dropped, statusCodes, seconds);
+    }
+
+    private static Map<String, Long> statusCodes(OperationStats stats) {
+        Map<String, Long> codes = new TreeMap<>();
+        stats.statusCodes.forEach((code, count) ->
+                codes.put(code == IO_ERROR ? "io_error" : String.valueOf(code), count.sum()));
+        return codes;
+    }
+
+    private static final class OperationStats {
+
+        final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+    }
+}
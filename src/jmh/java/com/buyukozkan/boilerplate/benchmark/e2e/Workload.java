@@ -0,0 +1,175 @@
+package com.buyukozkan.boilerplate.benchmark.e2e;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The requests of the mixed workload, sent over the real HTTP stack. A pool of registered
+ * accounts provides the credentials and tokens for login, refresh and authenticated reads.
+ */
+final class Workload {
+
+    enum Operation {
+        REGISTER, LOGIN, REFRESH, GET
+    }
+
+    private static final String PASSWORD = "e2e-password";
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong registrations = new AtomicLong();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final List<Account> accounts = new ArrayList<>();
+
+    Workload(String baseUrl, Map<Operation, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.operations = mix.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Registers the account pool that login, refresh and get requests draw from.
+     */
+    void prepare(int users) throws Exception {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Account>> registered = new ArrayList<>();
+            for (int i = 0; i < users; i++) {
+                registered.add(executor.submit(() -> {
+                    String email = nextEmail();
+                    HttpResponse<String> response = post("/api/auth/register", credentials(email));
+                    // Registrations are not bounded by the connection pool, so the hashing queue can push back
+                    while (response.statusCode() == 503) {
+                        Thread.sleep(Duration.ofSeconds(response.headers().firstValueAsLong("Retry-After").orElse(1)));
+                        response = post("/api/auth/register", credentials(email));
+                    }
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("Registering " + email + " failed: " + response.statusCode()
+                                + " " + response.body());
+                    }
+                    Account account = new Account(email);
+                    account.update(objectMapper.readTree(response.body()));
+                    return account;
+                }));
+            }
+            for (Future<Account> account : registered) {
+                accounts.add(account.get());
+            }
+        }
+    }
+
+    Operation pick() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    /**
+     * @return the HTTP status code of the request
+     */
+    int execute(Operation operation) throws IOException, InterruptedException {
+        return switch (operation) {
+            case REGISTER -> post("/api/auth/register", credentials(nextEmail())).statusCode();
+            case LOGIN -> {
+                Account account = randomAccount();
+                HttpResponse<String> response = post("/api/auth/login", credentials(account.email));
+                if (response.statusCode() == 200) {
+                    account.update(objectMapper.readTree(response.body()));
+                }
+                yield response.statusCode();
+            }
+            case REFRESH -> refresh();
+            case GET -> client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/demo"))
+                            .header("Authorization", "Bearer " + randomAccount().accessToken)
+                            .GET()
+                            .build(), HttpResponse.BodyHandlers.discarding())
+                    .statusCode();
+        };
+    }
+
+    private int refresh() throws IOException, InterruptedException {
+        // One refresh per account at a time, so a rotated refresh token is never replayed
+        Account account = randomAccount();
+        while (!account.refreshing.compareAndSet(false, true)) {
+            account = randomAccount();
+        }
+        try {
+            HttpResponse<String> response = post("/api/auth/refresh",
+                    objectMapper.writeValueAsString(Map.of("refreshToken", account.refreshToken)));
+            if (response.statusCode() == 200) {
+                account.update(objectMapper.readTree(response.body()));
+            }
+            return response.statusCode();
+        } finally {
+            account.refreshing.set(false);
+        }
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String credentials(String email) throws IOException {
+        return objectMapper.writeValueAsString(Map.of("email", email, "password", PASSWORD));
+    }
+
+    private String nextEmail() {
+        return "e2e-" + runId + "-" + registrations.incrementAndGet() + "@example.com";
+    }
+
+    private Account randomAccount() {
+        return accounts.get(ThreadLocalRandom.current().nextInt(accounts.size()));
+    }
+
+    private static final class Account {
+
+        final String email;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile String accessToken;
+        volatile String refreshToken;
+
+        Account(String email) {
+            this.email = email;
+        }
+
+        void update(JsonNode tokens) {
+            accessToken = tokens.get("accessToken").asText();
+            refreshToken = tokens.get("refreshToken").asText();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.buyukozkan.boilerplate.benchmark.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Starts the packaged application repeatedly in each launch mode and measures how long a new
+ * instance takes until {@code /actuator/health} answers, i.e. until it could take traffic.
+ * Every start is a fresh process against the same embedded Postgres; one unmeasured start
+ * applies the migrations and warms the page cache first.
+ *
+ * <pre>
+ * ./mvnw -Paot,cds,benchmark -DskipTests verify -Djmh.skip -Dstartup.skip=false \
+ *     -Dcds.training.args="--spring.datasource.url=..." -Dstartup.args="runs=5"
+ * </pre>
+ *
+ * Modes: {@code jvm} (extracted jar), {@code cds} (plus the AppCDS archive), {@code aot} (Spring
+ * AOT initializers), {@code aot-cds} and {@code native} (GraalVM executable). The JVM modes run
+ * the extracted jar in {@code dir}, built by the {@code cds} profile; modes whose artifact is
+ * missing are skipped. Options: {@code dir}, {@code modes}, {@code runs}, {@code native},
+ * {@code timeout} and {@code report}. Arguments starting with {@code --} are passed to the
+ * application.
+ */
+public final class StartupBenchmark {
+
+    private static final String ARCHIVE = "application.jsa";
+    private static final String AOT_INITIALIZER =
+            "com/buyukozkan/boilerplate/BoilerplateApplication__ApplicationContextInitializer.class";
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+
+    private final Path dir;
+    private final Path nativeExecutable;
+    private final Duration timeout;
+    private final List<String> applicationArgs;
+    private final Path logs;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    private StartupBenchmark(Path dir, Path nativeExecutable, Duration timeout, List<String> applicationArgs,
+                             Path logs) {
+        this.dir = dir;
+        this.nativeExecutable = nativeExecutable;
+        this.timeout = timeout;
+        this.applicationArgs = applicationArgs;
+        this.logs = logs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value or --spring.property=value, got: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        Path dir = Path.of(options.getOrDefault("dir", "target/cds"));
+        List<String> modes = List.of(options.getOrDefault("modes", "jvm,cds,aot,aot-cds,native").split(","));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        Path report = Path.of(options.getOrDefault("report", "target/startup-report.json"));
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            List<String> properties = new ArrayList<>(List.of(
+                    "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                    "--spring.datasource.username=postgres",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.show-sql=false",
+                    "--spring.main.banner-mode=off"));
+            properties.addAll(applicationArgs);
+            StartupBenchmark benchmark = new StartupBenchmark(dir,
+                    Path.of(options.getOrDefault("native", "target/boilerplate")),
+                    Duration.parse("PT" + options.getOrDefault("timeout", "120s").toUpperCase(Locale.ROOT)),
+                    List.copyOf(properties),
+                    report.toAbsolutePath().getParent().resolve("startup-logs"));
+            benchmark.run(modes, runs, report);
+        }
+    }
+
+    private void run(List<String> modes, int runs, Path report) throws Exception {
+        Files.createDirectories(logs);
+        Map<String, List<String>> commands = new LinkedHashMap<>();
+        for (String mode : modes) {
+            Optional<List<String>> command = command(mode.trim());
+            command.ifPresent(value -> commands.put(mode.trim(), value));
+        }
+        if (commands.isEmpty()) {
+            throw new IllegalStateException("Nothing to measure in " + dir.toAbsolutePath()
+                    + "; build with -Pcds (and -Paot, -Pnative) first");
+        }
+
+        // Applies the Flyway migrations, which later starts only validate
+        System.out.println("Warm-up start");
+        start("warmup", 0, commands.values().iterator().next());
+
+        Map<String, StartupReport.ModeReport> results = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> mode : commands.entrySet()) {
+            List<Sample> samples = new ArrayList<>();
+            for (int run = 1; run <= runs; run++) {
+                Sample sample = start(mode.getKey(), run, mode.getValue());
+                System.out.printf("%-8s run %d: ready in %d ms%n", mode.getKey(), run, sample.readyMs());
+                samples.add(sample);
+            }
+            results.put(mode.getKey(), StartupReport.ModeReport.of(String.join(" ", mode.getValue()), samples));
+        }
+
+        Map<String, String> environment = new LinkedHashMap<>();
+        environment.put("java", Runtime.version().toString());
+        environment.put("cpus", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        environment.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        StartupReport startupReport = new StartupReport(Instant.now(), runs, environment, results);
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .writerWithDefaultPrettyPrinter()
+                .writeValue(report.toFile(), startupReport);
+        print(startupReport);
+        System.out.printf("Report written to %s%n", report.toAbsolutePath());
+    }
+
+    private Optional<List<String>> command(String mode) throws IOException {
+        if (mode.equals("native")) {
+            if (!Files.isExecutable(nativeExecutable)) {
+                return skip(mode, nativeExecutable + " not found, build it with -Pnative native:compile");
+            }
+            return Optional.of(List.of(nativeExecutable.toAbsolutePath().toString()));
+        }
+        Optional<Path> jar = applicationJar();
+        if (jar.isEmpty()) {
+            return skip(mode, "no extracted jar in " + dir + ", build with -Pcds");
+        }
+        boolean cds = mode.endsWith("cds");
+        boolean aot = mode.startsWith("aot");
+        if (!mode.equals("jvm") && !cds && !aot) {
+            throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        if (cds && !Files.exists(dir.resolve(ARCHIVE))) {
+            return skip(mode, ARCHIVE + " not found in " + dir + ", the cds profile's training run did not complete");
+        }
+        if (aot && !hasAotInitializer(jar.get())) {
+            return skip(mode, jar.get().getFileName() + " was not processed by Spring AOT, build with -Paot");
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (cds) {
+            // Fail instead of silently starting without the archive, e.g. after a JDK update
+            command.add("-XX:SharedArchiveFile=" + ARCHIVE);
+            command.add("-Xshare:on");
+        }
+        if (aot) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.add("-jar");
+        command.add(jar.get().getFileName().toString());
+        return Optional.of(command);
+    }
+
+    private static Optional<List<String>> skip(String mode, String reason) {
+        System.out.printf("Skipping %s: %s%n", mode, reason);
+        return Optional.empty();
+    }
+
+    private Optional<Path> applicationJar() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar")).findFirst();
+        }
+    }
+
+    private static boolean hasAotInitializer(Path jar) throws IOException {
+        try (JarFile file = new JarFile(jar.toFile())) {
+            return file.getEntry(AOT_INITIALIZER) != null;
+        }
+    }
+
+    private Sample start(String mode, int run, List<String> command) throws Exception {
+        int port = freePort();
+        List<String> arguments = new ArrayList<>(command);
+        arguments.addAll(applicationArgs);
+        arguments.add("--server.port=" + port);
+        Path log = logs.resolve(mode + "-" + run + ".log");
+        ProcessBuilder builder = new ProcessBuilder(arguments)
+                .directory(dir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+
+        long startedAt = System.nanoTime();
+        Process process = builder.start();
+        try {
+            awaitHealthy(process, port, log);
+            long readyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            return new Sample(readyMs, reportedStartMs(log), residentMb(process.pid()));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private void awaitHealthy(Process process, int port, Path log) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("Application not healthy after " + timeout + ", see " + log);
+    }
+
+    /** Start time as logged by Spring Boot, which excludes JVM startup; {@code -1} if not found */
+    private static long reportedStartMs(Path log) throws IOException {
+        Matcher matcher = STARTED.matcher(Files.readString(log));
+        return matcher.find() ? Math.round(Double.parseDouble(matcher.group(1)) * 1000) : -1;
+    }
+
+    /** Resident memory right after the instance became healthy; {@code -1} where /proc is not available */
+    private static long residentMb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) / 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void print(StartupReport report) {
+        System.out.printf("%n%-8s %12s %12s %12s %14s %10s%n",
+                "mode", "ready p50", "ready min", "ready max", "reported p50", "rss MB");
+        report.modes().forEach((mode, result) -> System.out.printf("%-8s %12d %12d %12d %14d %10d%n",
+                mode, result.readyMs().p50(), result.readyMs().min(), result.readyMs().max(),
+                result.reportedStartMs().p50(), result.residentMb().p50()));
+    }
+
+    record Sample(long readyMs, long reportedStartMs, long residentMb) {
+    }
+}
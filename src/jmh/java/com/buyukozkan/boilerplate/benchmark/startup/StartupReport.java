@@ -0,0 +1,36 @@
+package com.buyukozkan.boilerplate.benchmark.startup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Result of a {@link StartupBenchmark} run, written as JSON. Times are in milliseconds; the
+ * reported start time is Spring Boot's own "Started ... in" figure, which excludes JVM startup.
+ */
+record StartupReport(
+        Instant finishedAt,
+        int runs,
+        Map<String, String> environment,
+        Map<String, ModeReport> modes
+) {
+
+    record ModeReport(String command, Summary readyMs, Summary reportedStartMs, Summary residentMb) {
+
+        static ModeReport of(String command, List<StartupBenchmark.Sample> samples) {
+            return new ModeReport(command,
+                    Summary.of(samples, StartupBenchmark.Sample::readyMs),
+                    Summary.of(samples, StartupBenchmark.Sample::reportedStartMs),
+                    Summary.of(samples, StartupBenchmark.Sample::residentMb));
+        }
+    }
+
+    record Summary(long min, long p50, long max) {
+
+        static Summary of(List<StartupBenchmark.Sample> samples, ToLongFunction<StartupBenchmark.Sample> value) {
+            long[] sorted = samples.stream().mapToLong(value).sorted().toArray();
+            return new Summary(sorted[0], sorted[sorted.length / 2], sorted[sorted.length - 1]);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.buyukozkan.boilerplate;
 
+import com.buyukozkan.boilerplate.config.NativeImageHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeImageHints.class)
 public class BoilerplateApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,65 @@
+package com.buyukozkan.boilerplate.config;
+
+import com.buyukozkan.boilerplate.security.CalibratedPasswordEncoder;
+import com.buyukozkan.boilerplate.security.LoginRateLimiter;
+import com.buyukozkan.boilerplate.security.OffloadingPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Beans shared by the servlet and the reactive stack.
+ */
+@Configuration
+public class AuthConfig {
+
+    /**
+     * Work factors left at 0 are calibrated at startup to take about {@code target-latency} per hash.
+     */
+    @Bean
+    public OffloadingPasswordEncoder passwordEncoder(
+            @Value("${password-hashing.pool-size:0}") int poolSize,
+            @Value("${password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${password-hashing.retry-after-seconds:1}") long retryAfterSeconds,
+            @Value("${password-hashing.algorithm:bcrypt}") String algorithm,
+            @Value("${password-hashing.target-latency:100ms}") Duration targetLatency,
+            @Value("${password-hashing.calibration-samples:3}") int calibrationSamples,
+            @Value("${password-hashing.rehash.enabled:true}") boolean rehashOnLogin,
+            @Value("${password-hashing.rehash.tolerance-steps:1}") int rehashToleranceSteps,
+            @Value("${password-hashing.bcrypt.strength:0}") int bcryptStrength,
+            @Value("${password-hashing.bcrypt.min-strength:10}") int bcryptMinStrength,
+            @Value("${password-hashing.argon2.memory:0}") DataSize argon2Memory,
+            @Value("${password-hashing.argon2.min-memory:19MB}") DataSize argon2MinMemory,
+            @Value("${password-hashing.argon2.max-memory:64MB}") DataSize argon2MaxMemory,
+            @Value("${password-hashing.argon2.iterations:2}") int argon2Iterations,
+            @Value("${password-hashing.argon2.parallelism:1}") int argon2Parallelism) {
+        PasswordEncoder encoder = CalibratedPasswordEncoder.calibrated(
+                CalibratedPasswordEncoder.Algorithm.ofId(algorithm),
+                new CalibratedPasswordEncoder.WorkFactors(bcryptStrength, (int) argon2Memory.toKilobytes(),
+                        argon2Iterations, argon2Parallelism),
+                new CalibratedPasswordEncoder.Calibration(targetLatency, calibrationSamples, bcryptMinStrength,
+                        (int) argon2MinMemory.toKilobytes(), (int) argon2MaxMemory.toKilobytes()),
+                rehashOnLogin, rehashToleranceSteps);
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new OffloadingPasswordEncoder(encoder, threads, queueCapacity, retryAfterSeconds);
+    }
+
+    @Bean
+    public LoginRateLimiter loginRateLimiter(
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.login.per-client:20}") int loginPerClient,
+            @Value("${rate-limit.login.per-account:5}") int loginPerAccount,
+            @Value("${rate-limit.refresh.per-client:30}") int refreshPerClient,
+            @Value("${rate-limit.period:1m}") Duration period,
+            @Value("${rate-limit.max-tracked-keys:100000}") long maxTrackedKeys) {
+        return new LoginRateLimiter(enabled,
+                new LoginRateLimiter.Limit(loginPerClient, period),
+                new LoginRateLimiter.Limit(loginPerAccount, period),
+                new LoginRateLimiter.Limit(refreshPerClient, period),
+                maxTrackedKeys);
+    }
+}
@@ -0,0 +1,34 @@
+package com.buyukozkan.boilerplate.config;
+
+import com.buyukozkan.boilerplate.service.AuthorizationChangeListener;
+import com.buyukozkan.boilerplate.service.RefreshTokenStore;
+import com.buyukozkan.boilerplate.service.RoleCatalog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "authorization.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class AuthorizationInvalidationConfig {
+
+    @Bean(initMethod = "start")
+    public AuthorizationChangeListener authorizationChangeListener(
+            DataSourceProperties dataSourceProperties,
+            RoleCatalog roleCatalog,
+            RefreshTokenStore refreshTokenStore,
+            @Value("${authorization.invalidation.poll-interval:10s}") Duration pollInterval,
+            @Value("${authorization.invalidation.reconnect-delay:5s}") Duration reconnectDelay) {
+        // LISTEN is bound to the session, so the listener keeps its own connection instead of pinning one from the pool
+        DriverManagerDataSource listenerDataSource = new DriverManagerDataSource(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+        return new AuthorizationChangeListener(listenerDataSource, roleCatalog, refreshTokenStore,
+                pollInterval, reconnectDelay);
+    }
+}
@@ -0,0 +1,82 @@
+package com.buyukozkan.boilerplate.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read/write split. The application {@link DataSource} hands out lazy connections that are
+ * fetched on the first statement, once the transaction's read-only flag is known: read-only
+ * transactions go through {@link ReadReplica}, everything else, Flyway included, to the primary
+ * pool. The bean graph does not depend on whether a replica is configured, so an AOT-processed
+ * build can still be pointed at one at runtime.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties,
+                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return dataSource;
+    }
+
+    @Bean(initMethod = "start")
+    public ReadReplica readReplica(
+            HikariDataSource primaryDataSource,
+            Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${read-replica.url:}") String url,
+            @Value("${read-replica.username:}") String username,
+            @Value("${read-replica.password:}") String password,
+            @Value("${read-replica.max-lag:5s}") Duration maxLag,
+            @Value("${read-replica.check-interval:1s}") Duration checkInterval) {
+        if (!StringUtils.hasText(url)) {
+            return new ReadReplica(primaryDataSource, null, maxLag, checkInterval);
+        }
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(url);
+        replica.setUsername(username);
+        replica.setPassword(password);
+        replica.setReadOnly(true);
+        // A replica that stops answering costs a read at most this long before it falls back to the primary
+        replica.setConnectionTimeout(1000);
+        // Starting without the replica is fine; reads use the primary until the first successful check
+        replica.setInitializationFailTimeout(-1);
+        Binder.get(environment).bind("read-replica.hikari", Bindable.ofInstance(replica));
+        meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return new ReadReplica(primaryDataSource, replica, maxLag, checkInterval);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReadReplica readReplica) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(primaryDataSource);
+        if (readReplica.isConfigured()) {
+            dataSource.setReadOnlyDataSource(readReplica.dataSource());
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,57 @@
+package com.buyukozkan.boilerplate.config;
+
+import com.buyukozkan.boilerplate.dto.TokenIntrospection;
+import com.buyukozkan.boilerplate.dto.UserImportRow;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.stream.Stream;
+
+/**
+ * Reflection and resource hints that Spring AOT cannot derive for a native image. Entities,
+ * repositories, controller payloads and springdoc are covered by their own AOT processing;
+ * this adds what is loaded by name or read outside Spring MVC.
+ */
+public class NativeImageHints implements RuntimeHintsRegistrar {
+
+    /** jjwt-api instantiates its implementation by class name, see {@code io.jsonwebtoken.lang.Classes} */
+    static final String[] JJWT_IMPLEMENTATIONS = {
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            // Found through META-INF/services
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        Stream.of(JJWT_IMPLEMENTATIONS).forEach(type -> hints.reflection().registerType(TypeReference.of(type),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+
+        // Deserialized by UserImportReader with a plain ObjectMapper
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), UserImportRow.class);
+        // Serialized by TokenIntrospectionService through an ObjectWriter, outside of any controller signature
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), TokenIntrospection.class);
+    }
+}
@@ -0,0 +1,57 @@
+package com.buyukozkan.boilerplate.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Infrastructure of the reactive stack: Netty, and an R2DBC pool for the auth endpoints
+ * pointed at the same database as {@code spring.datasource}. The JDBC pool stays: Flyway, the
+ * role catalog and the refresh token batch writer keep using it in both stacks.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    // Tomcat is on the classpath for the servlet stack and would otherwise be picked first
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(DataSourceProperties properties,
+                                            @Value("${reactive.r2dbc.max-pool-size:20}") int maxPoolSize) {
+        // R2DBC refuses credentials in the query string, where JDBC URLs may carry them
+        String url = "r2dbc:" + UriComponentsBuilder.fromUriString(properties.determineUrl().substring("jdbc:".length()))
+                .replaceQueryParam("user")
+                .replaceQueryParam("password")
+                .toUriString();
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, properties.determineUsername());
+        if (StringUtils.hasText(properties.determinePassword())) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.determinePassword());
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("r2dbc")
+                .initialSize(0)
+                .maxSize(maxPoolSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+}
@@ -0,0 +1,84 @@
+package com.buyukozkan.boilerplate.config;
+
+import com.buyukozkan.boilerplate.security.AuthMetrics;
+import com.buyukozkan.boilerplate.security.AuthorityMasks;
+import com.buyukozkan.boilerplate.security.JwtAuthenticationWebFilter;
+import com.buyukozkan.boilerplate.service.JwtService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.EndpointRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authorization.AuthorityReactiveAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link SecurityConfig} for the reactive stack: the same rules, stateless, with the bearer
+ * token read by {@link JwtAuthenticationWebFilter}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+@RequiredArgsConstructor
+public class ReactiveSecurityConfig {
+
+    private final JwtService jwtService;
+    private final AuthorityMasks authorityMasks;
+    private final AuthMetrics authMetrics;
+
+    @Value("${security.authorization.bitmask.enabled:true}")
+    private boolean bitmaskAuthorization;
+
+    @Value("${security.metrics-endpoint.public:false}")
+    private boolean publicMetricsEndpoint;
+
+    @Value("${security.token-failure-log.permits-per-second:1}")
+    private int failureLogPermitsPerSecond;
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/api/auth/logout-all").authenticated()
+                        .pathMatchers(SecurityConfig.WHITE_LIST_URL).permitAll()
+                        .matchers(EndpointRequest.to("health")).permitAll()
+                        .matchers(EndpointRequest.to("prometheus")).access(publicMetricsEndpoint
+                                ? (authentication, context) -> Mono.just(new AuthorizationDecision(true))
+                                : adminOnly())
+                        .pathMatchers("/api/admin/**").access(adminOnly())
+                        .anyExchange().authenticated()
+                )
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                // Without form login or basic auth the servlet stack answers unauthenticated requests with 403
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN))
+                )
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .logout(ServerHttpSecurity.LogoutSpec::disable)
+                .addFilterAt(new JwtAuthenticationWebFilter(jwtService, authorityMasks, authMetrics, failureLogPermitsPerSecond),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    private ReactiveAuthorizationManager<AuthorizationContext> adminOnly() {
+        if (!bitmaskAuthorization) {
+            return AuthorityReactiveAuthorizationManager.hasRole("ADMIN");
+        }
+        return (authentication, context) -> authentication
+                .map(principal -> new AuthorizationDecision(authorityMasks.hasAnyRole(principal, "ADMIN")))
+                .defaultIfEmpty(new AuthorizationDecision(false));
+    }
+}
@@ -0,0 +1,182 @@
+package com.buyukozkan.boilerplate.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replica side of the read/write split. Read-only transactions take their connection from
+ * {@link #dataSource()}, which hands out replica connections while the last check found the
+ * replica reachable and at most {@code maxLag} behind, and primary connections otherwise. The
+ * check runs on its own thread, so the request path only reads a flag; a replica that goes
+ * away between two checks is caught by the failing {@code getConnection} and skipped until the
+ * next check succeeds.
+ */
+@Slf4j
+public class ReadReplica implements MeterBinder, AutoCloseable {
+
+    // A standby that has replayed everything it received is not behind, however old its last transaction
+    static final String CHECK_QUERY = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+                   END
+            """;
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final DataSource router = new Router();
+
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder primaryConnections = new LongAdder();
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+    private ScheduledExecutorService checker;
+
+    /**
+     * @param replica {@code null} when no replica is configured; every read then goes to the primary
+     */
+    public ReadReplica(DataSource primary, @Nullable DataSource replica, Duration maxLag, Duration checkInterval) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+    }
+
+    public boolean isConfigured() {
+        return replica != null;
+    }
+
+    public synchronized void start() {
+        if (replica == null || checker != null) {
+            return;
+        }
+        checker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("read-replica-check-"));
+        checker.scheduleWithFixedDelay(this::check, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Connections for read-only transactions.
+     */
+    public DataSource dataSource() {
+        return router;
+    }
+
+    void check() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(CHECK_QUERY)) {
+            rs.next();
+            double lag = rs.getDouble(1);
+            if (rs.wasNull()) {
+                lagSeconds = Double.NaN;
+                setUsable(false, "replication lag is unknown");
+            } else {
+                lagSeconds = lag;
+                setUsable(lag <= maxLag.toMillis() / 1000.0, "replica is %.1f s behind".formatted(lag));
+            }
+        } catch (SQLException | RuntimeException e) {
+            lagSeconds = Double.NaN;
+            setUsable(false, e.getMessage());
+        }
+    }
+
+    private void setUsable(boolean nowUsable, String reason) {
+        if (nowUsable && !usable) {
+            log.info("Read replica is in use for read-only transactions");
+        } else if (!nowUsable && usable) {
+            log.warn("Read replica is not used until its next successful check: {}", reason);
+        }
+        usable = nowUsable;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        if (replica == null) {
+            return;
+        }
+        FunctionCounter.builder("db.read-only.connections", replicaConnections, LongAdder::sum)
+                .description("Connections handed to read-only transactions")
+                .tag("pool", "replica")
+                .register(registry);
+        FunctionCounter.builder("db.read-only.connections", primaryConnections, LongAdder::sum)
+                .description("Connections handed to read-only transactions")
+                .tag("pool", "primary")
+                .register(registry);
+        Gauge.builder("db.replica.lag", this, readReplica -> readReplica.lagSeconds)
+                .description("Replication lag seen by the last check; NaN when the replica could not be checked")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("db.replica.usable", this, readReplica -> readReplica.usable ? 1 : 0)
+                .description("Whether read-only transactions currently go to the replica")
+                .register(registry);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+        if (replica instanceof AutoCloseable pool) {
+            try {
+                pool.close();
+            } catch (Exception e) {
+                log.debug("Closing the read replica pool failed", e);
+            }
+        }
+    }
+
+    private final class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (usable) {
+                try {
+                    Connection connection = replica.getConnection();
+                    replicaConnections.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    setUsable(false, e.getMessage());
+                }
+            }
+            Connection connection = primary.getConnection();
+            primaryConnections.increment();
+            // The replica pool hands out read-only connections; keep the transaction read-only here as well
+            try {
+                connection.setReadOnly(true);
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+            return connection;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Credentials are configured per pool");
+        }
+    }
+}
@@ -1,31 +1,50 @@
 package com.buyukozkan.boilerplate.config;
 
+import com.buyukozkan.boilerplate.security.AuthorityMasks;
+import com.buyukozkan.boilerplate.security.BitmaskMethodSecurityExpressionHandler;
 import com.buyukozkan.boilerplate.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
 @EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final AuthorityMasks authorityMasks;
 
-    private static final String[] WHITE_LIST_URL = {
+    @Value("${security.authorization.bitmask.enabled:true}")
+    private boolean bitmaskAuthorization;
+
+    @Value("${security.metrics-endpoint.public:false}")
+    private boolean publicMetricsEndpoint;
+
+    static final String[] WHITE_LIST_URL = {
             "/api/auth/**",
+            "/.well-known/jwks.json",
             "/v2/api-docs",
             "/v3/api-docs",
             "/v3/api-docs/**",
@@ -43,7 +62,13 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/api/auth/logout-all").authenticated()
                         .requestMatchers(WHITE_LIST_URL).permitAll()
+                        .requestMatchers(EndpointRequest.to("health")).permitAll()
+                        .requestMatchers(EndpointRequest.to("prometheus")).access(publicMetricsEndpoint
+                                ? (authentication, context) -> new AuthorizationDecision(true)
+                                : adminOnly())
+                        .requestMatchers("/api/admin/**").access(adminOnly())
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -56,13 +81,20 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private AuthorizationManager<RequestAuthorizationContext> adminOnly() {
+        return bitmaskAuthorization
+                ? authorityMasks.hasRole("ADMIN")
+                : AuthorityAuthorizationManager.hasRole("ADMIN");
+    }
+
     @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
+    @ConditionalOnProperty(name = "security.authorization.bitmask.enabled", havingValue = "true", matchIfMissing = true)
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler(ObjectProvider<AuthorityMasks> authorityMasks) {
+        return new BitmaskMethodSecurityExpressionHandler(authorityMasks::getObject);
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
+        return config.getAuthenticationManager();
     }
 }
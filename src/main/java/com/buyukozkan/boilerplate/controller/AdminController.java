@@ -0,0 +1,62 @@
+package com.buyukozkan.boilerplate.controller;
+
+import com.buyukozkan.boilerplate.dto.UserImportStatus;
+import com.buyukozkan.boilerplate.service.RoleCatalog;
+import com.buyukozkan.boilerplate.service.UserImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+import java.util.UUID;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@SecurityRequirement(name = "BearerAuth")
+@Tag(name = "Admin", description = "Administrative endpoints")
+public class AdminController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final RoleCatalog roleCatalog;
+    private final UserImportService userImportService;
+
+    @Operation(summary = "Reload role catalog", description = "Re-read roles and permissions from the database")
+    @PostMapping("/role-catalog/reload")
+    public ResponseEntity<Set<String>> reloadRoleCatalog() {
+        roleCatalog.reload();
+        return ResponseEntity.ok(roleCatalog.roleNames());
+    }
+
+    @Operation(summary = "Bulk import users",
+            description = "Stream a JSON array or CSV (email,password[,roles]) of users; returns a pollable job")
+    @PostMapping(value = "/users/import", consumes = {MediaType.APPLICATION_JSON_VALUE, TEXT_CSV})
+    public ResponseEntity<UserImportStatus> importUsers(HttpServletRequest request) throws IOException {
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.valueOf(TEXT_CSV));
+        UserImportStatus status = userImportService.importUsers(request.getInputStream(), csv);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{jobId}")
+                .buildAndExpand(status.jobId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+
+    @Operation(summary = "Bulk import status", description = "Progress and per-row errors of an import job")
+    @GetMapping("/users/import/{jobId}")
+    public ResponseEntity<UserImportStatus> importStatus(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(userImportService.status(jobId));
+    }
+}
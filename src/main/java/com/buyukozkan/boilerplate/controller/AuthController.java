@@ -4,21 +4,27 @@ import com.buyukozkan.boilerplate.dto.AuthResponse;
 import com.buyukozkan.boilerplate.dto.LoginRequest;
 import com.buyukozkan.boilerplate.dto.RefreshTokenRequest;
 import com.buyukozkan.boilerplate.dto.RegisterRequest;
+import com.buyukozkan.boilerplate.security.LoginRateLimiter;
 import com.buyukozkan.boilerplate.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 @Tag(name = "Authentication", description = "Authentication endpoints")
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginRateLimiter loginRateLimiter;
 
     @Operation(summary = "Register a new user", description = "Create a new user account")
     @PostMapping("/register")
@@ -28,13 +34,33 @@ public class AuthController {
 
     @Operation(summary = "Login", description = "Authenticate user and get JWT tokens")
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request,
+                                              HttpServletRequest httpRequest) {
+        loginRateLimiter.checkLogin(httpRequest.getRemoteAddr(), request.email());
         return ResponseEntity.ok(authService.login(request));
     }
 
     @Operation(summary = "Refresh token", description = "Get new access token using refresh token")
     @PostMapping("/refresh")
-    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request,
+                                                HttpServletRequest httpRequest) {
+        loginRateLimiter.checkRefresh(httpRequest.getRemoteAddr());
         return ResponseEntity.ok(authService.refreshToken(request));
     }
+
+    @Operation(summary = "Logout", description = "Revoke the session the refresh token belongs to")
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request,
+                                       HttpServletRequest httpRequest) {
+        loginRateLimiter.checkRefresh(httpRequest.getRemoteAddr());
+        authService.logout(request);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Logout everywhere", description = "Revoke every session of the authenticated user")
+    @PostMapping("/logout-all")
+    public ResponseEntity<Void> logoutAll(Authentication authentication) {
+        authService.logoutAll(authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
 }
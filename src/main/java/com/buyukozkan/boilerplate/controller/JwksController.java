@@ -0,0 +1,39 @@
+package com.buyukozkan.boilerplate.controller;
+
+import com.buyukozkan.boilerplate.service.SigningKeyRing;
+import com.buyukozkan.boilerplate.service.SigningKeyRing.KeySet;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Public keys of the key ring, for services verifying access tokens themselves. Served on both
+ * web stacks; the ETag lets MVC and WebFlux answer revalidations with 304.
+ */
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Keys", description = "Access token verification keys")
+public class JwksController {
+
+    private final SigningKeyRing signingKeys;
+
+    @Operation(summary = "JSON Web Key Set",
+            description = "Keys access tokens are signed with; 404 while tokens are signed with the shared HS256 secret")
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<byte[]> jwks() {
+        final KeySet keys = signingKeys.keys();
+        if (keys.jwks() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(signingKeys.jwksMaxAge()).cachePublic())
+                .eTag(keys.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(keys.jwks());
+    }
+}
@@ -0,0 +1,79 @@
+package com.buyukozkan.boilerplate.controller;
+
+import com.buyukozkan.boilerplate.dto.AuthResponse;
+import com.buyukozkan.boilerplate.dto.LoginRequest;
+import com.buyukozkan.boilerplate.dto.RefreshTokenRequest;
+import com.buyukozkan.boilerplate.dto.RegisterRequest;
+import com.buyukozkan.boilerplate.security.LoginRateLimiter;
+import com.buyukozkan.boilerplate.service.ReactiveAuthService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * {@link AuthController} for the reactive stack: same paths, payloads and status codes.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/auth")
+@RequiredArgsConstructor
+@Tag(name = "Authentication", description = "Authentication endpoints")
+public class ReactiveAuthController {
+
+    private final ReactiveAuthService authService;
+    private final LoginRateLimiter loginRateLimiter;
+
+    @Operation(summary = "Register a new user", description = "Create a new user account")
+    @PostMapping("/register")
+    public Mono<ResponseEntity<AuthResponse>> register(@Valid @RequestBody RegisterRequest request) {
+        return authService.register(request).map(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Login", description = "Authenticate user and get JWT tokens")
+    @PostMapping("/login")
+    public Mono<ResponseEntity<AuthResponse>> login(@Valid @RequestBody LoginRequest request,
+                                                    ServerHttpRequest httpRequest) {
+        loginRateLimiter.checkLogin(clientAddress(httpRequest), request.email());
+        return authService.login(request).map(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Refresh token", description = "Get new access token using refresh token")
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<AuthResponse>> refresh(@Valid @RequestBody RefreshTokenRequest request,
+                                                      ServerHttpRequest httpRequest) {
+        loginRateLimiter.checkRefresh(clientAddress(httpRequest));
+        return authService.refreshToken(request).map(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Logout", description = "Revoke the session the refresh token belongs to")
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<Void>> logout(@Valid @RequestBody RefreshTokenRequest request,
+                                             ServerHttpRequest httpRequest) {
+        loginRateLimiter.checkRefresh(clientAddress(httpRequest));
+        return authService.logout(request).then(Mono.fromSupplier(() -> ResponseEntity.noContent().build()));
+    }
+
+    @Operation(summary = "Logout everywhere", description = "Revoke every session of the authenticated user")
+    @PostMapping("/logout-all")
+    public Mono<ResponseEntity<Void>> logoutAll(Authentication authentication) {
+        return authService.logoutAll(authentication.getName()).map(sessions -> ResponseEntity.noContent().build());
+    }
+
+    // The forwarded client under server.forward-headers-strategy, the same key HttpServletRequest.getRemoteAddr() gives on the servlet stack
+    private static String clientAddress(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return "";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+}
@@ -0,0 +1,39 @@
+package com.buyukozkan.boilerplate.controller;
+
+import com.buyukozkan.boilerplate.service.TokenIntrospectionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/tokens")
+@RequiredArgsConstructor
+// Authorities read from a token carry the role prefix, permissions included
+@PreAuthorize("hasRole('tokens:introspect')")
+@SecurityRequirement(name = "BearerAuth")
+@Tag(name = "Tokens", description = "Token introspection for gateways and other services")
+public class TokenIntrospectionController {
+
+    private final TokenIntrospectionService tokenIntrospectionService;
+
+    @Operation(summary = "Introspect access tokens",
+            description = "Stream a JSON array of access tokens; returns a JSON array with one "
+                    + "{active, sub, exp, authorities} entry per token, in the same order")
+    @PostMapping(value = "/introspect", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void introspect(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        tokenIntrospectionService.introspect(request.getInputStream(), response.getOutputStream());
+    }
+}
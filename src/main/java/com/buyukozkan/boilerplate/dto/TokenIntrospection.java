@@ -0,0 +1,26 @@
+package com.buyukozkan.boilerplate.dto;
+
+import com.buyukozkan.boilerplate.security.VerifiedToken;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * One entry of an introspection response, in the shape of RFC 7662: inactive tokens carry
+ * nothing but {@code "active": false}, whatever the reason.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenIntrospection(
+        boolean active,
+        String sub,
+        Long exp,
+        List<String> authorities
+) {
+    public static final TokenIntrospection INACTIVE = new TokenIntrospection(false, null, null, null);
+
+    public static TokenIntrospection of(VerifiedToken token) {
+        return new TokenIntrospection(true, token.subject(), token.expiresAt().getEpochSecond(),
+                token.authorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+}
@@ -0,0 +1,20 @@
+package com.buyukozkan.boilerplate.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record UserImportRow(
+        @NotBlank(message = "Email cannot be empty")
+        @Email(message = "Invalid email format")
+        String email,
+
+        @NotBlank(message = "Password cannot be empty")
+        @Size(min = 6, message = "Password must be at least 6 characters long")
+        String password,
+
+        List<String> roles
+) {
+}
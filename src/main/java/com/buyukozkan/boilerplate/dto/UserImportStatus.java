@@ -0,0 +1,25 @@
+package com.buyukozkan.boilerplate.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record UserImportStatus(
+        UUID jobId,
+        State state,
+        long received,
+        long imported,
+        long duplicates,
+        long failed,
+        List<RowError> errors,
+        String message,
+        Instant startedAt,
+        Instant finishedAt
+) {
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    public record RowError(long row, String email, String reason) {
+    }
+}
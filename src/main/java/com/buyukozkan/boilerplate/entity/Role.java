@@ -1,9 +1,11 @@
 package com.buyukozkan.boilerplate.entity;
 
 import jakarta.persistence.*;
+import com.buyukozkan.boilerplate.security.AuthorityInterner;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
 
 import java.util.HashSet;
 import java.util.Objects;
@@ -30,10 +32,31 @@ public class Role {
     )
     private Set<Permission> permissions = new HashSet<>();
 
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private volatile Set<GrantedAuthority> authorities;
+
     public Role(String name) {
         this.name = name;
     }
 
+    /**
+     * {@code ROLE_<name>} plus every permission of this role, built once from interned authorities.
+     */
+    public Set<GrantedAuthority> getAuthorities() {
+        Set<GrantedAuthority> result = authorities;
+        if (result == null) {
+            Set<GrantedAuthority> built = new HashSet<>();
+            built.add(AuthorityInterner.role(name));
+            for (Permission permission : permissions) {
+                built.add(AuthorityInterner.of(permission.getName()));
+            }
+            result = Set.copyOf(built);
+            authorities = result;
+        }
+        return result;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
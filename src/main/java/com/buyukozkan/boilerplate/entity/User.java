@@ -5,12 +5,10 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.time.OffsetDateTime;
 import java.util.*;
-import java.util.stream.Stream;
 
 @Entity
 @Table(name = "users")
@@ -21,7 +19,8 @@ public class User implements UserDetails {
     @Id
     private UUID id;
 
-    @Column(nullable = false, unique = true)
+    // Unique on lower(email), see V3__case_insensitive_email.sql
+    @Column(nullable = false)
     private String email;
 
     @Column(name = "password_hash", nullable = false)
@@ -48,6 +47,11 @@ public class User implements UserDetails {
         this.roles = new HashSet<>(roles);
     }
 
+    /** Java-side equivalent of the {@code lower(email)} the unique index is built on */
+    public static String normalizeEmail(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = OffsetDateTime.now();
@@ -61,13 +65,14 @@ public class User implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return roles.stream()
-                .flatMap(role -> Stream.concat(
-                        Stream.of(new SimpleGrantedAuthority("ROLE_" + role.getName())),
-                        role.getPermissions().stream()
-                                .map(p -> new SimpleGrantedAuthority(p.getName()))
-                ))
-                .collect(java.util.stream.Collectors.toSet());
+        if (roles.size() == 1) {
+            return roles.iterator().next().getAuthorities();
+        }
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        for (Role role : roles) {
+            authorities.addAll(role.getAuthorities());
+        }
+        return Collections.unmodifiableSet(authorities);
     }
 
     @Override
@@ -3,9 +3,12 @@ package com.buyukozkan.boilerplate.exception;
 import com.buyukozkan.boilerplate.dto.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.validation.FieldError;
@@ -16,9 +19,15 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class GlobalExceptionHandler {
 
+    static final PreSerializedError INVALID_CREDENTIALS =
+            new PreSerializedError(HttpStatus.UNAUTHORIZED, "Unauthorized", "Invalid credentials");
+    static final PreSerializedError INVALID_TOKEN =
+            new PreSerializedError(HttpStatus.UNAUTHORIZED, "Unauthorized", new InvalidTokenException().getMessage());
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidation(
             MethodArgumentNotValidException ex,
@@ -32,27 +41,27 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(BadCredentialsException.class)
-    public ResponseEntity<ErrorResponse> handleBadCredentials(
+    public ResponseEntity<byte[]> handleBadCredentials(
             BadCredentialsException ex,
             HttpServletRequest request) {
 
-        return response(HttpStatus.UNAUTHORIZED, "Unauthorized", "Invalid credentials", request);
+        return INVALID_CREDENTIALS.toResponse(request.getRequestURI());
     }
 
     @ExceptionHandler(UsernameNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleUserNotFound(
+    public ResponseEntity<byte[]> handleUserNotFound(
             UsernameNotFoundException ex,
             HttpServletRequest request) {
 
-        return response(HttpStatus.UNAUTHORIZED, "Unauthorized", "Invalid credentials", request);
+        return INVALID_CREDENTIALS.toResponse(request.getRequestURI());
     }
 
     @ExceptionHandler(InvalidTokenException.class)
-    public ResponseEntity<ErrorResponse> handleInvalidToken(
+    public ResponseEntity<byte[]> handleInvalidToken(
             InvalidTokenException ex,
             HttpServletRequest request) {
 
-        return response(HttpStatus.UNAUTHORIZED, "Unauthorized", ex.getMessage(), request);
+        return INVALID_TOKEN.toResponse(request.getRequestURI());
     }
 
     @ExceptionHandler(AuthorizationDeniedException.class)
@@ -71,6 +80,50 @@ public class GlobalExceptionHandler {
         return response(HttpStatus.CONFLICT, "Conflict", ex.getMessage(), request);
     }
 
+    @ExceptionHandler(ImportJobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleImportJobNotFound(
+            ImportJobNotFoundException ex,
+            HttpServletRequest request) {
+
+        return response(HttpStatus.NOT_FOUND, "Not Found", ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(InvalidIntrospectionRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidIntrospectionRequest(
+            InvalidIntrospectionRequestException ex,
+            HttpServletRequest request) {
+
+        return response(HttpStatus.BAD_REQUEST, "Bad Request", ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleHashingRejected(
+            PasswordHashingRejectedException ex,
+            HttpServletRequest request) {
+
+        return serviceUnavailable(ex, request);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimited(
+            RateLimitExceededException ex,
+            HttpServletRequest request) {
+
+        return retryLater(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", ex.getMessage(),
+                ex.getRetryAfterSeconds(), request);
+    }
+
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<ErrorResponse> handleInternalAuthentication(
+            InternalAuthenticationServiceException ex,
+            HttpServletRequest request) {
+
+        if (ex.getCause() instanceof PasswordHashingRejectedException rejected) {
+            return serviceUnavailable(rejected, request);
+        }
+        return handleGeneric(ex, request);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneric(
             Exception ex,
@@ -83,6 +136,19 @@ public class GlobalExceptionHandler {
                 "An unexpected error occurred", request);
     }
 
+    private ResponseEntity<ErrorResponse> serviceUnavailable(PasswordHashingRejectedException ex,
+                                                              HttpServletRequest request) {
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage(),
+                ex.getRetryAfterSeconds(), request);
+    }
+
+    private ResponseEntity<ErrorResponse> retryLater(HttpStatus status, String error, String message,
+                                                      long retryAfterSeconds, HttpServletRequest request) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(ErrorResponse.of(status.value(), error, message, request.getRequestURI()));
+    }
+
     private ResponseEntity<ErrorResponse> response(HttpStatus status, String error,
                                                     String message, HttpServletRequest request) {
         return ResponseEntity.status(status)
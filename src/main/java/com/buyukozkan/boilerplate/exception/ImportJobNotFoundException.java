@@ -0,0 +1,9 @@
+package com.buyukozkan.boilerplate.exception;
+
+import java.util.UUID;
+
+public class ImportJobNotFoundException extends RuntimeException {
+    public ImportJobNotFoundException(UUID jobId) {
+        super("Import job not found: " + jobId);
+    }
+}
@@ -0,0 +1,7 @@
+package com.buyukozkan.boilerplate.exception;
+
+public class InvalidIntrospectionRequestException extends RuntimeException {
+    public InvalidIntrospectionRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.buyukozkan.boilerplate.exception;
+
+import lombok.Getter;
+
+@Getter
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(long retryAfterSeconds) {
+        super("Server is busy, please retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
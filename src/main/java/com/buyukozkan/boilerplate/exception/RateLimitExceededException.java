@@ -0,0 +1,15 @@
+package com.buyukozkan.boilerplate.exception;
+
+import lombok.Getter;
+
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterSeconds) {
+        // Thrown on every throttled attempt; a stack trace would cost more than the check itself
+        super("Too many attempts, please retry later", null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
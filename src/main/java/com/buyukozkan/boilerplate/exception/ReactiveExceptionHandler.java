@@ -0,0 +1,119 @@
+package com.buyukozkan.boilerplate.exception;
+
+import com.buyukozkan.boilerplate.dto.ErrorResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.stream.Collectors;
+
+/**
+ * {@link GlobalExceptionHandler} for the reactive stack, producing the same bodies and status codes.
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleValidation(
+            WebExchangeBindException ex,
+            ServerHttpRequest request) {
+
+        String message = ex.getBindingResult().getFieldErrors().stream()
+                .map(FieldError::getDefaultMessage)
+                .collect(Collectors.joining(", "));
+
+        return response(HttpStatus.BAD_REQUEST, "Validation Failed", message, request);
+    }
+
+    @ExceptionHandler(BadCredentialsException.class)
+    public ResponseEntity<byte[]> handleBadCredentials(
+            BadCredentialsException ex,
+            ServerHttpRequest request) {
+
+        return GlobalExceptionHandler.INVALID_CREDENTIALS.toResponse(request.getPath().value());
+    }
+
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<byte[]> handleInvalidToken(
+            InvalidTokenException ex,
+            ServerHttpRequest request) {
+
+        return GlobalExceptionHandler.INVALID_TOKEN.toResponse(request.getPath().value());
+    }
+
+    @ExceptionHandler(DuplicateEmailException.class)
+    public ResponseEntity<ErrorResponse> handleDuplicateEmail(
+            DuplicateEmailException ex,
+            ServerHttpRequest request) {
+
+        return response(HttpStatus.CONFLICT, "Conflict", ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleHashingRejected(
+            PasswordHashingRejectedException ex,
+            ServerHttpRequest request) {
+
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage(),
+                ex.getRetryAfterSeconds(), request);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimited(
+            RateLimitExceededException ex,
+            ServerHttpRequest request) {
+
+        return retryLater(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", ex.getMessage(),
+                ex.getRetryAfterSeconds(), request);
+    }
+
+    // Unreadable bodies, unknown paths and the like keep the status WebFlux assigned them
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleResponseStatus(
+            ResponseStatusException ex,
+            ServerHttpRequest request) {
+
+        HttpStatusCode status = ex.getStatusCode();
+        HttpStatus resolved = HttpStatus.resolve(status.value());
+        return ResponseEntity.status(status)
+                .body(ErrorResponse.of(status.value(), resolved != null ? resolved.getReasonPhrase() : "Error",
+                        ex.getReason(), request.getPath().value()));
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGeneric(
+            Exception ex,
+            ServerHttpRequest request) {
+
+        log.error("Unhandled exception at [{}] {}: {}",
+                request.getMethod(), request.getPath().value(), ex.getMessage(), ex);
+
+        return response(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error",
+                "An unexpected error occurred", request);
+    }
+
+    private ResponseEntity<ErrorResponse> retryLater(HttpStatus status, String error, String message,
+                                                      long retryAfterSeconds, ServerHttpRequest request) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(ErrorResponse.of(status.value(), error, message, request.getPath().value()));
+    }
+
+    private ResponseEntity<ErrorResponse> response(HttpStatus status, String error,
+                                                    String message, ServerHttpRequest request) {
+        return ResponseEntity.status(status)
+                .body(ErrorResponse.of(status.value(), error, message, request.getPath().value()));
+    }
+}
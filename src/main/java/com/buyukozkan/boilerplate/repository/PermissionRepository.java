@@ -3,11 +3,18 @@ package com.buyukozkan.boilerplate.repository;
 import com.buyukozkan.boilerplate.entity.Permission;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PermissionRepository extends JpaRepository<Permission, Long> {
 
     Optional<Permission> findByName(String name);
+
+    /** Not read-only, so it reads the primary; see {@link RoleRepository#findAllWithPermissions()} */
+    @Override
+    @Transactional
+    List<Permission> findAll();
 }
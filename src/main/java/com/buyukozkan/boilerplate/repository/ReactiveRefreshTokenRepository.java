@@ -0,0 +1,82 @@
+package com.buyukozkan.boilerplate.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * The synchronous writes of {@link RefreshTokenRepository} for the reactive stack, on R2DBC.
+ * Rotations are still queued by {@link com.buyukozkan.boilerplate.service.RefreshTokenStore}
+ * and written in batches over JDBC.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveRefreshTokenRepository {
+
+    private static final String INSERT_FAMILY = """
+            WITH family AS (
+                INSERT INTO refresh_token_families (id, user_id, created_at)
+                VALUES (:familyId, :userId, :now)
+                RETURNING id
+            )
+            INSERT INTO refresh_tokens (token_hash, family_id, expires_at, created_at)
+            SELECT :tokenHash, id, :expiresAt, :now FROM family
+            """;
+
+    private static final String REVOKE_FAMILY = """
+            UPDATE refresh_token_families SET revoked_at = :revokedAt
+            WHERE id = :familyId AND revoked_at IS NULL
+            """;
+
+    private static final String REVOKE_USER_FAMILIES = """
+            UPDATE refresh_token_families SET revoked_at = :revokedAt
+            WHERE user_id = (SELECT id FROM users WHERE lower(email) = lower(:email)) AND revoked_at IS NULL
+            RETURNING id
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Starts a family with its first token in a single statement.
+     */
+    public Mono<Void> insertFamily(UUID familyId, UUID userId, byte[] tokenHash, Instant expiresAt) {
+        return databaseClient.sql(INSERT_FAMILY)
+                .bind("familyId", familyId)
+                .bind("userId", userId)
+                .bind("now", OffsetDateTime.now())
+                .bind("tokenHash", tokenHash)
+                .bind("expiresAt", timestamp(expiresAt))
+                .then();
+    }
+
+    public Mono<Void> revokeFamily(UUID familyId, Instant revokedAt) {
+        return databaseClient.sql(REVOKE_FAMILY)
+                .bind("revokedAt", timestamp(revokedAt))
+                .bind("familyId", familyId)
+                .then();
+    }
+
+    /**
+     * @return the families that were active until now
+     */
+    public Flux<UUID> revokeFamiliesOf(String email, Instant revokedAt) {
+        return databaseClient.sql(REVOKE_USER_FAMILIES)
+                .bind("revokedAt", timestamp(revokedAt))
+                .bind("email", email)
+                .map(row -> row.get("id", UUID.class))
+                .all();
+    }
+
+    private static OffsetDateTime timestamp(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
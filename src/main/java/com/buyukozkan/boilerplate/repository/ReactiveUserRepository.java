@@ -0,0 +1,85 @@
+package com.buyukozkan.boilerplate.repository;
+
+import com.buyukozkan.boilerplate.repository.UserBulkRepository.NewUser;
+import com.buyukozkan.boilerplate.repository.UserPrincipalRepository.Credentials;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The queries of {@link UserPrincipalRepository}, {@link UserRepository#existsByEmail} and
+ * {@link UserBulkRepository#insert} for the reactive stack, on R2DBC.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveUserRepository {
+
+    private static final String FIND_BY_EMAIL = """
+            SELECT u.id, u.email, u.password_hash,
+                   array_remove(array_agg(r.name), NULL) AS role_names
+            FROM users u
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            WHERE lower(u.email) = lower(:email)
+            GROUP BY u.id
+            """;
+
+    private static final String EXISTS_BY_EMAIL = """
+            SELECT EXISTS (SELECT 1 FROM users WHERE lower(email) = lower(:email))
+            """;
+
+    private static final String INSERT_USER = """
+            WITH inserted AS (
+                INSERT INTO users (id, email, password_hash, created_at, updated_at)
+                VALUES (:id, :email, :passwordHash, :now, :now)
+                RETURNING id
+            )
+            INSERT INTO user_roles (user_id, role_id)
+            SELECT inserted.id, t.role_id FROM inserted, unnest(:roleIds::int8[]) AS t (role_id)
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * @return empty if no user has the email
+     */
+    public Mono<Credentials> findCredentials(String email) {
+        return databaseClient.sql(FIND_BY_EMAIL)
+                .bind("email", email)
+                .map(row -> new Credentials(
+                        row.get("id", UUID.class),
+                        row.get("email", String.class),
+                        row.get("password_hash", String.class),
+                        List.of(row.get("role_names", String[].class))))
+                .one();
+    }
+
+    public Mono<Boolean> existsByEmail(String email) {
+        return databaseClient.sql(EXISTS_BY_EMAIL)
+                .bind("email", email)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    /**
+     * Inserts one user and its role links in a single statement.
+     *
+     * @return error with {@link org.springframework.dao.DuplicateKeyException} if the email is already taken
+     */
+    public Mono<Void> insert(NewUser user) {
+        return databaseClient.sql(INSERT_USER)
+                .bind("id", user.id())
+                .bind("email", user.email())
+                .bind("passwordHash", user.passwordHash())
+                .bind("now", OffsetDateTime.now())
+                .bind("roleIds", user.roleIds().toArray(Long[]::new))
+                .then();
+    }
+}
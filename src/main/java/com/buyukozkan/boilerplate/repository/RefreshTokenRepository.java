@@ -0,0 +1,218 @@
+package com.buyukozkan.boilerplate.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Refresh token families and the hashes of the tokens rotated within them. Rotations arrive
+ * in batches and are written with one statement per table, like {@link UserBulkRepository}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RefreshTokenRepository {
+
+    private static final String INSERT_FAMILY = """
+            WITH family AS (
+                INSERT INTO refresh_token_families (id, user_id, created_at)
+                VALUES (?, ?, ?)
+                RETURNING id
+            )
+            INSERT INTO refresh_tokens (token_hash, family_id, expires_at, created_at)
+            SELECT ?, id, ?, ? FROM family
+            """;
+
+    // Tokens of families deleted in the meantime are skipped instead of failing the batch
+    private static final String INSERT_TOKENS = """
+            INSERT INTO refresh_tokens (token_hash, family_id, expires_at, created_at)
+            SELECT t.token_hash, t.family_id, t.expires_at, ?
+            FROM unnest(?::bytea[], ?::uuid[], ?::timestamptz[]) AS t (token_hash, family_id, expires_at)
+            JOIN refresh_token_families f ON f.id = t.family_id
+            ON CONFLICT (token_hash) DO NOTHING
+            """;
+
+    // Returns the tokens this call marked; a token missing from the result had been used before
+    private static final String MARK_USED = """
+            INSERT INTO refresh_tokens (token_hash, family_id, expires_at, created_at, used_at)
+            SELECT t.token_hash, t.family_id, t.expires_at, ?, ?
+            FROM unnest(?::bytea[], ?::uuid[], ?::timestamptz[]) AS t (token_hash, family_id, expires_at)
+            JOIN refresh_token_families f ON f.id = t.family_id
+            ON CONFLICT (token_hash) DO UPDATE SET used_at = EXCLUDED.used_at
+            WHERE refresh_tokens.used_at IS NULL
+            RETURNING token_hash
+            """;
+
+    private static final String FIND_REVOKED_FAMILIES = """
+            SELECT id FROM refresh_token_families WHERE id = ANY (?) AND revoked_at IS NOT NULL
+            """;
+
+    private static final String REVOKE_FAMILIES = """
+            UPDATE refresh_token_families SET revoked_at = ?
+            WHERE id = ANY (?) AND revoked_at IS NULL
+            """;
+
+    private static final String REVOKE_USER_FAMILIES = """
+            UPDATE refresh_token_families SET revoked_at = ?
+            WHERE user_id = (SELECT id FROM users WHERE lower(email) = lower(?)) AND revoked_at IS NULL
+            RETURNING id
+            """;
+
+    private static final String FIND_REVOKED_SINCE = """
+            SELECT id, revoked_at FROM refresh_token_families WHERE revoked_at > ?
+            """;
+
+    private static final String DELETE_EXPIRED_TOKENS = """
+            DELETE FROM refresh_tokens WHERE expires_at < ?
+            """;
+
+    private static final String DELETE_EMPTY_FAMILIES = """
+            DELETE FROM refresh_token_families f
+            WHERE NOT EXISTS (SELECT 1 FROM refresh_tokens t WHERE t.family_id = f.id)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * One {@code /refresh}: {@code used} was presented and {@code issued} handed out in its place.
+     */
+    public record Rotation(UUID familyId, byte[] used, Instant usedExpiresAt, byte[] issued, Instant issuedExpiresAt) {
+    }
+
+    /**
+     * @param reused  families whose presented token had already been used, on this node or another
+     * @param revoked families that were already revoked
+     */
+    public record RotationResult(Set<UUID> reused, Set<UUID> revoked) {
+    }
+
+    /**
+     * Starts a family with its first token in a single statement.
+     */
+    public void insertFamily(UUID familyId, UUID userId, byte[] tokenHash, Instant expiresAt) {
+        jdbcTemplate.update(connection -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            PreparedStatement statement = connection.prepareStatement(INSERT_FAMILY);
+            statement.setObject(1, familyId);
+            statement.setObject(2, userId);
+            statement.setObject(3, now);
+            statement.setBytes(4, tokenHash);
+            statement.setObject(5, timestamp(expiresAt));
+            statement.setObject(6, now);
+            return statement;
+        });
+    }
+
+    /**
+     * Records the tokens handed out, then marks the presented ones used. A presented token
+     * without a row yet (its own rotation is still queued on another node) is inserted as used,
+     * so the row written later cannot make it usable again.
+     */
+    @Transactional
+    public RotationResult recordRotations(List<Rotation> batch) {
+        if (batch.isEmpty()) {
+            return new RotationResult(Set.of(), Set.of());
+        }
+        // ON CONFLICT DO UPDATE cannot touch a row twice, so a token presented twice in one batch is settled here
+        Set<UUID> reused = new HashSet<>();
+        Set<ByteBuffer> presented = new HashSet<>();
+        List<Rotation> rotations = new ArrayList<>(batch.size());
+        for (Rotation rotation : batch) {
+            if (presented.add(ByteBuffer.wrap(rotation.used()))) {
+                rotations.add(rotation);
+            } else {
+                reused.add(rotation.familyId());
+            }
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_TOKENS);
+            statement.setObject(1, now);
+            statement.setArray(2, connection.createArrayOf("bytea", rotations.stream().map(Rotation::issued).toArray(byte[][]::new)));
+            statement.setArray(3, connection.createArrayOf("uuid", rotations.stream().map(Rotation::familyId).toArray()));
+            statement.setArray(4, connection.createArrayOf("timestamptz",
+                    rotations.stream().map(rotation -> timestamp(rotation.issuedExpiresAt())).toArray()));
+            return statement;
+        });
+
+        Set<ByteBuffer> marked = new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(MARK_USED);
+            statement.setObject(1, now);
+            statement.setObject(2, now);
+            statement.setArray(3, connection.createArrayOf("bytea", rotations.stream().map(Rotation::used).toArray(byte[][]::new)));
+            statement.setArray(4, connection.createArrayOf("uuid", rotations.stream().map(Rotation::familyId).toArray()));
+            statement.setArray(5, connection.createArrayOf("timestamptz",
+                    rotations.stream().map(rotation -> timestamp(rotation.usedExpiresAt())).toArray()));
+            return statement;
+        }, (rs, rowNum) -> ByteBuffer.wrap(rs.getBytes(1))));
+
+        Set<UUID> families = new HashSet<>();
+        for (Rotation rotation : rotations) {
+            families.add(rotation.familyId());
+            if (!marked.contains(ByteBuffer.wrap(rotation.used()))) {
+                reused.add(rotation.familyId());
+            }
+        }
+        Set<UUID> revoked = new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_REVOKED_FAMILIES);
+            statement.setArray(1, connection.createArrayOf("uuid", families.toArray()));
+            return statement;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class)));
+        return new RotationResult(reused, revoked);
+    }
+
+    public void revokeFamilies(Collection<UUID> familyIds, Instant revokedAt) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(REVOKE_FAMILIES);
+            statement.setObject(1, timestamp(revokedAt));
+            statement.setArray(2, connection.createArrayOf("uuid", familyIds.toArray()));
+            return statement;
+        });
+    }
+
+    /**
+     * @return the families that were active until now
+     */
+    public List<UUID> revokeFamiliesOf(String email, Instant revokedAt) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(REVOKE_USER_FAMILIES);
+            statement.setObject(1, timestamp(revokedAt));
+            statement.setString(2, email);
+            return statement;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+    }
+
+    /**
+     * @return revocation time per family revoked after {@code since}
+     */
+    public Map<UUID, Instant> findRevokedSince(Instant since) {
+        Map<UUID, Instant> revoked = new HashMap<>();
+        jdbcTemplate.query(FIND_REVOKED_SINCE, rs -> {
+            revoked.put(rs.getObject(1, UUID.class), rs.getObject(2, OffsetDateTime.class).toInstant());
+        }, timestamp(since));
+        return revoked;
+    }
+
+    /**
+     * Deletes expired tokens and the families left without any, revoked or not.
+     *
+     * @return number of deleted tokens
+     */
+    @Transactional
+    public int deleteExpired(Instant now) {
+        int tokens = jdbcTemplate.update(DELETE_EXPIRED_TOKENS, timestamp(now));
+        jdbcTemplate.update(DELETE_EMPTY_FAMILIES);
+        return tokens;
+    }
+
+    private static OffsetDateTime timestamp(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
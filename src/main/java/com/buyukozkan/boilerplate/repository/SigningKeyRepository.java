@@ -0,0 +1,101 @@
+package com.buyukozkan.boilerplate.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Asymmetric JWT signing keys shared by all nodes. Whichever node finds the next key due
+ * creates it; the advisory lock makes the others see it instead of adding their own.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SigningKeyRepository {
+
+    /** Arbitrary, only has to differ from other advisory locks taken on the database */
+    private static final long ROTATION_LOCK = 0x6a77_6b73L;
+
+    private static final String FIND_ALL = """
+            SELECT kid, algorithm, public_key, private_key, created_at, activates_at
+            FROM jwt_signing_keys ORDER BY activates_at, kid
+            """;
+
+    // Nothing activating after the key the caller takes as its latest, or after nothing at all
+    private static final String HAS_SUCCESSOR = """
+            SELECT EXISTS (
+                SELECT 1 FROM jwt_signing_keys
+                WHERE activates_at > coalesce((SELECT activates_at FROM jwt_signing_keys WHERE kid = ?), '-infinity')
+            )
+            """;
+
+    private static final String INSERT = """
+            INSERT INTO jwt_signing_keys (kid, algorithm, public_key, private_key, created_at, activates_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    // A key is retired once a later key is active; it is deleted when that happened before the cut-off
+    private static final String DELETE_RETIRED = """
+            DELETE FROM jwt_signing_keys k
+            WHERE EXISTS (
+                SELECT 1 FROM jwt_signing_keys n
+                WHERE n.activates_at > k.activates_at AND n.activates_at <= ?
+            )
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param privateKey encrypted PKCS#8 encoding
+     * @param publicKey  X.509 encoding
+     */
+    public record StoredKey(String kid, String algorithm, byte[] publicKey, byte[] privateKey,
+                            Instant createdAt, Instant activatesAt) {
+    }
+
+    public List<StoredKey> findAll() {
+        return jdbcTemplate.query(FIND_ALL, (rs, rowNum) -> new StoredKey(
+                rs.getString(1),
+                rs.getString(2),
+                rs.getBytes(3),
+                rs.getBytes(4),
+                rs.getObject(5, OffsetDateTime.class).toInstant(),
+                rs.getObject(6, OffsetDateTime.class).toInstant()));
+    }
+
+    /**
+     * Inserts {@code key} unless another node already added a key activating after
+     * {@code latestKid}.
+     *
+     * @param latestKid the latest key the caller knows of, {@code null} if it knows none
+     * @return whether the key was inserted
+     */
+    @Transactional
+    public boolean insertSuccessor(String latestKid, StoredKey key) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> {
+        }, ROTATION_LOCK);
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_SUCCESSOR, Boolean.class, latestKid))) {
+            return false;
+        }
+        jdbcTemplate.update(INSERT, key.kid(), key.algorithm(), key.publicKey(), key.privateKey(),
+                timestamp(key.createdAt()), timestamp(key.activatesAt()));
+        return true;
+    }
+
+    /**
+     * @param retiredBefore keys replaced by a key active since this instant are deleted
+     * @return number of deleted keys
+     */
+    public int deleteRetired(Instant retiredBefore) {
+        return jdbcTemplate.update(DELETE_RETIRED, timestamp(retiredBefore));
+    }
+
+    private static OffsetDateTime timestamp(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
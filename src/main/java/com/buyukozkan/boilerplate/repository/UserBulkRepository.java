@@ -0,0 +1,146 @@
+package com.buyukozkan.boilerplate.repository;
+
+import com.buyukozkan.boilerplate.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * Set-based inserts for user creation. Each call sends a whole chunk as array parameters,
+ * so a chunk costs one round trip per table regardless of its size, and conflicts are reported
+ * per row through {@code RETURNING} instead of aborting the batch. Emails are matched on
+ * {@code lower(email)}, the expression the unique index is built on. Also holds the
+ * conditional password hash swap used when logins rehash a password.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserBulkRepository {
+
+    private static final String FIND_EXISTING_EMAILS = """
+            SELECT lower(email) FROM users WHERE lower(email) = ANY (?)
+            """;
+
+    private static final String INSERT_USERS = """
+            INSERT INTO users (id, email, password_hash, created_at, updated_at)
+            SELECT id, email, password_hash, ?, ?
+            FROM unnest(?::uuid[], ?::varchar[], ?::varchar[]) AS t (id, email, password_hash)
+            ON CONFLICT (lower(email)) DO NOTHING
+            RETURNING id
+            """;
+
+    private static final String INSERT_USER_ROLES = """
+            INSERT INTO user_roles (user_id, role_id)
+            SELECT user_id, role_id FROM unnest(?::uuid[], ?::int8[]) AS t (user_id, role_id)
+            """;
+
+    private static final String INSERT_USER = """
+            WITH inserted AS (
+                INSERT INTO users (id, email, password_hash, created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?)
+                RETURNING id
+            )
+            INSERT INTO user_roles (user_id, role_id)
+            SELECT inserted.id, t.role_id FROM inserted, unnest(?::int8[]) AS t (role_id)
+            """;
+
+    private static final String REPLACE_PASSWORD_HASH = """
+            UPDATE users SET password_hash = ?, updated_at = ?
+            WHERE id = ? AND password_hash = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record NewUser(UUID id, String email, String passwordHash, Collection<Long> roleIds) {
+    }
+
+    /**
+     * @return the {@link User#normalizeEmail normalized} form of the given emails that are taken
+     */
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_EXISTING_EMAILS);
+            statement.setArray(1, connection.createArrayOf("varchar",
+                    emails.stream().map(User::normalizeEmail).toArray()));
+            return statement;
+        }, (rs, rowNum) -> rs.getString(1)));
+    }
+
+    /**
+     * Inserts one user and its role links in a single statement.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException if the email is already taken
+     */
+    public void insert(NewUser user) {
+        jdbcTemplate.update(connection -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            PreparedStatement statement = connection.prepareStatement(INSERT_USER);
+            statement.setObject(1, user.id());
+            statement.setString(2, user.email());
+            statement.setString(3, user.passwordHash());
+            statement.setObject(4, now);
+            statement.setObject(5, now);
+            statement.setArray(6, connection.createArrayOf("int8", user.roleIds().toArray()));
+            return statement;
+        });
+    }
+
+    /**
+     * Inserts the users and their role links, skipping emails that already exist.
+     *
+     * @return ids of the users that were actually inserted
+     */
+    @Transactional
+    public Set<UUID> insertIgnoringDuplicates(List<NewUser> users) {
+        if (users.isEmpty()) {
+            return Set.of();
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        Set<UUID> inserted = new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_USERS);
+            statement.setObject(1, now);
+            statement.setObject(2, now);
+            statement.setArray(3, connection.createArrayOf("uuid", users.stream().map(NewUser::id).toArray()));
+            statement.setArray(4, connection.createArrayOf("varchar", users.stream().map(NewUser::email).toArray()));
+            statement.setArray(5, connection.createArrayOf("varchar", users.stream().map(NewUser::passwordHash).toArray()));
+            return statement;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class)));
+
+        List<UUID> userIds = new ArrayList<>();
+        List<Long> roleIds = new ArrayList<>();
+        for (NewUser user : users) {
+            if (inserted.contains(user.id())) {
+                for (Long roleId : user.roleIds()) {
+                    userIds.add(user.id());
+                    roleIds.add(roleId);
+                }
+            }
+        }
+        if (!userIds.isEmpty()) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(INSERT_USER_ROLES);
+                statement.setArray(1, connection.createArrayOf("uuid", userIds.toArray()));
+                statement.setArray(2, connection.createArrayOf("int8", roleIds.toArray()));
+                return statement;
+            });
+        }
+        return inserted;
+    }
+
+    /**
+     * Swaps the password hash only if the row still holds {@code expected}, so a password
+     * changed since the hash was read is never overwritten.
+     *
+     * @return whether the hash was replaced
+     */
+    public boolean replacePasswordHash(UUID userId, String expected, String replacement) {
+        return jdbcTemplate.update(REPLACE_PASSWORD_HASH, replacement, OffsetDateTime.now(), userId, expected) == 1;
+    }
+}
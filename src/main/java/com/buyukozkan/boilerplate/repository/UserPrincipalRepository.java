@@ -0,0 +1,43 @@
+package com.buyukozkan.boilerplate.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read path for login. One row per user with the role names aggregated into an array, read
+ * straight off the result set; permissions are resolved from the role catalog, so neither the
+ * roles × permissions join nor the persistence context is involved.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserPrincipalRepository {
+
+    private static final String FIND_BY_EMAIL = """
+            SELECT u.id, u.email, u.password_hash,
+                   array_remove(array_agg(r.name), NULL) AS role_names
+            FROM users u
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            WHERE lower(u.email) = lower(?)
+            GROUP BY u.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Credentials(UUID id, String email, String passwordHash, List<String> roleNames) {
+    }
+
+    public Optional<Credentials> findByEmail(String email) {
+        return jdbcTemplate.query(FIND_BY_EMAIL, (rs, rowNum) -> new Credentials(
+                rs.getObject("id", UUID.class),
+                rs.getString("email"),
+                rs.getString("password_hash"),
+                List.of((String[]) rs.getArray("role_names").getArray())
+        ), email).stream().findFirst();
+    }
+}
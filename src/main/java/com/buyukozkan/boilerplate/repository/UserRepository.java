@@ -1,24 +1,27 @@
 package com.buyukozkan.boilerplate.repository;
 
 import com.buyukozkan.boilerplate.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
 
-    @Query("""
-            SELECT u FROM User u
-            LEFT JOIN FETCH u.roles r
-            LEFT JOIN FETCH r.permissions
-            WHERE u.email = :email
-            """)
-    Optional<User> findByEmailWithRolesAndPermissions(@Param("email") String email);
+    @Query("SELECT count(u) > 0 FROM User u WHERE lower(u.email) = lower(:email)")
+    boolean existsByEmail(@Param("email") String email);
 
-    boolean existsByEmail(String email);
+    /** Must be consumed inside a transaction so the driver can stream with a cursor */
+    @Query("SELECT u.email FROM User u")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "5000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<String> streamAllEmails();
 }
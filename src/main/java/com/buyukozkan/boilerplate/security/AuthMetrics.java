@@ -0,0 +1,153 @@
+package com.buyukozkan.boilerplate.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for the authentication pipeline. Every outcome tag is registered up front, so
+ * recording on the request path is an array lookup rather than a meter registry lookup.
+ */
+@Component
+public class AuthMetrics {
+
+    public enum TokenOutcome {
+        /** No bearer token on the request; only recorded by the filter */
+        MISSING,
+        VALID,
+        EXPIRED,
+        BAD_SIGNATURE,
+        MALFORMED;
+
+        public static TokenOutcome of(Throwable failure) {
+            if (failure instanceof ExpiredJwtException) {
+                return EXPIRED;
+            }
+            if (failure instanceof SignatureException) {
+                return BAD_SIGNATURE;
+            }
+            return MALFORMED;
+        }
+    }
+
+    public enum LoginOutcome {
+        SUCCESS,
+        BAD_CREDENTIALS,
+        /** Shed because the password hashing pool was saturated */
+        REJECTED,
+        ERROR
+    }
+
+    public enum TokenType {
+        ACCESS,
+        REFRESH
+    }
+
+    /** Why {@link TokenPrecheck} turned a token away before any cryptography */
+    public enum TokenRejection {
+        TOO_LONG,
+        /** Not three non-empty base64url segments */
+        MALFORMED,
+        /** Header names an algorithm or key this service does not issue */
+        UNKNOWN_HEADER
+    }
+
+    private final Map<TokenOutcome, Timer> filter;
+    private final Map<TokenOutcome, Timer> verify;
+    private final Map<TokenType, Timer> sign;
+    private final Map<LoginOutcome, Timer> login;
+    private final Map<TokenRejection, Counter> rejected;
+    private final Timer userLookupFound;
+    private final Timer userLookupNotFound;
+    private final Timer introspection;
+    private final DistributionSummary introspectedTokens;
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.filter = timers(registry, TokenOutcome.class, "auth.filter",
+                "Bearer token authentication in JwtAuthenticationFilter", "outcome");
+        this.verify = timers(registry, TokenOutcome.class, "auth.token.verify",
+                "Token verification, including verified-token cache hits", "outcome");
+        this.sign = timers(registry, TokenType.class, "auth.token.sign",
+                "Token signing", "type");
+        this.login = timers(registry, LoginOutcome.class, "auth.login",
+                "Credential authentication for /api/auth/login", "outcome");
+        this.rejected = new EnumMap<>(TokenRejection.class);
+        for (TokenRejection reason : TokenRejection.values()) {
+            rejected.put(reason, Counter.builder("auth.token.rejected")
+                    .description("Tokens rejected by the structural pre-check, before any signature work")
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        this.userLookupFound = timer(registry, "auth.user.lookup",
+                "Loading a user with roles and permissions for authentication", "outcome", "found");
+        this.userLookupNotFound = timer(registry, "auth.user.lookup",
+                "Loading a user with roles and permissions for authentication", "outcome", "not_found");
+        this.introspection = Timer.builder("auth.introspection")
+                .description("Batch token introspection requests, from the first byte read to the last written")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.introspectedTokens = DistributionSummary.builder("auth.introspection.tokens")
+                .description("Tokens per introspection request")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void recordFilter(TokenOutcome outcome, long startNanos) {
+        record(filter.get(outcome), startNanos);
+    }
+
+    public void recordVerify(TokenOutcome outcome, long startNanos) {
+        record(verify.get(outcome), startNanos);
+    }
+
+    public void recordRejected(TokenRejection reason) {
+        rejected.get(reason).increment();
+    }
+
+    public void recordSign(TokenType type, long startNanos) {
+        record(sign.get(type), startNanos);
+    }
+
+    public void recordLogin(LoginOutcome outcome, long startNanos) {
+        record(login.get(outcome), startNanos);
+    }
+
+    public void recordUserLookup(boolean found, long startNanos) {
+        record(found ? userLookupFound : userLookupNotFound, startNanos);
+    }
+
+    public void recordIntrospection(long tokens, long startNanos) {
+        record(introspection, startNanos);
+        introspectedTokens.record(tokens);
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static <E extends Enum<E>> Map<E, Timer> timers(MeterRegistry registry, Class<E> tags, String name,
+                                                             String description, String tagKey) {
+        Map<E, Timer> timers = new EnumMap<>(tags);
+        for (E tag : tags.getEnumConstants()) {
+            timers.put(tag, timer(registry, name, description, tagKey, tag.name().toLowerCase(Locale.ROOT)));
+        }
+        return timers;
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String description, String tagKey, String tagValue) {
+        return Timer.builder(name)
+                .description(description)
+                .tag(tagKey, tagValue)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,121 @@
+package com.buyukozkan.boilerplate.security;
+
+import com.buyukozkan.boilerplate.service.RoleCatalog;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.MalformedJwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compact form of the authorities claim: {@code {"v": <registry version>, "r": <role bits>, "p": <permission bits>}},
+ * where the bit sets are base64url encoded and bit positions come from {@link AuthorityRegistry}.
+ * Decoded authority lists are shared between all tokens carrying the same bits.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuthorityClaimCodec {
+
+    public static final String CLAIM = "authz";
+
+    private static final long RELOAD_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final RoleCatalog roleCatalog;
+
+    private final Cache<String, List<SimpleGrantedAuthority>> decoded = Caffeine.newBuilder()
+            .maximumSize(4096)
+            .build();
+    private final AtomicLong lastReload = new AtomicLong(System.nanoTime() - RELOAD_INTERVAL_NANOS);
+
+    /**
+     * @return the compact claim, or empty if an authority is not in the registry and the
+     * token has to fall back to the string list
+     */
+    public Optional<Map<String, Object>> encode(Collection<? extends GrantedAuthority> authorities) {
+        AuthorityRegistry registry = roleCatalog.registry();
+        if (registry == null) {
+            return Optional.empty();
+        }
+
+        BitSet roles = new BitSet();
+        BitSet permissions = new BitSet();
+        for (GrantedAuthority authority : authorities) {
+            String name = authority.getAuthority();
+            String bare = name.startsWith(AuthorityInterner.ROLE_PREFIX)
+                    ? name.substring(AuthorityInterner.ROLE_PREFIX.length())
+                    : name;
+            OptionalInt position = registry.rolePosition(bare);
+            if (position.isPresent()) {
+                roles.set(position.getAsInt());
+                continue;
+            }
+            position = registry.permissionPosition(bare);
+            if (position.isEmpty()) {
+                return Optional.empty();
+            }
+            permissions.set(position.getAsInt());
+        }
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return Optional.of(Map.of(
+                "v", registry.version(),
+                "r", encoder.encodeToString(roles.toByteArray()),
+                "p", encoder.encodeToString(permissions.toByteArray())));
+    }
+
+    public List<SimpleGrantedAuthority> decode(Object claim) {
+        if (!(claim instanceof Map<?, ?> map)
+                || !(map.get("v") instanceof Number version)
+                || !(map.get("r") instanceof String roles)
+                || !(map.get("p") instanceof String permissions)) {
+            throw new MalformedJwtException("Malformed '" + CLAIM + "' claim");
+        }
+        return decoded.get(version.intValue() + "." + roles + "." + permissions,
+                key -> decode(version.intValue(), roles, permissions));
+    }
+
+    private List<SimpleGrantedAuthority> decode(int version, String roles, String permissions) {
+        AuthorityRegistry registry = roleCatalog.registry(version)
+                .or(() -> reloadFor(version))
+                .orElseThrow(() -> new MalformedJwtException("Unknown authority registry version " + version));
+
+        final BitSet roleBits;
+        final BitSet permissionBits;
+        try {
+            roleBits = BitSet.valueOf(Base64.getUrlDecoder().decode(roles));
+            permissionBits = BitSet.valueOf(Base64.getUrlDecoder().decode(permissions));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Malformed '" + CLAIM + "' claim", e);
+        }
+
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>(roleBits.cardinality() + permissionBits.cardinality());
+        roleBits.stream()
+                .mapToObj(registry::roleName)
+                .filter(Objects::nonNull)
+                .forEach(name -> authorities.add(AuthorityInterner.role(name)));
+        permissionBits.stream()
+                .mapToObj(registry::permissionName)
+                .filter(Objects::nonNull)
+                .forEach(name -> authorities.add(AuthorityInterner.role(name)));
+        return List.copyOf(authorities);
+    }
+
+    private Optional<AuthorityRegistry> reloadFor(int version) {
+        long last = lastReload.get();
+        long now = System.nanoTime();
+        if (now - last < RELOAD_INTERVAL_NANOS || !lastReload.compareAndSet(last, now)) {
+            return Optional.empty();
+        }
+        log.info("Token carries unknown authority registry version {}, reloading role catalog", version);
+        roleCatalog.reload();
+        return roleCatalog.registry(version);
+    }
+}
@@ -0,0 +1,29 @@
+package com.buyukozkan.boilerplate.security;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical {@link SimpleGrantedAuthority} instances. Only feed it names that come from the
+ * database or from tokens we signed ourselves; the set of distinct authorities is small and fixed.
+ */
+public final class AuthorityInterner {
+
+    public static final String ROLE_PREFIX = "ROLE_";
+
+    private static final Map<String, SimpleGrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+
+    private AuthorityInterner() {
+    }
+
+    public static SimpleGrantedAuthority of(String authority) {
+        SimpleGrantedAuthority interned = AUTHORITIES.get(authority);
+        return interned != null ? interned : AUTHORITIES.computeIfAbsent(authority, SimpleGrantedAuthority::new);
+    }
+
+    public static SimpleGrantedAuthority role(String roleName) {
+        return of(roleName.startsWith(ROLE_PREFIX) ? roleName : ROLE_PREFIX + roleName);
+    }
+}
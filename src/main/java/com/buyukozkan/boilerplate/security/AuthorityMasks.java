@@ -0,0 +1,169 @@
+package com.buyukozkan.boilerplate.security;
+
+import com.buyukozkan.boilerplate.service.RoleCatalog;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns every authority string a bit position so that "does the principal hold any of these
+ * authorities" becomes an AND of two precomputed masks. Positions are seeded from the role
+ * catalog at startup and only ever appended, so a mask stays valid for the lifetime of the
+ * process and bit {@code i} is set exactly when the principal holds the authority at position
+ * {@code i} - the same answer a string comparison gives.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthorityMasks {
+
+    static final int MAX_POSITIONS = 1024;
+
+    private static final long[] UNREPRESENTABLE = new long[0];
+
+    private final RoleCatalog roleCatalog;
+
+    private final Map<String, Integer> positions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextPosition = new AtomicInteger();
+    private final Map<String, long[]> singleRequirements = new ConcurrentHashMap<>();
+    private final Map<List<String>, long[]> requirements = new ConcurrentHashMap<>();
+    private final Cache<Collection<? extends GrantedAuthority>, long[]> principalMasks = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(10_000)
+            .build();
+
+    @PostConstruct
+    public void seed() {
+        SortedSet<String> names = new TreeSet<>();
+        for (String roleName : roleCatalog.roleNames()) {
+            for (GrantedAuthority authority : roleCatalog.authoritiesOf(roleName)) {
+                names.add(authority.getAuthority());
+                names.add(AuthorityInterner.role(authority.getAuthority()).getAuthority());
+            }
+        }
+        names.forEach(this::position);
+    }
+
+    /**
+     * Mask for an authority collection, cached by identity so shared lists (cached tokens,
+     * decoded bitset claims, catalog role sets) are only translated once.
+     */
+    public long[] maskOf(Collection<? extends GrantedAuthority> authorities) {
+        return principalMasks.get(authorities, this::compile);
+    }
+
+    public boolean hasAnyAuthority(Authentication authentication, String authority) {
+        return authentication != null
+                && matches(authentication, singleRequirements.computeIfAbsent(authority, name -> compile(List.of(name))),
+                List.of(authority));
+    }
+
+    public boolean hasAnyAuthority(Authentication authentication, String... authorities) {
+        if (authorities.length == 1) {
+            return hasAnyAuthority(authentication, authorities[0]);
+        }
+        List<String> names = List.of(authorities);
+        return authentication != null && matches(authentication, requirements.computeIfAbsent(names, this::compile), names);
+    }
+
+    public boolean hasAnyRole(Authentication authentication, String... roles) {
+        String[] authorities = new String[roles.length];
+        for (int i = 0; i < roles.length; i++) {
+            authorities[i] = roles[i].startsWith(AuthorityInterner.ROLE_PREFIX) ? roles[i] : AuthorityInterner.ROLE_PREFIX + roles[i];
+        }
+        return hasAnyAuthority(authentication, authorities);
+    }
+
+    public <T> AuthorizationManager<T> hasAuthority(String authority) {
+        return hasAnyAuthorityManager(authority);
+    }
+
+    public <T> AuthorizationManager<T> hasRole(String role) {
+        return hasAnyAuthorityManager(AuthorityInterner.role(role).getAuthority());
+    }
+
+    private <T> AuthorizationManager<T> hasAnyAuthorityManager(String... authorities) {
+        return new BitmaskAuthorizationManager<>(this, authorities);
+    }
+
+    private boolean matches(Authentication authentication, long[] required, List<String> names) {
+        long[] held = authentication instanceof MaskedAuthenticationToken masked
+                ? masked.getAuthorityMask()
+                : compile(authentication.getAuthorities());
+        if (required == UNREPRESENTABLE || held == UNREPRESENTABLE) {
+            return containsAny(authentication.getAuthorities(), names);
+        }
+
+        int words = Math.min(held.length, required.length);
+        for (int i = 0; i < words; i++) {
+            if ((held[i] & required[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long[] compile(Collection<? extends GrantedAuthority> authorities) {
+        long[] mask = new long[0];
+        for (GrantedAuthority authority : authorities) {
+            String name = authority.getAuthority();
+            if (name == null) {
+                continue;
+            }
+            mask = set(mask, position(name));
+            if (mask == UNREPRESENTABLE) {
+                return UNREPRESENTABLE;
+            }
+        }
+        return mask;
+    }
+
+    private long[] compile(List<String> names) {
+        long[] mask = new long[0];
+        for (String name : names) {
+            mask = set(mask, position(name));
+            if (mask == UNREPRESENTABLE) {
+                return UNREPRESENTABLE;
+            }
+        }
+        return mask;
+    }
+
+    private int position(String name) {
+        Integer position = positions.get(name);
+        if (position != null) {
+            return position;
+        }
+        if (positions.size() >= MAX_POSITIONS) {
+            return -1;
+        }
+        return positions.computeIfAbsent(name, key -> nextPosition.getAndIncrement());
+    }
+
+    private static long[] set(long[] mask, int position) {
+        if (position < 0) {
+            return UNREPRESENTABLE;
+        }
+        int word = position >>> 6;
+        long[] result = word < mask.length ? mask : Arrays.copyOf(mask, word + 1);
+        result[word] |= 1L << position;
+        return result;
+    }
+
+    private static boolean containsAny(Collection<? extends GrantedAuthority> authorities, List<String> names) {
+        for (GrantedAuthority authority : authorities) {
+            if (names.contains(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,79 @@
+package com.buyukozkan.boilerplate.security;
+
+import com.buyukozkan.boilerplate.entity.Permission;
+import com.buyukozkan.boilerplate.entity.Role;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Numeric positions for every role and permission, taken from their database ids so positions
+ * never move. The version is a checksum of the id/name pairs and changes whenever a role or
+ * permission is added, removed or renamed.
+ */
+public final class AuthorityRegistry {
+
+    private final int version;
+    private final Map<String, Integer> rolePositions;
+    private final Map<String, Integer> permissionPositions;
+    private final String[] roleNames;
+    private final String[] permissionNames;
+
+    private AuthorityRegistry(SortedMap<Integer, String> roles, SortedMap<Integer, String> permissions) {
+        this.rolePositions = invert(roles);
+        this.permissionPositions = invert(permissions);
+        this.roleNames = toArray(roles);
+        this.permissionNames = toArray(permissions);
+        this.version = checksum(roles, permissions);
+    }
+
+    public static AuthorityRegistry of(Collection<Role> roles, Collection<Permission> permissions) {
+        SortedMap<Integer, String> roleNames = new TreeMap<>();
+        roles.forEach(role -> roleNames.put(Math.toIntExact(role.getId()), role.getName()));
+        SortedMap<Integer, String> permissionNames = new TreeMap<>();
+        permissions.forEach(permission -> permissionNames.put(Math.toIntExact(permission.getId()), permission.getName()));
+        return new AuthorityRegistry(roleNames, permissionNames);
+    }
+
+    public int version() {
+        return version;
+    }
+
+    public OptionalInt rolePosition(String roleName) {
+        Integer position = rolePositions.get(roleName);
+        return position == null ? OptionalInt.empty() : OptionalInt.of(position);
+    }
+
+    public OptionalInt permissionPosition(String permissionName) {
+        Integer position = permissionPositions.get(permissionName);
+        return position == null ? OptionalInt.empty() : OptionalInt.of(position);
+    }
+
+    public String roleName(int position) {
+        return position < roleNames.length ? roleNames[position] : null;
+    }
+
+    public String permissionName(int position) {
+        return position < permissionNames.length ? permissionNames[position] : null;
+    }
+
+    private static Map<String, Integer> invert(SortedMap<Integer, String> byPosition) {
+        Map<String, Integer> byName = new HashMap<>();
+        byPosition.forEach((position, name) -> byName.put(name, position));
+        return Map.copyOf(byName);
+    }
+
+    private static String[] toArray(SortedMap<Integer, String> byPosition) {
+        String[] names = new String[byPosition.isEmpty() ? 0 : byPosition.lastKey() + 1];
+        byPosition.forEach((position, name) -> names[position] = name);
+        return names;
+    }
+
+    private static int checksum(SortedMap<Integer, String> roles, SortedMap<Integer, String> permissions) {
+        CRC32 crc = new CRC32();
+        roles.forEach((position, name) -> crc.update(("r" + position + "=" + name + "\n").getBytes(StandardCharsets.UTF_8)));
+        permissions.forEach((position, name) -> crc.update(("p" + position + "=" + name + "\n").getBytes(StandardCharsets.UTF_8)));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,39 @@
+package com.buyukozkan.boilerplate.security;
+
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Drop-in for {@code AuthorityAuthorizationManager.hasAnyAuthority(...)} backed by {@link AuthorityMasks}.
+ */
+public class BitmaskAuthorizationManager<T> implements AuthorizationManager<T> {
+
+    private final AuthorityMasks masks;
+    private final String[] authorities;
+
+    BitmaskAuthorizationManager(AuthorityMasks masks, String... authorities) {
+        this.masks = masks;
+        this.authorities = authorities.clone();
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, T object) {
+        return new AuthorizationDecision(masks.hasAnyAuthority(authentication.get(), authorities));
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+        return new AuthorizationDecision(masks.hasAnyAuthority(authentication.get(), authorities));
+    }
+
+    @Override
+    public String toString() {
+        return "BitmaskAuthorizationManager[authorities=" + Arrays.toString(authorities) + "]";
+    }
+}
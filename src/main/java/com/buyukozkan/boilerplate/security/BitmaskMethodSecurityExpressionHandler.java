@@ -0,0 +1,45 @@
+package com.buyukozkan.boilerplate.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+public class BitmaskMethodSecurityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    private final Supplier<AuthorityMasks> masks;
+
+    public BitmaskMethodSecurityExpressionHandler(Supplier<AuthorityMasks> masks) {
+        this.masks = masks;
+    }
+
+    @Override
+    public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication, MethodInvocation mi) {
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                createRoot(authentication, mi), specificMethod(mi), mi.getArguments(), getParameterNameDiscoverer());
+        context.setBeanResolver(getBeanResolver());
+        return context;
+    }
+
+    @Override
+    protected MethodSecurityExpressionOperations createSecurityExpressionRoot(Authentication authentication,
+                                                                              MethodInvocation invocation) {
+        return createRoot(() -> authentication, invocation);
+    }
+
+    private BitmaskMethodSecurityExpressionRoot createRoot(Supplier<Authentication> authentication, MethodInvocation mi) {
+        return new BitmaskMethodSecurityExpressionRoot(
+                authentication, masks.get(), getTrustResolver(), getPermissionEvaluator(), mi.getThis());
+    }
+
+    private static Method specificMethod(MethodInvocation mi) {
+        return AopUtils.getMostSpecificMethod(mi.getMethod(), AopProxyUtils.ultimateTargetClass(mi.getThis()));
+    }
+}
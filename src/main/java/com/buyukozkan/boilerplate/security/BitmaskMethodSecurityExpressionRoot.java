@@ -0,0 +1,138 @@
+package com.buyukozkan.boilerplate.security;
+
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.io.Serializable;
+import java.util.function.Supplier;
+
+/**
+ * Method-security expression root whose {@code hasAuthority}/{@code hasRole} family is answered by
+ * {@link AuthorityMasks}. Everything else behaves like Spring's {@code MethodSecurityExpressionRoot}.
+ */
+public class BitmaskMethodSecurityExpressionRoot implements MethodSecurityExpressionOperations {
+
+    public final boolean permitAll = true;
+    public final boolean denyAll = false;
+    public final String read = "read";
+    public final String write = "write";
+    public final String create = "create";
+    public final String delete = "delete";
+    public final String admin = "administration";
+
+    private final Supplier<Authentication> authentication;
+    private final AuthorityMasks masks;
+    private final AuthenticationTrustResolver trustResolver;
+    private final PermissionEvaluator permissionEvaluator;
+    private final Object target;
+    private Object filterObject;
+    private Object returnObject;
+
+    public BitmaskMethodSecurityExpressionRoot(Supplier<Authentication> authentication, AuthorityMasks masks,
+                                               AuthenticationTrustResolver trustResolver,
+                                               PermissionEvaluator permissionEvaluator, Object target) {
+        this.authentication = SingletonSupplier.of(authentication);
+        this.masks = masks;
+        this.trustResolver = trustResolver;
+        this.permissionEvaluator = permissionEvaluator;
+        this.target = target;
+    }
+
+    @Override
+    public Authentication getAuthentication() {
+        return authentication.get();
+    }
+
+    public Object getPrincipal() {
+        return getAuthentication().getPrincipal();
+    }
+
+    @Override
+    public boolean hasAuthority(String authority) {
+        return masks.hasAnyAuthority(getAuthentication(), authority);
+    }
+
+    @Override
+    public boolean hasAnyAuthority(String... authorities) {
+        return masks.hasAnyAuthority(getAuthentication(), authorities);
+    }
+
+    @Override
+    public boolean hasRole(String role) {
+        return masks.hasAnyRole(getAuthentication(), role);
+    }
+
+    @Override
+    public boolean hasAnyRole(String... roles) {
+        return masks.hasAnyRole(getAuthentication(), roles);
+    }
+
+    @Override
+    public boolean permitAll() {
+        return true;
+    }
+
+    @Override
+    public boolean denyAll() {
+        return false;
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        return trustResolver.isAnonymous(getAuthentication());
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return trustResolver.isAuthenticated(getAuthentication());
+    }
+
+    @Override
+    public boolean isRememberMe() {
+        return trustResolver.isRememberMe(getAuthentication());
+    }
+
+    @Override
+    public boolean isFullyAuthenticated() {
+        Authentication current = getAuthentication();
+        return !trustResolver.isAnonymous(current) && !trustResolver.isRememberMe(current);
+    }
+
+    @Override
+    public boolean hasPermission(Object target, Object permission) {
+        return permissionEvaluator.hasPermission(getAuthentication(), target, permission);
+    }
+
+    @Override
+    public boolean hasPermission(Object targetId, String targetType, Object permission) {
+        return permissionEvaluator.hasPermission(getAuthentication(), (Serializable) targetId, targetType, permission);
+    }
+
+    @Override
+    public void setFilterObject(Object filterObject) {
+        this.filterObject = filterObject;
+    }
+
+    @Override
+    public Object getFilterObject() {
+        return filterObject;
+    }
+
+    @Override
+    public void setReturnObject(Object returnObject) {
+        this.returnObject = returnObject;
+    }
+
+    @Override
+    public Object getReturnObject() {
+        return returnObject;
+    }
+
+    @Override
+    public Object getThis() {
+        return target;
+    }
+}
@@ -0,0 +1,199 @@
+package com.buyukozkan.boilerplate.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * BCrypt or Argon2id with work factors sized to this machine. New hashes carry their algorithm
+ * as a prefix ({@code {bcrypt}}, {@code {argon2}}); unprefixed hashes are the BCrypt hashes
+ * written before the prefix existed. A hash made with another algorithm, or with a cost more
+ * than {@code rehashToleranceSteps} doublings away from the current one in either direction,
+ * {@link #upgradeEncoding needs upgrading}, so successful logins move stored hashes to the
+ * current settings. The band keeps nodes that calibrated one step apart from rewriting each
+ * other's hashes on every login.
+ */
+@Slf4j
+public final class CalibratedPasswordEncoder implements PasswordEncoder {
+
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final int BCRYPT_MAX_STRENGTH = 31;
+
+    public enum Algorithm {
+        BCRYPT("bcrypt"),
+        ARGON2("argon2");
+
+        private final String id;
+
+        Algorithm(String id) {
+            this.id = id;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public static Algorithm ofId(String id) {
+            return Arrays.stream(values())
+                    .filter(algorithm -> algorithm.id.equalsIgnoreCase(id))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported password hashing algorithm: " + id));
+        }
+    }
+
+    /**
+     * Work factors of new hashes; only the ones of the selected algorithm are used.
+     * Existing hashes are verified with the factors stored in them.
+     */
+    public record WorkFactors(int bcryptStrength, int argon2MemoryKib, int argon2Iterations, int argon2Parallelism) {
+    }
+
+    /**
+     * Bounds for {@link #calibrated}; the work factor of the selected algorithm is the largest
+     * one from the minimum upwards whose median hash takes at most {@code targetLatency}.
+     */
+    public record Calibration(Duration targetLatency, int samples,
+                              int bcryptMinStrength, int argon2MinMemoryKib, int argon2MaxMemoryKib) {
+    }
+
+    private final Algorithm algorithm;
+    private final WorkFactors workFactors;
+    private final boolean rehashOnLogin;
+    private final int rehashToleranceSteps;
+    private final String prefix;
+    private final DelegatingPasswordEncoder delegate;
+
+    public CalibratedPasswordEncoder(Algorithm algorithm, WorkFactors workFactors,
+                                     boolean rehashOnLogin, int rehashToleranceSteps) {
+        this.algorithm = algorithm;
+        this.workFactors = workFactors;
+        this.rehashOnLogin = rehashOnLogin;
+        this.rehashToleranceSteps = rehashToleranceSteps;
+        this.prefix = "{" + algorithm.id() + "}";
+        PasswordEncoder bcrypt = bcrypt(workFactors.bcryptStrength());
+        this.delegate = new DelegatingPasswordEncoder(algorithm.id(), Map.of(
+                Algorithm.BCRYPT.id(), bcrypt,
+                Algorithm.ARGON2.id(), argon2(workFactors.argon2MemoryKib(),
+                        workFactors.argon2Iterations(), workFactors.argon2Parallelism())));
+        this.delegate.setDefaultPasswordEncoderForMatches(bcrypt);
+    }
+
+    /**
+     * Measures the selected algorithm unless its work factor is configured (non-zero) and logs
+     * the measurements, so the chosen factor can be pinned once a deployment settles on it.
+     * An unset factor of the other algorithm falls back to its minimum; it is never used to encode.
+     */
+    public static CalibratedPasswordEncoder calibrated(Algorithm algorithm, WorkFactors configured,
+                                                       Calibration calibration, boolean rehashOnLogin,
+                                                       int rehashToleranceSteps) {
+        int bcryptStrength = configured.bcryptStrength() > 0
+                ? configured.bcryptStrength() : calibration.bcryptMinStrength();
+        int argon2MemoryKib = configured.argon2MemoryKib() > 0
+                ? configured.argon2MemoryKib() : calibration.argon2MinMemoryKib();
+        if (algorithm == Algorithm.BCRYPT && configured.bcryptStrength() <= 0) {
+            bcryptStrength = calibrate("bcrypt strength", calibration, PasswordHashCalibrator.calibrate(
+                    CalibratedPasswordEncoder::bcrypt, strength -> strength + 1,
+                    calibration.bcryptMinStrength(), BCRYPT_MAX_STRENGTH,
+                    calibration.targetLatency(), calibration.samples()));
+        }
+        if (algorithm == Algorithm.ARGON2 && configured.argon2MemoryKib() <= 0) {
+            argon2MemoryKib = calibrate("argon2 memory (KiB)", calibration, PasswordHashCalibrator.calibrate(
+                    memoryKib -> argon2(memoryKib, configured.argon2Iterations(), configured.argon2Parallelism()),
+                    memoryKib -> memoryKib * 2,
+                    calibration.argon2MinMemoryKib(), calibration.argon2MaxMemoryKib(),
+                    calibration.targetLatency(), calibration.samples()));
+        }
+        WorkFactors workFactors = new WorkFactors(bcryptStrength, argon2MemoryKib,
+                configured.argon2Iterations(), configured.argon2Parallelism());
+        return new CalibratedPasswordEncoder(algorithm, workFactors, rehashOnLogin, rehashToleranceSteps);
+    }
+
+    private static int calibrate(String workFactor, Calibration calibration, PasswordHashCalibrator.Result result) {
+        log.info("Password hashing calibrated: {} {} for a {} ms budget (measured {})",
+                workFactor, result.workFactor(), calibration.targetLatency().toMillis(),
+                result.measurements().stream()
+                        .map(measurement -> measurement.workFactor() + ": " + measurement.latency().toMillis() + " ms")
+                        .collect(Collectors.joining(", ")));
+        return result.workFactor();
+    }
+
+    public static PasswordEncoder bcrypt(int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    public static PasswordEncoder argon2(int memoryKib, int iterations, int parallelism) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, parallelism, memoryKib, iterations);
+    }
+
+    public Algorithm algorithm() {
+        return algorithm;
+    }
+
+    public WorkFactors workFactors() {
+        return workFactors;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (!rehashOnLogin || encodedPassword == null) {
+            return false;
+        }
+        if (!encodedPassword.startsWith(prefix)) {
+            return true;
+        }
+        String hash = encodedPassword.substring(prefix.length());
+        return switch (algorithm) {
+            case BCRYPT -> Math.abs(bcryptStrength(hash) - workFactors.bcryptStrength()) > rehashToleranceSteps;
+            case ARGON2 -> argon2NeedsUpgrade(hash);
+        };
+    }
+
+    // $2a$10$<salt+hash>: the cost follows the version
+    private static int bcryptStrength(String hash) {
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    // $argon2id$v=19$m=19456,t=2,p=1$<salt>$<hash>: iterations and lanes are configured, not
+    // calibrated, so they match exactly; memory may differ by the tolerated number of doublings
+    private boolean argon2NeedsUpgrade(String hash) {
+        String[] parts = hash.split("\\$");
+        if (parts.length != 6 || !parts[1].equals("argon2id")) {
+            return true;
+        }
+        String parameters = parts[3];
+        String current = ",t=" + workFactors.argon2Iterations() + ",p=" + workFactors.argon2Parallelism();
+        if (!parameters.startsWith("m=") || !parameters.endsWith(current)) {
+            return true;
+        }
+        long memoryKib;
+        try {
+            memoryKib = Long.parseLong(parameters.substring(2, parameters.length() - current.length()));
+        } catch (NumberFormatException e) {
+            return true;
+        }
+        long currentKib = workFactors.argon2MemoryKib();
+        return memoryKib << rehashToleranceSteps < currentKib || memoryKib > currentKib << rehashToleranceSteps;
+    }
+}
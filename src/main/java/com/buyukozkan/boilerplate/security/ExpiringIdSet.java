@@ -0,0 +1,96 @@
+package com.buyukozkan.boilerplate.security;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Set of ids that each leave the set at their own expiry time. A lookup is one lock-free
+ * hash probe. Expired entries are removed a shard at a time, piggybacking on writes, so no
+ * write ever pays for a scan of the whole set and no background thread is needed.
+ */
+public class ExpiringIdSet {
+
+    private static final long SWEEP_INTERVAL_MILLIS = 10_000;
+
+    private final Shard[] shards;
+    private final int mask;
+    private final LongSupplier clock;
+    private final AtomicInteger nextSweep = new AtomicInteger();
+
+    public ExpiringIdSet() {
+        this(Runtime.getRuntime().availableProcessors() * 4, System::currentTimeMillis);
+    }
+
+    ExpiringIdSet(int minShards, LongSupplier clock) {
+        int count = Integer.highestOneBit(Math.max(1, minShards - 1)) << 1;
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard();
+        }
+        this.mask = count - 1;
+        this.clock = clock;
+    }
+
+    public boolean contains(UUID id) {
+        Long expiresAt = shard(id).entries.get(id);
+        return expiresAt != null && expiresAt > clock.getAsLong();
+    }
+
+    /**
+     * @return {@code false} if the id was already present and not yet expired; its expiry is left as it was
+     */
+    public boolean add(UUID id, Instant expiresAt) {
+        long now = clock.getAsLong();
+        long expiry = expiresAt.toEpochMilli();
+        ConcurrentHashMap<UUID, Long> entries = shard(id).entries;
+        boolean added;
+        while (true) {
+            Long current = entries.putIfAbsent(id, expiry);
+            if (current == null) {
+                added = true;
+                break;
+            }
+            if (current > now) {
+                added = false;
+                break;
+            }
+            if (entries.replace(id, current, expiry)) {
+                added = true;
+                break;
+            }
+        }
+        sweepNext(now);
+        return added;
+    }
+
+    public long size() {
+        long size = 0;
+        for (Shard shard : shards) {
+            size += shard.entries.size();
+        }
+        return size;
+    }
+
+    private Shard shard(UUID id) {
+        int hash = id.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    private void sweepNext(long now) {
+        Shard shard = shards[nextSweep.getAndIncrement() & mask];
+        long due = shard.nextSweepAt.get();
+        if (now >= due && shard.nextSweepAt.compareAndSet(due, now + SWEEP_INTERVAL_MILLIS)) {
+            shard.entries.values().removeIf(expiresAt -> expiresAt <= now);
+        }
+    }
+
+    private static final class Shard {
+
+        private final ConcurrentHashMap<UUID, Long> entries = new ConcurrentHashMap<>();
+        private final AtomicLong nextSweepAt = new AtomicLong();
+    }
+}
@@ -0,0 +1,357 @@
+package com.buyukozkan.boilerplate.security;
+
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Signer and verifier for the one token shape this service issues:
+ * header {@code {"alg":"HS256"}} and claims {@code sub}, {@code authorities}, {@code iat}, {@code exp}.
+ * It produces the same header and claim layout as jjwt, reuses pooled {@link Mac} instances and
+ * compares signatures in constant time.
+ * <p>
+ * {@link #verify(String)} returns {@code null} for anything outside that shape (other headers,
+ * extra claims, expired tokens, unusual JSON) so the caller can hand the token to jjwt, which
+ * then produces the exact same result or exception it always did.
+ */
+public final class Hs256TokenCodec {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64URL_DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = BASE64URL.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.US_ASCII));
+    private static final byte[] HEADER_BYTES = HEADER.getBytes(StandardCharsets.US_ASCII);
+
+    private final SecretKeySpec key;
+    private final BlockingQueue<Mac> macs;
+
+    public Hs256TokenCodec(byte[] secret) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.macs = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public String sign(String subject, Collection<String> authorities, long issuedAtSeconds, long expiresAtSeconds) {
+        StringBuilder json = new StringBuilder(48 + subject.length() + authorities.size() * 24);
+        json.append("{\"sub\":");
+        appendString(json, subject);
+        json.append(",\"authorities\":[");
+        boolean first = true;
+        for (String authority : authorities) {
+            if (!first) {
+                json.append(',');
+            }
+            appendString(json, authority);
+            first = false;
+        }
+        json.append("],\"iat\":").append(issuedAtSeconds)
+                .append(",\"exp\":").append(expiresAtSeconds)
+                .append('}');
+
+        byte[] payload = BASE64URL.encode(json.toString().getBytes(StandardCharsets.UTF_8));
+        int signingInputLength = HEADER_BYTES.length + 1 + payload.length;
+        byte[] token = new byte[signingInputLength + 1 + 43];
+        System.arraycopy(HEADER_BYTES, 0, token, 0, HEADER_BYTES.length);
+        token[HEADER_BYTES.length] = '.';
+        System.arraycopy(payload, 0, token, HEADER_BYTES.length + 1, payload.length);
+
+        byte[] signature = BASE64URL.encode(mac(token, signingInputLength));
+        token[signingInputLength] = '.';
+        System.arraycopy(signature, 0, token, signingInputLength + 1, signature.length);
+        return new String(token, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @return the verified token, or {@code null} if the token is not in the fixed layout
+     * (or is expired) and must be verified by jjwt instead
+     * @throws SignatureException if the token is in the fixed layout but its signature does not match
+     */
+    public VerifiedToken verify(String token) {
+        int firstDot = HEADER.length();
+        if (token.length() <= firstDot || token.charAt(firstDot) != '.' || !token.startsWith(HEADER)) {
+            return null;
+        }
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0 || !isCanonicalSignature(token, secondDot + 1)) {
+            return null;
+        }
+
+        byte[] bytes = token.getBytes(StandardCharsets.ISO_8859_1);
+        final byte[] signature;
+        final byte[] payload;
+        try {
+            signature = BASE64URL_DECODER.decode(Arrays.copyOfRange(bytes, secondDot + 1, bytes.length));
+            payload = BASE64URL_DECODER.decode(Arrays.copyOfRange(bytes, firstDot + 1, secondDot));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        if (!MessageDigest.isEqual(mac(bytes, secondDot), signature)) {
+            throw new SignatureException("JWT signature does not match locally computed signature.");
+        }
+
+        Claims claims = Claims.parse(payload);
+        if (claims == null || claims.subject == null || claims.subject.isBlank() || claims.expiresAt == null) {
+            return null;
+        }
+        Instant expiresAt = Instant.ofEpochSecond(claims.expiresAt);
+        if (!expiresAt.isAfter(Instant.now())) {
+            return null;
+        }
+        return new VerifiedToken(claims.subject, expiresAt, claims.authorities);
+    }
+
+    /**
+     * 32 signature bytes take 43 base64url characters; the last one carries two unused bits that must be zero,
+     * otherwise several strings would decode to the same signature.
+     */
+    private static boolean isCanonicalSignature(String token, int start) {
+        if (token.length() - start != 43) {
+            return false;
+        }
+        char last = token.charAt(token.length() - 1);
+        int value;
+        if (last >= 'A' && last <= 'Z') {
+            value = last - 'A';
+        } else if (last >= 'a' && last <= 'z') {
+            value = last - 'a' + 26;
+        } else if (last >= '0' && last <= '9') {
+            value = last - '0' + 52;
+        } else if (last == '-') {
+            value = 62;
+        } else if (last == '_') {
+            value = 63;
+        } else {
+            return false;
+        }
+        return (value & 0b11) == 0;
+    }
+
+    private byte[] mac(byte[] input, int length) {
+        Mac mac = macs.poll();
+        try {
+            if (mac == null) {
+                mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+            }
+            mac.update(input, 0, length);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        } finally {
+            if (mac != null) {
+                macs.offer(mac);
+            }
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                case '\b' -> json.append("\\b");
+                case '\f' -> json.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Minimal reader for the fixed claim layout; returns {@code null} on anything else.
+     */
+    private static final class Claims {
+
+        private String subject;
+        private List<SimpleGrantedAuthority> authorities;
+        private Long issuedAt;
+        private Long expiresAt;
+
+        private final CharSequence json;
+        private int pos;
+
+        private Claims(CharSequence json) {
+            this.json = json;
+        }
+
+        static Claims parse(byte[] payload) {
+            final CharBuffer json;
+            try {
+                json = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(payload));
+            } catch (CharacterCodingException e) {
+                return null;
+            }
+            Claims claims = new Claims(json);
+            try {
+                return claims.readObject() ? claims : null;
+            } catch (IndexOutOfBoundsException e) {
+                return null;
+            }
+        }
+
+        private boolean readObject() {
+            skipWhitespace();
+            if (!consume('{')) {
+                return false;
+            }
+            skipWhitespace();
+            if (consume('}')) {
+                return atEnd();
+            }
+            do {
+                skipWhitespace();
+                String name = readString();
+                skipWhitespace();
+                if (name == null || !consume(':')) {
+                    return false;
+                }
+                skipWhitespace();
+                boolean read = switch (name) {
+                    case "sub" -> subject == null && (subject = readString()) != null;
+                    case "authorities" -> authorities == null && (authorities = readAuthorities()) != null;
+                    case "iat" -> issuedAt == null && (issuedAt = readLong()) != null;
+                    case "exp" -> expiresAt == null && (expiresAt = readLong()) != null;
+                    default -> false;
+                };
+                if (!read) {
+                    return false;
+                }
+                skipWhitespace();
+            } while (consume(','));
+            return consume('}') && atEnd();
+        }
+
+        private List<SimpleGrantedAuthority> readAuthorities() {
+            if (!consume('[')) {
+                return null;
+            }
+            List<SimpleGrantedAuthority> result = new ArrayList<>();
+            skipWhitespace();
+            if (consume(']')) {
+                return result;
+            }
+            do {
+                skipWhitespace();
+                String authority = readString();
+                if (authority == null) {
+                    return null;
+                }
+                if (!authority.isBlank()) {
+                    result.add(AuthorityInterner.role(authority));
+                }
+                skipWhitespace();
+            } while (consume(','));
+            return consume(']') ? result : null;
+        }
+
+        private String readString() {
+            if (!consume('"')) {
+                return null;
+            }
+            StringBuilder value = null;
+            int start = pos;
+            while (true) {
+                char c = json.charAt(pos++);
+                if (c == '"') {
+                    return value == null
+                            ? json.subSequence(start, pos - 1).toString()
+                            : value.append(json, start, pos - 1).toString();
+                }
+                if (c < 0x20) {
+                    return null;
+                }
+                if (c == '\\') {
+                    if (value == null) {
+                        value = new StringBuilder();
+                    }
+                    value.append(json, start, pos - 1);
+                    char escaped = json.charAt(pos++);
+                    switch (escaped) {
+                        case '"', '\\', '/' -> value.append(escaped);
+                        case 'b' -> value.append('\b');
+                        case 'f' -> value.append('\f');
+                        case 'n' -> value.append('\n');
+                        case 'r' -> value.append('\r');
+                        case 't' -> value.append('\t');
+                        case 'u' -> {
+                            int code = 0;
+                            for (int i = 0; i < 4; i++) {
+                                int digit = Character.digit(json.charAt(pos++), 16);
+                                if (digit < 0) {
+                                    return null;
+                                }
+                                code = (code << 4) | digit;
+                            }
+                            value.append((char) code);
+                        }
+                        default -> {
+                            return null;
+                        }
+                    }
+                    start = pos;
+                }
+            }
+        }
+
+        private Long readLong() {
+            int start = pos;
+            while (pos < json.length() && json.charAt(pos) >= '0' && json.charAt(pos) <= '9') {
+                pos++;
+            }
+            int length = pos - start;
+            if (length == 0 || length > 18) {
+                return null;
+            }
+            if (pos < json.length() && (json.charAt(pos) == '.' || json.charAt(pos) == 'e' || json.charAt(pos) == 'E')) {
+                return null;
+            }
+            return Long.parseLong(json, start, pos, 10);
+        }
+
+        private boolean consume(char expected) {
+            if (pos < json.length() && json.charAt(pos) == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (pos < json.length()) {
+                char c = json.charAt(pos);
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        private boolean atEnd() {
+            skipWhitespace();
+            return pos == json.length();
+        }
+    }
+}
@@ -1,14 +1,17 @@
 package com.buyukozkan.boilerplate.security;
 
+import com.buyukozkan.boilerplate.security.AuthMetrics.TokenOutcome;
 import com.buyukozkan.boilerplate.service.JwtService;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.lang.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -17,11 +20,25 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final AuthorityMasks authorityMasks;
+    private final AuthMetrics authMetrics;
+
+    // Failures are counted per outcome in auth.token.verify; the log only needs a sample
+    @Value("${security.token-failure-log.permits-per-second:1}")
+    private int failureLogPermitsPerSecond = 1;
+
+    private LogSampler failureLog;
+
+    @PostConstruct
+    void init() {
+        failureLog = new LogSampler(failureLogPermitsPerSecond);
+    }
 
     @Override
     protected void doFilterInternal(
@@ -30,31 +47,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
 
+        final long start = System.nanoTime();
         final String authHeader = request.getHeader("Authorization");
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            authMetrics.recordFilter(TokenOutcome.MISSING, start);
             filterChain.doFilter(request, response);
             return;
         }
 
+        TokenOutcome outcome = TokenOutcome.VALID;
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(jwt);
-
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if (jwtService.isTokenValid(jwt)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userEmail,
-                            null,
-                            jwtService.extractAuthorities(jwt)
+
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                final VerifiedToken token = jwtService.verify(jwt);
+                if (token.isExpired()) {
+                    outcome = TokenOutcome.EXPIRED;
+                } else {
+                    MaskedAuthenticationToken authToken = new MaskedAuthenticationToken(
+                            token.subject(),
+                            token.authorities(),
+                            authorityMasks.maskOf(token.authorities())
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
             }
         } catch (Exception e) {
-            log.warn("JWT authentication failed: {}", e.getMessage());
+            outcome = TokenOutcome.of(e);
+            logFailure(e);
         }
+        authMetrics.recordFilter(outcome, start);
 
         filterChain.doFilter(request, response);
     }
+
+    private void logFailure(Exception e) {
+        long suppressed = failureLog.sample();
+        if (suppressed == 0) {
+            log.warn("JWT authentication failed: {}", e.getMessage());
+        } else if (suppressed > 0) {
+            log.warn("JWT authentication failed: {} ({} similar failures not logged)", e.getMessage(), suppressed);
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package com.buyukozkan.boilerplate.security;
+
+import com.buyukozkan.boilerplate.security.AuthMetrics.TokenOutcome;
+import com.buyukozkan.boilerplate.service.JwtService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link JwtAuthenticationFilter} for the reactive stack. Verification is CPU-only (and mostly
+ * a cache hit), so it runs on the event loop. Not a bean: WebFlux would also register it
+ * outside the security chain.
+ */
+@Slf4j
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private final JwtService jwtService;
+    private final AuthorityMasks authorityMasks;
+    private final AuthMetrics authMetrics;
+    private final LogSampler failureLog;
+
+    public JwtAuthenticationWebFilter(JwtService jwtService, AuthorityMasks authorityMasks, AuthMetrics authMetrics,
+                                      int failureLogPermitsPerSecond) {
+        this.jwtService = jwtService;
+        this.authorityMasks = authorityMasks;
+        this.authMetrics = authMetrics;
+        this.failureLog = new LogSampler(failureLogPermitsPerSecond);
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        final long start = System.nanoTime();
+        final String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            authMetrics.recordFilter(TokenOutcome.MISSING, start);
+            return chain.filter(exchange);
+        }
+
+        TokenOutcome outcome = TokenOutcome.VALID;
+        MaskedAuthenticationToken authToken = null;
+        try {
+            final VerifiedToken token = jwtService.verify(authHeader.substring(7));
+            if (token.isExpired()) {
+                outcome = TokenOutcome.EXPIRED;
+            } else {
+                authToken = new MaskedAuthenticationToken(
+                        token.subject(),
+                        token.authorities(),
+                        authorityMasks.maskOf(token.authorities())
+                );
+            }
+        } catch (Exception e) {
+            outcome = TokenOutcome.of(e);
+            logFailure(e);
+        }
+        authMetrics.recordFilter(outcome, start);
+
+        if (authToken == null) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authToken));
+    }
+
+    private void logFailure(Exception e) {
+        long suppressed = failureLog.sample();
+        if (suppressed == 0) {
+            log.warn("JWT authentication failed: {}", e.getMessage());
+        } else if (suppressed > 0) {
+            log.warn("JWT authentication failed: {} ({} similar failures not logged)", e.getMessage(), suppressed);
+        }
+    }
+}
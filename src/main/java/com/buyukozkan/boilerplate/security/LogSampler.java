@@ -0,0 +1,45 @@
+package com.buyukozkan.boilerplate.security;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lets through a fixed number of log lines per second and counts the rest, so a flood of
+ * identical failures costs a counter increment each instead of a log line each. The first
+ * line let through after a suppressed stretch reports how many were dropped.
+ */
+class LogSampler {
+
+    private final int permitsPerSecond;
+    private final LongSupplier clock;
+    private final AtomicLong second = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger logged = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    LogSampler(int permitsPerSecond) {
+        this(permitsPerSecond, System::currentTimeMillis);
+    }
+
+    LogSampler(int permitsPerSecond, LongSupplier clock) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.clock = clock;
+    }
+
+    /**
+     * @return {@code -1} if this line should be dropped, otherwise the number of lines dropped
+     *         since the last one let through
+     */
+    long sample() {
+        long now = clock.getAsLong() / 1000;
+        long current = second.get();
+        if (now != current && second.compareAndSet(current, now)) {
+            logged.set(0);
+        }
+        if (logged.incrementAndGet() > permitsPerSecond) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
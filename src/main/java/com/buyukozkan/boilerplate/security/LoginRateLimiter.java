@@ -0,0 +1,149 @@
+package com.buyukozkan.boilerplate.security;
+
+import com.buyukozkan.boilerplate.exception.RateLimitExceededException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.NonNull;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket throttling for the unauthenticated auth endpoints, keyed by client address and
+ * by normalized email. Each bucket is a single {@link AtomicLong} updated with a CAS loop
+ * (generic cell rate algorithm), held in bounded Caffeine maps that forget idle keys once
+ * their bucket would have refilled anyway. A check is a hash lookup and a CAS, so rejected
+ * attempts never reach the password encoder or the database.
+ */
+public class LoginRateLimiter implements MeterBinder {
+
+    public record Limit(int capacity, Duration period) {
+
+        public Limit {
+            if (capacity < 1 || period.isNegative() || period.isZero()) {
+                throw new IllegalArgumentException("Rate limit needs a positive capacity and period");
+            }
+        }
+    }
+
+    private final boolean enabled;
+    private final LongSupplier nanoClock;
+    private final long origin;
+
+    private final Buckets loginClient;
+    private final Buckets loginAccount;
+    private final Buckets refreshClient;
+
+    public LoginRateLimiter(boolean enabled, Limit loginPerClient, Limit loginPerAccount,
+                            Limit refreshPerClient, long maxTrackedKeys) {
+        this(enabled, loginPerClient, loginPerAccount, refreshPerClient, maxTrackedKeys, System::nanoTime);
+    }
+
+    LoginRateLimiter(boolean enabled, Limit loginPerClient, Limit loginPerAccount,
+                     Limit refreshPerClient, long maxTrackedKeys, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.nanoClock = nanoClock;
+        // Times are relative to construction, so a new bucket (0) is always full
+        this.origin = nanoClock.getAsLong();
+        this.loginClient = new Buckets(loginPerClient, maxTrackedKeys);
+        this.loginAccount = new Buckets(loginPerAccount, maxTrackedKeys);
+        this.refreshClient = new Buckets(refreshPerClient, maxTrackedKeys);
+    }
+
+    /**
+     * Consumes one login attempt for the client and the account.
+     *
+     * @throws RateLimitExceededException if either bucket is empty
+     */
+    public void checkLogin(String clientAddress, String email) {
+        if (!enabled) {
+            return;
+        }
+        long now = now();
+        loginClient.acquire(clientAddress, now);
+        loginAccount.acquire(normalize(email), now);
+    }
+
+    /**
+     * Consumes one refresh attempt for the client.
+     *
+     * @throws RateLimitExceededException if the bucket is empty
+     */
+    public void checkRefresh(String clientAddress) {
+        if (!enabled) {
+            return;
+        }
+        refreshClient.acquire(clientAddress, now());
+    }
+
+    private long now() {
+        return nanoClock.getAsLong() - origin;
+    }
+
+    static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        loginClient.bindTo(registry, "login", "client");
+        loginAccount.bindTo(registry, "login", "account");
+        refreshClient.bindTo(registry, "refresh", "client");
+    }
+
+    private static final class Buckets {
+
+        private final long emissionInterval;
+        private final long burstTolerance;
+        private final Cache<String, AtomicLong> buckets;
+        private final LongAdder rejected = new LongAdder();
+
+        Buckets(Limit limit, long maxTrackedKeys) {
+            long period = limit.period().toNanos();
+            this.emissionInterval = period / limit.capacity();
+            this.burstTolerance = period - emissionInterval;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxTrackedKeys)
+                    .expireAfterAccess(period, TimeUnit.NANOSECONDS)
+                    .build();
+        }
+
+        void acquire(String key, long now) {
+            AtomicLong theoreticalArrival = buckets.get(key, k -> new AtomicLong());
+            while (true) {
+                long current = theoreticalArrival.get();
+                long base = Math.max(current, now);
+                long allowedAt = base - burstTolerance;
+                if (now < allowedAt) {
+                    rejected.increment();
+                    throw new RateLimitExceededException(
+                            Math.max(1, TimeUnit.NANOSECONDS.toSeconds(allowedAt - now + 999_999_999)));
+                }
+                if (theoreticalArrival.compareAndSet(current, base + emissionInterval)) {
+                    return;
+                }
+            }
+        }
+
+        void bindTo(MeterRegistry registry, String endpoint, String scope) {
+            FunctionCounter.builder("auth.throttle.rejected", this, b -> b.rejected.sum())
+                    .description("Auth requests rejected by the rate limiter")
+                    .tag("endpoint", endpoint)
+                    .tag("scope", scope)
+                    .register(registry);
+            Gauge.builder("auth.throttle.tracked.keys", buckets, Cache::estimatedSize)
+                    .description("Rate limiter buckets currently held in memory")
+                    .tag("endpoint", endpoint)
+                    .tag("scope", scope)
+                    .register(registry);
+        }
+    }
+}
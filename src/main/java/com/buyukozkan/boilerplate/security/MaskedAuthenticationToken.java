@@ -0,0 +1,24 @@
+package com.buyukozkan.boilerplate.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Authenticated token that carries the {@link AuthorityMasks} mask of its authorities.
+ */
+public class MaskedAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    private final long[] authorityMask;
+
+    public MaskedAuthenticationToken(Object principal, Collection<? extends GrantedAuthority> authorities,
+                                     long[] authorityMask) {
+        super(principal, null, authorities);
+        this.authorityMask = authorityMask;
+    }
+
+    long[] getAuthorityMask() {
+        return authorityMask;
+    }
+}
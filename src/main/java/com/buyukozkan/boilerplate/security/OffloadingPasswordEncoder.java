@@ -0,0 +1,177 @@
+package com.buyukozkan.boilerplate.security;
+
+import com.buyukozkan.boilerplate.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.NonNull;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs every hash and verification of the delegate on a fixed pool with a bounded queue,
+ * so expensive password work can never occupy more than {@code poolSize} cores and
+ * callers beyond the queue capacity are rejected immediately instead of piling up.
+ */
+public class OffloadingPasswordEncoder implements PasswordEncoder, MeterBinder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile Timer encodeTimer;
+    private volatile Timer matchesTimer;
+
+    public OffloadingPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, long retryAfterSeconds) {
+        this.delegate = delegate;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), () -> encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), () -> matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * {@link #encode} for callers that must not block, such as the reactive stack; same pool and queue.
+     *
+     * @throws PasswordHashingRejectedException if the queue is full
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return submitAsync(() -> delegate.encode(rawPassword), () -> encodeTimer);
+    }
+
+    /**
+     * {@link #matches} for callers that must not block; same pool and queue.
+     *
+     * @throws PasswordHashingRejectedException if the queue is full
+     */
+    public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+        return submitAsync(() -> delegate.matches(rawPassword, encodedPassword), () -> matchesTimer);
+    }
+
+    private <T> CompletableFuture<T> submitAsync(Supplier<T> work, Supplier<Timer> workTimer) {
+        final long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> timed(work, workTimer, enqueuedAt), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException(retryAfterSeconds);
+        }
+    }
+
+    private <T> T submit(Supplier<T> work, Supplier<Timer> workTimer) {
+        final long enqueuedAt = System.nanoTime();
+        final Future<T> future;
+        try {
+            future = executor.submit(() -> timed(work, workTimer, enqueuedAt));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException(retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private <T> T timed(Supplier<T> work, Supplier<Timer> workTimer, long enqueuedAt) {
+        final long startedAt = System.nanoTime();
+        waitNanos.add(startedAt - enqueuedAt);
+        waitCount.increment();
+        try {
+            return work.get();
+        } finally {
+            Timer timer = workTimer.get();
+            if (timer != null) {
+                timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("auth.password.hashing.queue.depth", this, OffloadingPasswordEncoder::queueDepth)
+                .description("Password hashing tasks waiting for a worker")
+                .register(registry);
+        Gauge.builder("auth.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running")
+                .register(registry);
+        FunctionTimer.builder("auth.password.hashing.wait", this,
+                        encoder -> encoder.waitCount.sum(),
+                        encoder -> encoder.waitNanos.sum(),
+                        TimeUnit.NANOSECONDS)
+                .description("Time password hashing tasks spend queued before a worker picks them up")
+                .register(registry);
+        encodeTimer = hashingTimer(registry, "encode");
+        matchesTimer = hashingTimer(registry, "matches");
+        FunctionCounter.builder("auth.password.hashing.rejected", this, encoder -> encoder.rejected.sum())
+                .description("Password hashing tasks rejected because the queue was full")
+                .register(registry);
+    }
+
+    private static Timer hashingTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("auth.password.hashing.duration")
+                .description("Time a worker spends hashing or verifying a password")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.buyukozkan.boilerplate.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Finds the largest work factor whose hash stays within a latency budget on this machine.
+ * Every step of {@code next} is expected to roughly double the cost, so a step is only measured
+ * when the previous one took at most half the budget and calibration costs about twice the
+ * budget per sample.
+ */
+public final class PasswordHashCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-Password-1";
+
+    public record Measurement(int workFactor, Duration latency) {
+    }
+
+    /**
+     * @param workFactor   the chosen work factor; {@code min} even when that alone exceeds the budget
+     * @param measurements every measured work factor, cheapest first
+     */
+    public record Result(int workFactor, List<Measurement> measurements) {
+    }
+
+    private PasswordHashCalibrator() {
+    }
+
+    /**
+     * @param encoderFor encoder hashing with the given work factor
+     * @param next       the next, about twice as expensive work factor
+     * @param samples    hashes per work factor; the median is compared to the budget
+     */
+    public static Result calibrate(IntFunction<PasswordEncoder> encoderFor, IntUnaryOperator next,
+                                   int min, int max, Duration target, int samples) {
+        List<Measurement> measurements = new ArrayList<>();
+        int chosen = min;
+        int workFactor = min;
+        while (true) {
+            Duration latency = measure(encoderFor.apply(workFactor), samples);
+            measurements.add(new Measurement(workFactor, latency));
+            if (latency.compareTo(target) > 0 && workFactor != min) {
+                break;
+            }
+            chosen = workFactor;
+            int nextWorkFactor = next.applyAsInt(workFactor);
+            if (nextWorkFactor > max || latency.multipliedBy(2).compareTo(target) > 0) {
+                break;
+            }
+            workFactor = nextWorkFactor;
+        }
+        return new Result(chosen, List.copyOf(measurements));
+    }
+
+    static Duration measure(PasswordEncoder encoder, int samples) {
+        // The first hash also pays for class loading and a cold JIT
+        encoder.encode(SAMPLE_PASSWORD);
+        long[] nanos = new long[Math.max(1, samples)];
+        for (int i = 0; i < nanos.length; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return Duration.ofNanos(nanos[nanos.length / 2]);
+    }
+}
@@ -0,0 +1,23 @@
+package com.buyukozkan.boilerplate.security;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A verified refresh token: {@code tokenId} is its {@code jti}, {@code familyId} the login
+ * session it was rotated within.
+ */
+public record RefreshToken(
+        String subject,
+        UUID familyId,
+        UUID tokenId,
+        Instant expiresAt,
+        List<SimpleGrantedAuthority> authorities
+) {
+    public RefreshToken {
+        authorities = List.copyOf(authorities);
+    }
+}
@@ -0,0 +1,77 @@
+package com.buyukozkan.boilerplate.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * How access tokens are signed. {@link #HS256} uses the shared {@code jwt.secret}; the
+ * asymmetric ones use rotating key pairs whose public halves are published as a JWKS, so
+ * other services can verify tokens without the secret. Refresh tokens are always HS256.
+ */
+public enum SigningAlgorithm {
+
+    HS256("HS256", null, null),
+    ES256("ES256", "EC", Jwts.SIG.ES256),
+    /** Ed25519 */
+    EDDSA("EdDSA", "EdDSA", Jwts.SIG.EdDSA);
+
+    private final String jwsName;
+    private final String keyFactoryAlgorithm;
+    private final SignatureAlgorithm jws;
+
+    SigningAlgorithm(String jwsName, String keyFactoryAlgorithm, SignatureAlgorithm jws) {
+        this.jwsName = jwsName;
+        this.keyFactoryAlgorithm = keyFactoryAlgorithm;
+        this.jws = jws;
+    }
+
+    /**
+     * @return the {@code alg} header value
+     */
+    public String jwsName() {
+        return jwsName;
+    }
+
+    public SignatureAlgorithm jws() {
+        return jws;
+    }
+
+    public boolean isAsymmetric() {
+        return jws != null;
+    }
+
+    public KeyPair generateKeyPair() {
+        return switch (this) {
+            case ES256 -> Jwts.SIG.ES256.keyPair().build();
+            // Jwts.SIG.EdDSA alone would generate Ed448 keys, which fewer verifiers support
+            case EDDSA -> Jwks.CRV.Ed25519.keyPair().build();
+            case HS256 -> throw new IllegalStateException("HS256 signs with jwt.secret, not with a key pair");
+        };
+    }
+
+    public PublicKey publicKey(byte[] x509) throws GeneralSecurityException {
+        return KeyFactory.getInstance(keyFactoryAlgorithm).generatePublic(new X509EncodedKeySpec(x509));
+    }
+
+    public PrivateKey privateKey(byte[] pkcs8) throws GeneralSecurityException {
+        return KeyFactory.getInstance(keyFactoryAlgorithm).generatePrivate(new PKCS8EncodedKeySpec(pkcs8));
+    }
+
+    public static SigningAlgorithm ofJwsName(String jwsName) {
+        for (SigningAlgorithm algorithm : values()) {
+            if (algorithm.jwsName.equals(jwsName)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown signing algorithm: " + jwsName);
+    }
+}
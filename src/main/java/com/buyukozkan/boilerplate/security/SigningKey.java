@@ -0,0 +1,34 @@
+package com.buyukozkan.boilerplate.security;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One asymmetric key pair of the key ring.
+ *
+ * @param kid           RFC 7638 thumbprint of the public key, sent as the {@code kid} header
+ * @param jwk           the public key as published in the JWKS
+ * @param encodedHeader base64url header of tokens signed with this key, for {@link TokenPrecheck}
+ */
+public record SigningKey(
+        String kid,
+        SigningAlgorithm algorithm,
+        PrivateKey privateKey,
+        PublicKey publicKey,
+        Instant activatesAt,
+        Map<String, Object> jwk,
+        String encodedHeader
+) {
+    public SigningKey {
+        // Sorted, so every node serializes the same JWKS and hands out the same ETag
+        jwk = Collections.unmodifiableMap(new TreeMap<>(jwk));
+    }
+
+    public boolean isActiveAt(Instant instant) {
+        return !activatesAt.isAfter(instant);
+    }
+}
@@ -0,0 +1,104 @@
+package com.buyukozkan.boilerplate.security;
+
+import com.buyukozkan.boilerplate.security.AuthMetrics.TokenRejection;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Structural checks a bearer token has to pass before it is hashed for the cache or its
+ * signature is computed: a length cap, three non-empty base64url segments and a header naming
+ * an algorithm (and key id, if any) this service issues. Headers we produce ourselves are
+ * recognised by their encoded form without decoding; anything else is decoded and read once.
+ * A rejected token costs one pass over its characters.
+ */
+public final class TokenPrecheck {
+
+    private static final ObjectMapper HEADER_READER = new ObjectMapper();
+    private static final int MAX_HEADER_LENGTH = 256;
+
+    private final int maxLength;
+    private final Set<String> algorithms;
+    private final Set<String> keyIds;
+    private final Set<String> issuedHeaders;
+
+    /**
+     * @param keyIds accepted {@code kid} values; tokens without a {@code kid} are always accepted
+     */
+    public TokenPrecheck(int maxLength, Set<String> algorithms, Set<String> keyIds) {
+        this(maxLength, algorithms, keyIds, Set.of());
+    }
+
+    /**
+     * @param issuedHeaders encoded headers of tokens signed with a {@code kid}, recognised like
+     *                      the plain {@code {"alg":...}} ones
+     */
+    public TokenPrecheck(int maxLength, Set<String> algorithms, Set<String> keyIds, Set<String> issuedHeaders) {
+        this.maxLength = maxLength;
+        this.algorithms = Set.copyOf(algorithms);
+        this.keyIds = Set.copyOf(keyIds);
+        this.issuedHeaders = Stream.concat(issuedHeaders.stream(), algorithms.stream()
+                        .map(algorithm -> Base64.getUrlEncoder().withoutPadding().encodeToString(
+                                ("{\"alg\":\"" + algorithm + "\"}").getBytes(StandardCharsets.US_ASCII))))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @return why the token cannot be one of ours, or {@code null} if it is worth verifying
+     */
+    public TokenRejection check(String token) {
+        int length = token.length();
+        if (length > maxLength) {
+            return TokenRejection.TOO_LONG;
+        }
+        int firstDot = -1;
+        int secondDot = -1;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (firstDot < 0) {
+                    firstDot = i;
+                } else if (secondDot < 0) {
+                    secondDot = i;
+                } else {
+                    return TokenRejection.MALFORMED;
+                }
+            } else if (!isBase64Url(c)) {
+                return TokenRejection.MALFORMED;
+            }
+        }
+        if (firstDot <= 0 || secondDot < 0 || secondDot == firstDot + 1 || secondDot == length - 1) {
+            return TokenRejection.MALFORMED;
+        }
+        return isKnownHeader(token.substring(0, firstDot)) ? null : TokenRejection.UNKNOWN_HEADER;
+    }
+
+    private boolean isKnownHeader(String encoded) {
+        if (issuedHeaders.contains(encoded)) {
+            return true;
+        }
+        if (encoded.length() > MAX_HEADER_LENGTH) {
+            return false;
+        }
+        try {
+            JsonNode header = HEADER_READER.readTree(Base64.getUrlDecoder().decode(encoded));
+            JsonNode algorithm = header.get("alg");
+            JsonNode keyId = header.get("kid");
+            return header.isObject()
+                    && algorithm != null && algorithm.isTextual() && algorithms.contains(algorithm.asText())
+                    && (keyId == null || keyId.isTextual() && keyIds.contains(keyId.asText()));
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isBase64Url(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+    }
+}
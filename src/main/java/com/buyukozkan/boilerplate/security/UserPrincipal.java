@@ -0,0 +1,35 @@
+package com.buyukozkan.boilerplate.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable login principal, built from one aggregated row instead of a managed {@code User}
+ * graph. The authorities are the shared sets of the role catalog, not per-login copies.
+ */
+public record UserPrincipal(UUID id, String email, String passwordHash, Set<GrantedAuthority> authorities)
+        implements UserDetails {
+
+    @Override
+    public Set<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return passwordHash;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal[id=" + id + ", email=" + email + ", authorities=" + authorities + "]";
+    }
+}
@@ -0,0 +1,28 @@
+package com.buyukozkan.boilerplate.security;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @param keyId the {@code kid} of the key ring entry the token was verified with, {@code null} for HS256
+ */
+public record VerifiedToken(
+        String subject,
+        Instant expiresAt,
+        List<SimpleGrantedAuthority> authorities,
+        String keyId
+) {
+    public VerifiedToken {
+        authorities = List.copyOf(authorities);
+    }
+
+    public VerifiedToken(String subject, Instant expiresAt, List<SimpleGrantedAuthority> authorities) {
+        this(subject, expiresAt, authorities, null);
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
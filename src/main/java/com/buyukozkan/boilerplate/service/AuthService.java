@@ -5,82 +5,152 @@ import com.buyukozkan.boilerplate.dto.LoginRequest;
 import com.buyukozkan.boilerplate.dto.RefreshTokenRequest;
 import com.buyukozkan.boilerplate.dto.RegisterRequest;
 import com.buyukozkan.boilerplate.entity.Role;
-import com.buyukozkan.boilerplate.entity.User;
 import com.buyukozkan.boilerplate.exception.DuplicateEmailException;
 import com.buyukozkan.boilerplate.exception.InvalidTokenException;
-import com.buyukozkan.boilerplate.repository.RoleRepository;
+import com.buyukozkan.boilerplate.exception.PasswordHashingRejectedException;
+import com.buyukozkan.boilerplate.repository.UserBulkRepository;
+import com.buyukozkan.boilerplate.repository.UserBulkRepository.NewUser;
 import com.buyukozkan.boilerplate.repository.UserRepository;
+import com.buyukozkan.boilerplate.security.AuthMetrics;
+import com.buyukozkan.boilerplate.security.AuthMetrics.LoginOutcome;
+import com.buyukozkan.boilerplate.security.RefreshToken;
+import com.buyukozkan.boilerplate.security.UserPrincipal;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final UserBulkRepository userBulkRepository;
+    private final RoleCatalog roleCatalog;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final AuthMetrics authMetrics;
+    private final EmailExistenceFilter emailExistenceFilter;
+    private final RefreshTokenStore refreshTokenStore;
 
-    @Transactional
+    /**
+     * Not transactional: the insert is a single statement, and the unique index on
+     * {@code lower(email)} rejects anything the existence check let through.
+     */
     public AuthResponse register(RegisterRequest request) {
-        if (userRepository.existsByEmail(request.email())) {
+        if (emailExistenceFilter.exists(request.email(), userRepository::existsByEmail)) {
             throw new DuplicateEmailException(request.email());
         }
 
-        Role userRole = roleRepository.findByNameWithPermissions("USER")
-                .orElseThrow(() -> new IllegalStateException(
-                        "Default role 'USER' not found. Run database migrations first."));
+        Role userRole = roleCatalog.defaultRole();
+        UUID userId = UUID.randomUUID();
 
-        User user = new User(
-                request.email(),
-                passwordEncoder.encode(request.password()),
-                Set.of(userRole)
-        );
-        userRepository.save(user);
+        try {
+            userBulkRepository.insert(new NewUser(
+                    userId,
+                    request.email(),
+                    passwordEncoder.encode(request.password()),
+                    List.of(userRole.getId())
+            ));
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateEmailException(request.email());
+        }
+        emailExistenceFilter.add(request.email());
 
-        return new AuthResponse(
-                jwtService.generateAccessToken(user),
-                jwtService.generateRefreshToken(user)
-        );
+        return startSession(userId, request.email(), userRole.getAuthorities());
     }
 
     public AuthResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.email(), request.password())
-        );
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        final long start = System.nanoTime();
+        final Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.email(), request.password())
+            );
+        } catch (RuntimeException e) {
+            authMetrics.recordLogin(loginOutcome(e), start);
+            throw e;
+        }
+        authMetrics.recordLogin(LoginOutcome.SUCCESS, start);
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
 
-        return new AuthResponse(
-                jwtService.generateAccessToken(userDetails),
-                jwtService.generateRefreshToken(userDetails)
-        );
+        return startSession(principal.id(), principal.getUsername(), principal.getAuthorities());
     }
 
+    /**
+     * Rotates the refresh token: the presented one is consumed and the response carries its
+     * successor in the same family. The token's roles are expanded again through the catalog
+     * rather than copying its authorities, so a permission taken away from a role is gone from
+     * the session at its next refresh.
+     */
     public AuthResponse refreshToken(RefreshTokenRequest request) {
-        String refreshToken = request.refreshToken();
+        RefreshToken refreshToken = verifyRefreshToken(request.refreshToken());
+        UUID nextTokenId = UUID.randomUUID();
+        refreshTokenStore.rotate(refreshToken, nextTokenId);
 
-        if (!jwtService.isTokenValid(refreshToken)) {
-            throw new InvalidTokenException();
-        }
+        String email = refreshToken.subject();
+        Set<GrantedAuthority> authorities = roleCatalog.currentAuthoritiesOf(refreshToken.authorities());
+        return new AuthResponse(
+                jwtService.generateAccessToken(email, authorities),
+                jwtService.generateRefreshToken(email, authorities, refreshToken.familyId(), nextTokenId)
+        );
+    }
+
+    /**
+     * Ends the session the refresh token belongs to; its access tokens stay valid until they expire.
+     */
+    public void logout(RefreshTokenRequest request) {
+        refreshTokenStore.revoke(verifyRefreshToken(request.refreshToken()).familyId());
+    }
 
-        String email = jwtService.extractUsername(refreshToken);
-        List<SimpleGrantedAuthority> authorities = jwtService.extractAuthorities(refreshToken);
+    /**
+     * Ends every session of the user.
+     *
+     * @return number of sessions that were active
+     */
+    public int logoutAll(String email) {
+        return refreshTokenStore.revokeAll(email);
+    }
 
+    private AuthResponse startSession(UUID userId, String email, Collection<? extends GrantedAuthority> authorities) {
+        UUID familyId = UUID.randomUUID();
+        UUID tokenId = UUID.randomUUID();
+        refreshTokenStore.startFamily(familyId, tokenId, userId);
         return new AuthResponse(
                 jwtService.generateAccessToken(email, authorities),
-                jwtService.generateRefreshToken(email, authorities)
+                jwtService.generateRefreshToken(email, authorities, familyId, tokenId)
         );
     }
+
+    private RefreshToken verifyRefreshToken(String token) {
+        try {
+            return jwtService.verifyRefreshToken(token);
+        } catch (JwtException e) {
+            throw new InvalidTokenException();
+        }
+    }
+
+    private static LoginOutcome loginOutcome(RuntimeException failure) {
+        if (failure instanceof InternalAuthenticationServiceException) {
+            return failure.getCause() instanceof PasswordHashingRejectedException
+                    ? LoginOutcome.REJECTED
+                    : LoginOutcome.ERROR;
+        }
+        return failure instanceof AuthenticationException ? LoginOutcome.BAD_CREDENTIALS : LoginOutcome.ERROR;
+    }
 }
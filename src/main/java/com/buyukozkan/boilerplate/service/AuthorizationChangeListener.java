@@ -0,0 +1,205 @@
+package com.buyukozkan.boilerplate.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the in-process authorization state of this node in line with changes made on any node.
+ * A dedicated connection (outside the pool) LISTENs on {@code authorization_changed}, fed by
+ * migration-installed triggers: changes to the catalog tables (V4) reload the {@link RoleCatalog},
+ * and revoked refresh token families (V5) reach the {@link RefreshTokenStore}, so a replayed or
+ * logged-out family is refused on every node.
+ * <p>
+ * Role assignments are not cached anywhere; logins read them from the database. {@code /refresh}
+ * expands the token's roles through the reloaded catalog, so a permission taken from a role is gone
+ * from every session at its next refresh. Removing or changing a user's roles revokes that user's
+ * refresh token families in the same transaction (V8), which arrives here as a family revocation. Access
+ * tokens already issued keep their authorities until they expire. Notifications sent while the
+ * connection is down are lost, so every (re)connect starts with a full reload.
+ */
+@Slf4j
+public class AuthorizationChangeListener implements MeterBinder, AutoCloseable {
+
+    static final String CHANNEL = "authorization_changed";
+
+    private static final String REFRESH_TOKEN_FAMILIES = "refresh_token_families";
+
+    private final DataSource listenerDataSource;
+    private final RoleCatalog roleCatalog;
+    private final RefreshTokenStore refreshTokenStore;
+    private final Duration pollInterval;
+    private final Duration reconnectDelay;
+
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder fullReloads = new LongAdder();
+    private volatile boolean connected;
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    public AuthorizationChangeListener(DataSource listenerDataSource, RoleCatalog roleCatalog,
+                                       RefreshTokenStore refreshTokenStore, Duration pollInterval,
+                                       Duration reconnectDelay) {
+        this.listenerDataSource = listenerDataSource;
+        this.roleCatalog = roleCatalog;
+        this.refreshTokenStore = refreshTokenStore;
+        this.pollInterval = pollInterval;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("authorization-listener").daemon().start(this::run);
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection listening = listenerDataSource.getConnection()) {
+                connection = listening;
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                connected = true;
+                log.info("Listening for authorization changes on '{}'", CHANNEL);
+                reloadAll();
+                listen(listening);
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("Authorization change listener lost its connection, reconnecting in {} ms: {}",
+                            reconnectDelay.toMillis(), e.getMessage());
+                }
+            } finally {
+                connected = false;
+                connection = null;
+            }
+            sleep(reconnectDelay);
+        }
+    }
+
+    private void listen(Connection listening) throws SQLException {
+        PGConnection pgConnection = listening.unwrap(PGConnection.class);
+        int timeout = Math.toIntExact(pollInterval.toMillis());
+        while (running) {
+            PGNotification[] received = pgConnection.getNotifications(timeout);
+            if (received == null || received.length == 0) {
+                // Quiet channel: make sure the connection is still alive so a dead one gets replaced
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                continue;
+            }
+            handle(Arrays.stream(received).map(PGNotification::getParameter).toList());
+        }
+    }
+
+    /**
+     * Applies one batch of payloads, reloading the catalog at most once however many catalog
+     * tables changed.
+     */
+    void handle(List<String> payloads) {
+        notifications.add(payloads.size());
+        boolean catalogChanged = false;
+        boolean revocationsChanged = false;
+        Set<UUID> revokedFamilies = new HashSet<>();
+        for (String payload : payloads) {
+            if (payload.equals(REFRESH_TOKEN_FAMILIES)) {
+                revocationsChanged = true;
+            } else if (payload.startsWith(REFRESH_TOKEN_FAMILIES + ":")) {
+                addIds(revokedFamilies, payload.substring(REFRESH_TOKEN_FAMILIES.length() + 1));
+            } else {
+                catalogChanged = true;
+            }
+        }
+
+        if (catalogChanged) {
+            roleCatalog.reload();
+        }
+        if (revocationsChanged) {
+            refreshTokenStore.reloadRevocations();
+        } else {
+            refreshTokenStore.revoked(revokedFamilies);
+        }
+        log.debug("Applied {} authorization change(s): catalog reloaded {}, revoked families {}",
+                payloads.size(), catalogChanged, revocationsChanged ? "all" : revokedFamilies.size());
+    }
+
+    void reloadAll() {
+        fullReloads.increment();
+        roleCatalog.reload();
+        refreshTokenStore.reloadRevocations();
+    }
+
+    private static void addIds(Set<UUID> ids, String commaSeparated) {
+        for (String id : commaSeparated.split(",")) {
+            ids.add(UUID.fromString(id));
+        }
+    }
+
+    private void sleep(Duration duration) {
+        if (!running) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("auth.invalidation.notifications", notifications, LongAdder::sum)
+                .description("Authorization change notifications received from Postgres")
+                .register(registry);
+        FunctionCounter.builder("auth.invalidation.full.reloads", fullReloads, LongAdder::sum)
+                .description("Full reloads of the authorization caches after (re)connecting")
+                .register(registry);
+        Gauge.builder("auth.invalidation.connected", this, listener -> listener.connected ? 1 : 0)
+                .description("Whether the authorization change listener is connected")
+                .register(registry);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Connection listening = connection;
+        if (listening != null) {
+            try {
+                // Unblocks getNotifications
+                listening.close();
+            } catch (SQLException e) {
+                log.debug("Closing the authorization listener connection failed", e);
+            }
+        }
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,303 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.entity.User;
+import com.buyukozkan.boilerplate.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over the normalized {@code users.email} that lets registration skip the existence query for
+ * emails that are definitely new. A miss is only an optimisation: the unique constraint stays
+ * the final check, so emails inserted while the filter is being built cannot cause duplicates.
+ * Until the first build completes every lookup goes to the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailExistenceFilter implements MeterBinder {
+
+    private static final long MIN_CAPACITY = 10_000;
+
+    private final UserRepository userRepository;
+    private final TransactionOperations transactionOperations;
+
+    @Value("${registration.email-filter.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${registration.email-filter.false-positive-rate:0.01}")
+    private double targetFalsePositiveRate = 0.01;
+
+    @Value("${registration.email-filter.max-memory:8MB}")
+    private DataSize maxMemory = DataSize.ofMegabytes(8);
+
+    private Executor rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "email-filter-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile BloomFilter filter;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Answers from the filter when the email is definitely unknown, otherwise asks the database.
+     */
+    public boolean exists(String email, Predicate<String> database) {
+        Lookup lookup = lookup(email);
+        if (lookup == Lookup.ABSENT) {
+            return false;
+        }
+        return answered(lookup, database.test(email));
+    }
+
+    /**
+     * {@link #exists(String, Predicate)} with a non-blocking database query.
+     */
+    public Mono<Boolean> existsAsync(String email, Function<String, Mono<Boolean>> database) {
+        Lookup lookup = lookup(email);
+        if (lookup == Lookup.ABSENT) {
+            return Mono.just(false);
+        }
+        return database.apply(email).map(exists -> answered(lookup, exists));
+    }
+
+    private enum Lookup { ABSENT, MAYBE_PRESENT, NOT_BUILT }
+
+    private Lookup lookup(String email) {
+        BloomFilter current = filter;
+        if (current == null) {
+            return Lookup.NOT_BUILT;
+        }
+        if (!current.mightContain(User.normalizeEmail(email))) {
+            misses.increment();
+            return Lookup.ABSENT;
+        }
+        hits.increment();
+        return Lookup.MAYBE_PRESENT;
+    }
+
+    private boolean answered(Lookup lookup, boolean exists) {
+        if (lookup == Lookup.MAYBE_PRESENT && !exists) {
+            falsePositives.increment();
+        }
+        return exists;
+    }
+
+    public void add(String email) {
+        BloomFilter current = filter;
+        if (current == null) {
+            return;
+        }
+        current.put(User.normalizeEmail(email));
+        if (current.expectedFalsePositiveRate() > 2 * targetFalsePositiveRate && !current.atMemoryLimit()) {
+            rebuildAsync();
+        }
+    }
+
+    private void rebuildAsync() {
+        if (rebuilding.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                try {
+                    rebuild();
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Sizes a new filter for twice the current row count and swaps it in once the table has been
+     * streamed into it. Emails registered during the scan may be missing, which the unique
+     * constraint covers.
+     */
+    synchronized void rebuild() {
+        long started = System.nanoTime();
+        long count = userRepository.count();
+        BloomFilter rebuilt = BloomFilter.create(Math.max(MIN_CAPACITY, 2 * count), targetFalsePositiveRate,
+                maxMemory.toBytes() * Byte.SIZE);
+        transactionOperations.executeWithoutResult(status -> {
+            try (Stream<String> emails = userRepository.streamAllEmails()) {
+                emails.map(User::normalizeEmail).forEach(rebuilt::put);
+            }
+        });
+        filter = rebuilt;
+        rebuilds.increment();
+        log.info("Email filter built for {} users: {} KB, {} hash functions, expected false-positive rate {} in {} ms",
+                count, rebuilt.sizeInBytes() / 1024, rebuilt.hashFunctions(),
+                String.format("%.4f", rebuilt.expectedFalsePositiveRate()), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (rebuildExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    public double observedFalsePositiveRate() {
+        long falsePositive = falsePositives.sum();
+        long negatives = misses.sum() + falsePositive;
+        return negatives == 0 ? 0 : (double) falsePositive / negatives;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("auth.email.filter.lookups", misses, LongAdder::sum)
+                .description("Registration email lookups answered by the filter")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("auth.email.filter.lookups", hits, LongAdder::sum)
+                .description("Registration email lookups answered by the filter")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("auth.email.filter.false.positives", falsePositives, LongAdder::sum)
+                .description("Filter hits the database reported as unknown emails")
+                .register(registry);
+        FunctionCounter.builder("auth.email.filter.rebuilds", rebuilds, LongAdder::sum)
+                .description("Times the filter was rebuilt from the users table")
+                .register(registry);
+        Gauge.builder("auth.email.filter.false.positive.rate", this, EmailExistenceFilter::observedFalsePositiveRate)
+                .description("Observed share of new emails that still needed a database lookup")
+                .register(registry);
+        Gauge.builder("auth.email.filter.false.positive.rate.expected", this,
+                        f -> f.filter == null ? Double.NaN : f.filter.expectedFalsePositiveRate())
+                .description("False-positive rate predicted from the filter's fill ratio")
+                .register(registry);
+        Gauge.builder("auth.email.filter.size", this, f -> f.filter == null ? 0 : f.filter.sizeInBytes())
+                .description("Memory used by the filter's bit array")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Lock-free Bloom filter with double hashing over one 64-bit hash.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashFunctions;
+        private final boolean atMemoryLimit;
+        private final LongAdder bitsSet = new LongAdder();
+
+        private BloomFilter(long bitCount, int hashFunctions, boolean atMemoryLimit) {
+            this.words = new AtomicLongArray(Math.toIntExact((bitCount + 63) / 64));
+            this.bitCount = words.length() * 64L;
+            this.hashFunctions = hashFunctions;
+            this.atMemoryLimit = atMemoryLimit;
+        }
+
+        static BloomFilter create(long expectedInsertions, double falsePositiveRate, long maxBits) {
+            double ln2 = Math.log(2);
+            long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+            long bits = Math.max(64, Math.min(optimalBits, maxBits));
+            int hashFunctions = (int) Math.max(1, Math.min(16, Math.round((double) bits / expectedInsertions * ln2)));
+            return new BloomFilter(bits, hashFunctions, bits < optimalBits);
+        }
+
+        boolean mightContain(String email) {
+            long hash = hash(email);
+            long h1 = hash;
+            long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(String email) {
+            long hash = hash(email);
+            long h1 = hash;
+            long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long word;
+                do {
+                    word = words.get(index);
+                    if ((word & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(index, word, word | mask));
+                if ((word & mask) == 0) {
+                    bitsSet.increment();
+                }
+            }
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow((double) bitsSet.sum() / bitCount, hashFunctions);
+        }
+
+        long sizeInBytes() {
+            return bitCount / Byte.SIZE;
+        }
+
+        int hashFunctions() {
+            return hashFunctions;
+        }
+
+        boolean atMemoryLimit() {
+            return atMemoryLimit;
+        }
+
+        /** FNV-1a over the UTF-16 code units, finished with the murmur3 mixer */
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xff51afd7ed558ccdL;
+            value ^= value >>> 33;
+            value *= 0xc4ceb9fe1a85ec53L;
+            value ^= value >>> 33;
+            return value;
+        }
+    }
+}
@@ -1,9 +1,30 @@
 package com.buyukozkan.boilerplate.service;
 
+import com.buyukozkan.boilerplate.security.AuthMetrics;
+import com.buyukozkan.boilerplate.security.AuthMetrics.TokenOutcome;
+import com.buyukozkan.boilerplate.security.AuthMetrics.TokenRejection;
+import com.buyukozkan.boilerplate.security.AuthMetrics.TokenType;
+import com.buyukozkan.boilerplate.security.AuthorityClaimCodec;
+import com.buyukozkan.boilerplate.security.AuthorityInterner;
+import com.buyukozkan.boilerplate.security.Hs256TokenCodec;
+import com.buyukozkan.boilerplate.security.RefreshToken;
+import com.buyukozkan.boilerplate.security.SigningKey;
+import com.buyukozkan.boilerplate.security.TokenPrecheck;
+import com.buyukozkan.boilerplate.security.VerifiedToken;
+import com.buyukozkan.boilerplate.security.VerifiedTokenCache;
+import com.buyukozkan.boilerplate.service.SigningKeyRing.KeySet;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
@@ -12,16 +33,33 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
 import java.util.Base64;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class JwtService {
 
+    /** Login session a refresh token belongs to; access tokens never carry it */
+    static final String FAMILY_CLAIM = "fam";
+
+    private final VerifiedTokenCache tokenCache;
+    private final AuthorityClaimCodec authorityClaimCodec;
+    private final AuthMetrics authMetrics;
+    private final SigningKeyRing signingKeys;
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -31,8 +69,31 @@ public class JwtService {
     @Value("${jwt.refresh-token-expiration}")
     private long refreshTokenExpiration;
 
+    @Value("${jwt.authorities-format:list}")
+    private AuthoritiesFormat authoritiesFormat = AuthoritiesFormat.LIST;
+
+    @Value("${jwt.fast-codec.enabled:false}")
+    private boolean fastCodecEnabled;
+
+    @Value("${jwt.max-token-length:4096}")
+    private int maxTokenLength = 4096;
+
     private SecretKey signingKey;
 
+    /** Refresh tokens, always HS256 */
+    private JwtParser parser;
+
+    /** Access tokens: {@link #parser} with HS256, the key ring's public keys otherwise */
+    private JwtParser accessParser;
+
+    private Hs256TokenCodec fastCodec;
+
+    private volatile Precheck precheck;
+
+    /** The pre-check follows the key ring, rebuilt whenever its key set is replaced */
+    private record Precheck(KeySet keys, TokenPrecheck check) {
+    }
+
     @PostConstruct
     public void init() {
         if (secret == null || secret.isBlank()) {
@@ -45,6 +106,22 @@ public class JwtService {
                 throw new IllegalStateException("JWT Secret must be at least 256 bits (32 bytes) long!");
             }
             this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+            this.parser = Jwts.parser()
+                    .verifyWith(signingKey)
+                    .build();
+            if (signingKeys.enabled()) {
+                this.accessParser = Jwts.parser()
+                        .keyLocator(this::verificationKey)
+                        .build();
+                if (fastCodecEnabled) {
+                    log.warn("jwt.fast-codec.enabled only applies to HS256 access tokens and is ignored");
+                }
+                this.fastCodec = null;
+            } else {
+                this.accessParser = parser;
+                this.fastCodec = fastCodecEnabled ? new Hs256TokenCodec(keyBytes) : null;
+            }
+            this.precheck = precheckFor(signingKeys.keys());
             log.info("JWT Signing Key initialized successfully.");
         } catch (IllegalArgumentException e) {
             throw new IllegalStateException("JWT Secret must be a valid Base64 encoded string!", e);
@@ -52,28 +129,61 @@ public class JwtService {
     }
 
     public String generateAccessToken(UserDetails userDetails) {
-        return buildToken(userDetails.getUsername(), toRoleStrings(userDetails.getAuthorities()), accessTokenExpiration);
+        return generateAccessToken(userDetails.getUsername(), userDetails.getAuthorities());
     }
 
-    public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(userDetails.getUsername(), toRoleStrings(userDetails.getAuthorities()), refreshTokenExpiration);
+    public String generateAccessToken(String email, Collection<? extends GrantedAuthority> authorities) {
+        final long start = System.nanoTime();
+        final String token = buildToken(email, authorities, accessTokenExpiration, null, null);
+        authMetrics.recordSign(TokenType.ACCESS, start);
+        return token;
     }
 
-    public String generateAccessToken(String email, List<? extends GrantedAuthority> authorities) {
-        return buildToken(email, toRoleStrings(authorities), accessTokenExpiration);
+    /**
+     * @param familyId the login session, kept across rotations
+     * @param tokenId  the {@code jti}, unique per issued refresh token
+     */
+    public String generateRefreshToken(String email, Collection<? extends GrantedAuthority> authorities,
+                                       UUID familyId, UUID tokenId) {
+        final long start = System.nanoTime();
+        final String token = buildToken(email, authorities, refreshTokenExpiration, familyId, tokenId);
+        authMetrics.recordSign(TokenType.REFRESH, start);
+        return token;
     }
 
-    public String generateRefreshToken(String email, List<? extends GrantedAuthority> authorities) {
-        return buildToken(email, toRoleStrings(authorities), refreshTokenExpiration);
-    }
+    private String buildToken(String email, Collection<? extends GrantedAuthority> authorities, long expiration,
+                              UUID familyId, UUID tokenId) {
+        final long now = System.currentTimeMillis();
+
+        Optional<Map<String, Object>> compact = authoritiesFormat == AuthoritiesFormat.BITSET
+                ? authorityClaimCodec.encode(authorities)
+                : Optional.empty();
+        // The fast codec only knows the access token layout
+        if (compact.isEmpty() && fastCodec != null && familyId == null) {
+            return fastCodec.sign(email, toRoleStrings(authorities), now / 1000, (now + expiration) / 1000);
+        }
+
+        JwtBuilder builder = Jwts.builder().subject(email);
+        if (familyId != null) {
+            builder.id(tokenId.toString()).claim(FAMILY_CLAIM, familyId.toString());
+        }
+        if (compact.isPresent()) {
+            builder.claim(AuthorityClaimCodec.CLAIM, compact.get());
+        } else {
+            builder.claim("authorities", toRoleStrings(authorities));
+        }
+
+        if (familyId == null && signingKeys.enabled()) {
+            final SigningKey key = signingKeys.keys().current();
+            builder.header().keyId(key.kid()).and()
+                    .signWith(key.privateKey(), key.algorithm().jws());
+        } else {
+            builder.signWith(signingKey, Jwts.SIG.HS256);
+        }
 
-    private String buildToken(String email, List<String> roles, long expiration) {
-        return Jwts.builder()
-                .subject(email)
-                .claim("authorities", roles)
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(signingKey, Jwts.SIG.HS256)
+        return builder
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
                 .compact();
     }
 
@@ -83,8 +193,109 @@ public class JwtService {
                 .toList();
     }
 
+    public VerifiedToken verify(String token) {
+        final long start = System.nanoTime();
+        final VerifiedToken verified;
+        try {
+            precheck(token);
+            verified = tokenCache.get(token, this::parseAndVerify, this::isKeyKnown);
+        } catch (RuntimeException e) {
+            authMetrics.recordVerify(TokenOutcome.of(e), start);
+            throw e;
+        }
+        authMetrics.recordVerify(verified.isExpired() ? TokenOutcome.EXPIRED : TokenOutcome.VALID, start);
+        return verified;
+    }
+
+    /**
+     * Verifies a refresh token without going through the access token cache; each refresh
+     * token is presented once. Expired tokens are rejected here rather than reported.
+     *
+     * @throws JwtException if the signature does not match, the token is expired or it is not a refresh token
+     */
+    public RefreshToken verifyRefreshToken(String token) {
+        final long start = System.nanoTime();
+        final RefreshToken verified;
+        try {
+            precheck(token);
+            final Claims claims = parser.parseSignedClaims(token).getPayload();
+            final String subject = claims.getSubject();
+            final Object family = claims.get(FAMILY_CLAIM);
+            if (subject == null || subject.isBlank() || claims.getId() == null || !(family instanceof String familyId)) {
+                throw new MalformedJwtException("Token is not a refresh token");
+            }
+            verified = new RefreshToken(subject, parseId(familyId), parseId(claims.getId()),
+                    claims.getExpiration().toInstant(), authoritiesOf(claims));
+        } catch (RuntimeException e) {
+            authMetrics.recordVerify(TokenOutcome.of(e), start);
+            throw e;
+        }
+        authMetrics.recordVerify(TokenOutcome.VALID, start);
+        return verified;
+    }
+
+    /**
+     * Turns away tokens that cannot be ours before they are hashed for the cache or parsed.
+     */
+    private void precheck(String token) {
+        final TokenRejection rejection = currentPrecheck().check(token);
+        if (rejection != null) {
+            authMetrics.recordRejected(rejection);
+            throw new RejectedTokenException(rejection);
+        }
+    }
+
+    private TokenPrecheck currentPrecheck() {
+        final KeySet keys = signingKeys.keys();
+        Precheck current = precheck;
+        if (current.keys() != keys) {
+            current = precheckFor(keys);
+            precheck = current;
+        }
+        return current.check();
+    }
+
+    private Precheck precheckFor(KeySet keys) {
+        final Set<String> algorithms = new HashSet<>(Set.of("HS256"));
+        keys.byKid().values().forEach(key -> algorithms.add(key.algorithm().jwsName()));
+        final Set<String> headers = keys.byKid().values().stream()
+                .map(SigningKey::encodedHeader)
+                .collect(Collectors.toSet());
+        return new Precheck(keys, new TokenPrecheck(maxTokenLength, algorithms, keys.byKid().keySet(), headers));
+    }
+
+    /**
+     * Whether the key a cached token was verified with is still in the ring; one removed early,
+     * before its grace period ran out, must stop authenticating the tokens it signed.
+     */
+    private boolean isKeyKnown(VerifiedToken verified) {
+        return verified.keyId() == null || signingKeys.keys().find(verified.keyId()) != null;
+    }
+
+    /**
+     * The public key named by the access token's {@code kid}; HS256 access tokens have none
+     * and are refused once the key ring signs.
+     */
+    private Key verificationKey(Header header) {
+        final SigningKey key = header instanceof ProtectedHeader protectedHeader
+                ? signingKeys.keys().find(protectedHeader.getKeyId())
+                : null;
+        if (key == null || !key.algorithm().jwsName().equals(header.getAlgorithm())) {
+            throw new MalformedJwtException("Token is not signed with a known signing key");
+        }
+        return key.publicKey();
+    }
+
+    private static UUID parseId(String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Token id is not a UUID", e);
+        }
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -93,19 +304,48 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        final VerifiedToken verified = verify(token);
+        return verified.subject().equals(userDetails.getUsername()) && !verified.isExpired();
     }
 
     public boolean isTokenValid(String token) {
-        final Claims claims = extractAllClaims(token);
+        return !verify(token).isExpired();
+    }
+
+    public List<SimpleGrantedAuthority> extractAuthorities(String token) {
+        return verify(token).authorities();
+    }
+
+    private VerifiedToken parseAndVerify(String token) {
+        if (fastCodec != null) {
+            final VerifiedToken verified = fastCodec.verify(token);
+            if (verified != null) {
+                return verified;
+            }
+        }
+
+        final Jws<Claims> jws = accessParser.parseSignedClaims(token);
+        final Claims claims = jws.getPayload();
         final String subject = claims.getSubject();
         final Date expiration = claims.getExpiration();
-        return subject != null && !subject.isBlank() && expiration != null && expiration.after(new Date());
+        if (subject == null || subject.isBlank() || expiration == null) {
+            throw new MalformedJwtException("Token must carry a subject and an expiration");
+        }
+        if (claims.get(FAMILY_CLAIM) != null) {
+            // A refresh token would otherwise authenticate requests for its whole lifetime, revoked or not
+            throw new MalformedJwtException("Refresh tokens cannot be used as access tokens");
+        }
+        return new VerifiedToken(subject, expiration.toInstant(), authoritiesOf(claims), jws.getHeader().getKeyId());
     }
 
-    public List<SimpleGrantedAuthority> extractAuthorities(String token) {
-        Object rolesClaim = extractClaim(token, claims -> claims.get("authorities"));
+    private List<SimpleGrantedAuthority> authoritiesOf(Claims claims) {
+        final Object compact = claims.get(AuthorityClaimCodec.CLAIM);
+        return compact != null
+                ? authorityClaimCodec.decode(compact)
+                : toAuthorities(claims.get("authorities"));
+    }
+
+    private List<SimpleGrantedAuthority> toAuthorities(Object rolesClaim) {
         if (!(rolesClaim instanceof List<?> roles)) {
             return List.of();
         }
@@ -114,24 +354,34 @@ public class JwtService {
                 .filter(String.class::isInstance)
                 .map(String.class::cast)
                 .filter(role -> !role.isBlank())
-                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
-                .map(SimpleGrantedAuthority::new)
+                .map(AuthorityInterner::role)
                 .toList();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Claims extractAllClaims(String token) {
+        return accessParser.parseSignedClaims(token).getPayload();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Thrown for every token failing the pre-check, so it skips the stack trace: these come in
+     * bulk from scanners and broken clients, and nobody reads their traces.
+     */
+    static final class RejectedTokenException extends MalformedJwtException {
+
+        RejectedTokenException(TokenRejection rejection) {
+            super("Token rejected before verification: " + rejection.name().toLowerCase(Locale.ROOT));
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(signingKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public enum AuthoritiesFormat {
+        /** {@code "authorities": ["ROLE_USER", "users:read"]} */
+        LIST,
+        /** {@code "authz": {"v": ..., "r": ..., "p": ...}}, see {@link AuthorityClaimCodec} */
+        BITSET
     }
 }
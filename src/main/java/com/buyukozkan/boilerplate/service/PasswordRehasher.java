@@ -0,0 +1,132 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.exception.PasswordHashingRejectedException;
+import com.buyukozkan.boilerplate.repository.UserBulkRepository;
+import com.buyukozkan.boilerplate.security.OffloadingPasswordEncoder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moves stored password hashes to the current algorithm and work factors after successful
+ * logins, without making the login wait for the write. Writes run on one background thread
+ * with a bounded queue; a rehash that does not fit is dropped and the next login retries it.
+ * A hash is only replaced if the row still holds the one the login was checked against.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordRehasher implements MeterBinder {
+
+    private final UserBulkRepository userBulkRepository;
+    private final OffloadingPasswordEncoder passwordEncoder;
+
+    @Value("${password-hashing.rehash.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    private ThreadPoolExecutor writer;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-rehash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues the write of a hash the caller has already computed, as the servlet stack's
+     * authentication provider does before calling {@link UserDetailsServiceImpl#updatePassword}.
+     */
+    public void replace(UUID userId, String currentHash, String newHash) {
+        try {
+            writer.execute(() -> write(userId, currentHash, newHash));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Rehashes on the password hashing pool and then queues the write, if the hash
+     * {@link OffloadingPasswordEncoder#upgradeEncoding needs upgrading}; nothing waits on either.
+     * Used by the reactive stack, which authenticates without an authentication provider.
+     */
+    public void rehashIfNeeded(UUID userId, String currentHash, CharSequence rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(currentHash)) {
+            return;
+        }
+        try {
+            passwordEncoder.encodeAsync(rawPassword)
+                    .whenComplete((newHash, e) -> {
+                        if (e != null) {
+                            failed.increment();
+                            log.warn("Rehashing the password of user {} failed: {}", userId, e.getMessage());
+                        } else {
+                            replace(userId, currentHash, newHash);
+                        }
+                    });
+        } catch (PasswordHashingRejectedException e) {
+            // Logins take precedence over upgrades
+            dropped.increment();
+        }
+    }
+
+    private void write(UUID userId, String currentHash, String newHash) {
+        try {
+            if (userBulkRepository.replacePasswordHash(userId, currentHash, newHash)) {
+                written.increment();
+            } else {
+                skipped.increment();
+            }
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Writing the rehashed password of user {} failed: {}", userId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        // written; skipped: the password changed meanwhile; dropped: a queue was full, the next login retries
+        rehashCounter(registry, written, "written");
+        rehashCounter(registry, skipped, "skipped");
+        rehashCounter(registry, dropped, "dropped");
+        rehashCounter(registry, failed, "failed");
+    }
+
+    private static void rehashCounter(MeterRegistry registry, LongAdder counter, String outcome) {
+        FunctionCounter.builder("auth.password.rehash", counter, LongAdder::sum)
+                .description("Password hashes moved to the current algorithm and work factors after a login")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,180 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.dto.AuthResponse;
+import com.buyukozkan.boilerplate.dto.LoginRequest;
+import com.buyukozkan.boilerplate.dto.RefreshTokenRequest;
+import com.buyukozkan.boilerplate.dto.RegisterRequest;
+import com.buyukozkan.boilerplate.entity.Role;
+import com.buyukozkan.boilerplate.exception.DuplicateEmailException;
+import com.buyukozkan.boilerplate.exception.InvalidTokenException;
+import com.buyukozkan.boilerplate.exception.PasswordHashingRejectedException;
+import com.buyukozkan.boilerplate.repository.ReactiveRefreshTokenRepository;
+import com.buyukozkan.boilerplate.repository.ReactiveUserRepository;
+import com.buyukozkan.boilerplate.repository.UserBulkRepository.NewUser;
+import com.buyukozkan.boilerplate.repository.UserPrincipalRepository.Credentials;
+import com.buyukozkan.boilerplate.security.AuthMetrics;
+import com.buyukozkan.boilerplate.security.AuthMetrics.LoginOutcome;
+import com.buyukozkan.boilerplate.security.OffloadingPasswordEncoder;
+import com.buyukozkan.boilerplate.security.RefreshToken;
+import com.buyukozkan.boilerplate.security.UserPrincipal;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * {@link AuthService} for the reactive stack. Database access goes through R2DBC and BCrypt
+ * through {@link OffloadingPasswordEncoder}'s bounded pool, so no event loop thread waits on
+ * either; a full hashing queue is answered with 503 exactly as on the servlet stack.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveAuthService {
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveRefreshTokenRepository refreshTokenRepository;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final RoleCatalog roleCatalog;
+    private final OffloadingPasswordEncoder passwordEncoder;
+    private final JwtService jwtService;
+    private final AuthMetrics authMetrics;
+    private final EmailExistenceFilter emailExistenceFilter;
+    private final RefreshTokenStore refreshTokenStore;
+    private final PasswordRehasher passwordRehasher;
+
+    // Unknown emails are checked against this hash so they take as long as a wrong password
+    private String userNotFoundPasswordHash;
+
+    @PostConstruct
+    void init() {
+        userNotFoundPasswordHash = passwordEncoder.encode("userNotFoundPassword");
+    }
+
+    /**
+     * Like {@link AuthService#register}, the unique index on {@code lower(email)} is the final check.
+     */
+    public Mono<AuthResponse> register(RegisterRequest request) {
+        return emailExistenceFilter.existsAsync(request.email(), userRepository::existsByEmail)
+                .flatMap(exists -> {
+                    if (exists) {
+                        return Mono.error(new DuplicateEmailException(request.email()));
+                    }
+                    Role userRole = roleCatalog.defaultRole();
+                    UUID userId = UUID.randomUUID();
+                    return Mono.defer(() -> Mono.fromFuture(passwordEncoder.encodeAsync(request.password())))
+                            .flatMap(passwordHash -> userRepository.insert(new NewUser(
+                                    userId,
+                                    request.email(),
+                                    passwordHash,
+                                    List.of(userRole.getId())
+                            )))
+                            .onErrorMap(DuplicateKeyException.class, e -> new DuplicateEmailException(request.email()))
+                            .then(Mono.defer(() -> {
+                                emailExistenceFilter.add(request.email());
+                                return startSession(userId, request.email(), userRole.getAuthorities());
+                            }));
+                });
+    }
+
+    public Mono<AuthResponse> login(LoginRequest request) {
+        final long start = System.nanoTime();
+        return userRepository.findCredentials(request.email())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(credentials -> {
+                    authMetrics.recordUserLookup(credentials.isPresent(), start);
+                    String passwordHash = credentials.map(Credentials::passwordHash).orElse(userNotFoundPasswordHash);
+                    return Mono.defer(() -> Mono.fromFuture(passwordEncoder.matchesAsync(request.password(), passwordHash)))
+                            .flatMap(matches -> matches && credentials.isPresent()
+                                    ? Mono.just(userDetailsService.principalOf(credentials.get()))
+                                    : Mono.<UserPrincipal>error(new BadCredentialsException("Bad credentials")))
+                            .doOnNext(principal -> passwordRehasher.rehashIfNeeded(
+                                    principal.id(), passwordHash, request.password()));
+                })
+                .doOnNext(principal -> authMetrics.recordLogin(LoginOutcome.SUCCESS, start))
+                .doOnError(e -> authMetrics.recordLogin(loginOutcome(e), start))
+                .flatMap(principal -> startSession(principal.id(), principal.getUsername(), principal.getAuthorities()));
+    }
+
+    /**
+     * Rotates the refresh token like {@link AuthService#refreshToken}. Runs off the event loop:
+     * rotation only touches memory unless the write queue is full or a replay revokes the
+     * family, and then it writes over JDBC.
+     */
+    public Mono<AuthResponse> refreshToken(RefreshTokenRequest request) {
+        return Mono.fromCallable(() -> {
+            RefreshToken refreshToken = verifyRefreshToken(request.refreshToken());
+            UUID nextTokenId = UUID.randomUUID();
+            refreshTokenStore.rotate(refreshToken, nextTokenId);
+
+            String email = refreshToken.subject();
+            Set<GrantedAuthority> authorities = roleCatalog.currentAuthoritiesOf(refreshToken.authorities());
+            return new AuthResponse(
+                    jwtService.generateAccessToken(email, authorities),
+                    jwtService.generateRefreshToken(email, authorities, refreshToken.familyId(), nextTokenId)
+            );
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Ends the session the refresh token belongs to; its access tokens stay valid until they expire.
+     */
+    public Mono<Void> logout(RefreshTokenRequest request) {
+        return Mono.fromCallable(() -> verifyRefreshToken(request.refreshToken()).familyId())
+                .flatMap(familyId -> refreshTokenRepository.revokeFamily(familyId, Instant.now())
+                        .then(Mono.fromRunnable(() -> refreshTokenStore.revoked(List.of(familyId)))));
+    }
+
+    /**
+     * Ends every session of the user.
+     *
+     * @return number of sessions that were active
+     */
+    public Mono<Integer> logoutAll(String email) {
+        return refreshTokenRepository.revokeFamiliesOf(email, Instant.now())
+                .collectList()
+                .map(familyIds -> {
+                    refreshTokenStore.revoked(familyIds);
+                    return familyIds.size();
+                });
+    }
+
+    private Mono<AuthResponse> startSession(UUID userId, String email, Collection<? extends GrantedAuthority> authorities) {
+        UUID familyId = UUID.randomUUID();
+        UUID tokenId = UUID.randomUUID();
+        return refreshTokenRepository.insertFamily(familyId, userId, RefreshTokenStore.hash(tokenId), refreshTokenStore.expiresAt())
+                .then(Mono.fromSupplier(() -> new AuthResponse(
+                        jwtService.generateAccessToken(email, authorities),
+                        jwtService.generateRefreshToken(email, authorities, familyId, tokenId)
+                )));
+    }
+
+    private RefreshToken verifyRefreshToken(String token) {
+        try {
+            return jwtService.verifyRefreshToken(token);
+        } catch (JwtException e) {
+            throw new InvalidTokenException();
+        }
+    }
+
+    private static LoginOutcome loginOutcome(Throwable failure) {
+        if (failure instanceof BadCredentialsException) {
+            return LoginOutcome.BAD_CREDENTIALS;
+        }
+        return failure instanceof PasswordHashingRejectedException ? LoginOutcome.REJECTED : LoginOutcome.ERROR;
+    }
+}
@@ -0,0 +1,263 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.exception.InvalidTokenException;
+import com.buyukozkan.boilerplate.repository.RefreshTokenRepository;
+import com.buyukozkan.boilerplate.repository.RefreshTokenRepository.Rotation;
+import com.buyukozkan.boilerplate.repository.RefreshTokenRepository.RotationResult;
+import com.buyukozkan.boilerplate.security.ExpiringIdSet;
+import com.buyukozkan.boilerplate.security.RefreshToken;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-side state for refresh token rotation. Every refresh token belongs to a family (one
+ * login); each {@code /refresh} consumes the presented token and issues the next one of the
+ * same family, and presenting a consumed token again revokes the family.
+ * <p>
+ * The request path only touches memory: revoked families and recently consumed tokens are
+ * held in {@link ExpiringIdSet}s, and rotations are queued and written in batches. The batch
+ * write is where replays across nodes are caught, as the database refuses to mark a token
+ * used twice; revocations reach the other nodes through {@link AuthorizationChangeListener}.
+ * A token replayed on another node before the batch is written still gets one rotation, whose
+ * tokens die with the family right after.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenStore implements MeterBinder {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jwt.refresh-token-expiration}")
+    private long refreshTokenExpiration;
+
+    @Value("${refresh-tokens.flush-interval:200ms}")
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    @Value("${refresh-tokens.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${refresh-tokens.queue-capacity:10000}")
+    private int queueCapacity = 10_000;
+
+    @Value("${refresh-tokens.reuse-window:1m}")
+    private Duration reuseWindow = Duration.ofMinutes(1);
+
+    @Value("${refresh-tokens.cleanup-interval:1h}")
+    private Duration cleanupInterval = Duration.ofHours(1);
+
+    private final ExpiringIdSet revokedFamilies = new ExpiringIdSet();
+    private final ExpiringIdSet usedTokens = new ExpiringIdSet();
+    private BlockingQueue<Rotation> pending;
+    private ScheduledExecutorService writer;
+
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder reusedInMemory = new LongAdder();
+    private final LongAdder reusedInDatabase = new LongAdder();
+    private final LongAdder revokedRejected = new LongAdder();
+    private final LongAdder synchronousWrites = new LongAdder();
+    private final LongAdder failedWrites = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        pending = new ArrayBlockingQueue<>(queueCapacity);
+        writer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("refresh-token-writer-"));
+        writer.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        writer.scheduleWithFixedDelay(this::deleteExpired, cleanupInterval.toMillis(), cleanupInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reloadRevocations() {
+        Duration lifetime = Duration.ofMillis(refreshTokenExpiration);
+        Map<UUID, Instant> revoked = refreshTokenRepository.findRevokedSince(Instant.now().minus(lifetime));
+        revoked.forEach((familyId, revokedAt) -> revokedFamilies.add(familyId, revokedAt.plus(lifetime)));
+        log.info("Loaded {} revoked refresh token families", revoked.size());
+    }
+
+    /**
+     * Records the first token of a new family; written synchronously so that revoking all
+     * sessions of a user right after a login also covers it.
+     */
+    public void startFamily(UUID familyId, UUID tokenId, UUID userId) {
+        refreshTokenRepository.insertFamily(familyId, userId, hash(tokenId), expiresAt());
+    }
+
+    /**
+     * Consumes {@code presented} and queues {@code nextTokenId} as its successor.
+     *
+     * @throws InvalidTokenException if the family is revoked or the token was already consumed,
+     *                               in which case the family is revoked now
+     */
+    public void rotate(RefreshToken presented, UUID nextTokenId) {
+        UUID familyId = presented.familyId();
+        if (revokedFamilies.contains(familyId)) {
+            revokedRejected.increment();
+            throw new InvalidTokenException();
+        }
+        if (!usedTokens.add(presented.tokenId(), Instant.now().plus(reuseWindow))) {
+            reusedInMemory.increment();
+            log.warn("Refresh token of family {} was presented twice, revoking the family", familyId);
+            revoke(familyId);
+            throw new InvalidTokenException();
+        }
+        rotations.increment();
+        Rotation rotation = new Rotation(familyId, hash(presented.tokenId()), presented.expiresAt(),
+                hash(nextTokenId), expiresAt());
+        if (!pending.offer(rotation)) {
+            // The writer is behind; this request pays for its own write instead of dropping it
+            synchronousWrites.increment();
+            apply(refreshTokenRepository.recordRotations(List.of(rotation)));
+        }
+    }
+
+    public void revoke(UUID familyId) {
+        Instant now = Instant.now();
+        refreshTokenRepository.revokeFamilies(List.of(familyId), now);
+        revoked(List.of(familyId), now);
+    }
+
+    /**
+     * Revokes every family of the user, i.e. logs out all sessions.
+     *
+     * @return number of sessions that were active
+     */
+    public int revokeAll(String email) {
+        Instant now = Instant.now();
+        List<UUID> familyIds = refreshTokenRepository.revokeFamiliesOf(email, now);
+        revoked(familyIds, now);
+        return familyIds.size();
+    }
+
+    /**
+     * Takes note of families revoked elsewhere, typically announced by another node.
+     */
+    public void revoked(Collection<UUID> familyIds) {
+        revoked(familyIds, Instant.now());
+    }
+
+    private void revoked(Collection<UUID> familyIds, Instant revokedAt) {
+        Instant forgetAt = revokedAt.plusMillis(refreshTokenExpiration);
+        familyIds.forEach(familyId -> revokedFamilies.add(familyId, forgetAt));
+    }
+
+    /**
+     * Writes the queued rotations in batches of {@code batchSize}.
+     */
+    void flush() {
+        List<Rotation> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            apply(refreshTokenRepository.recordRotations(batch));
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // The batch is lost: replays of its tokens on other nodes go unnoticed, nothing else
+            failedWrites.increment();
+            log.warn("Writing refresh token rotations failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(RotationResult result) {
+        if (!result.reused().isEmpty()) {
+            reusedInDatabase.add(result.reused().size());
+            log.warn("Refresh tokens of {} families were presented twice, revoking them", result.reused().size());
+            Instant now = Instant.now();
+            refreshTokenRepository.revokeFamilies(result.reused(), now);
+            revoked(result.reused(), now);
+        }
+        revoked(result.revoked());
+    }
+
+    private void deleteExpired() {
+        try {
+            int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+            log.debug("Deleted {} expired refresh tokens", deleted);
+        } catch (RuntimeException e) {
+            log.warn("Deleting expired refresh tokens failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writer.shutdown();
+        try {
+            if (writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                flushQuietly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    Instant expiresAt() {
+        return Instant.now().plusMillis(refreshTokenExpiration);
+    }
+
+    static byte[] hash(UUID tokenId) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(ByteBuffer.allocate(16)
+                    .putLong(tokenId.getMostSignificantBits())
+                    .putLong(tokenId.getLeastSignificantBits())
+                    .array());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("auth.refresh.rotations", rotations, LongAdder::sum)
+                .description("Refresh tokens consumed and replaced")
+                .register(registry);
+        FunctionCounter.builder("auth.refresh.reuse", reusedInMemory, LongAdder::sum)
+                .description("Replayed refresh tokens; each revokes its family")
+                .tag("detected", "memory")
+                .register(registry);
+        FunctionCounter.builder("auth.refresh.reuse", reusedInDatabase, LongAdder::sum)
+                .description("Replayed refresh tokens; each revokes its family")
+                .tag("detected", "database")
+                .register(registry);
+        FunctionCounter.builder("auth.refresh.revoked.rejected", revokedRejected, LongAdder::sum)
+                .description("Refresh attempts with a token of a revoked family")
+                .register(registry);
+        FunctionCounter.builder("auth.refresh.writes.synchronous", synchronousWrites, LongAdder::sum)
+                .description("Rotations written on the request thread because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("auth.refresh.writes.failed", failedWrites, LongAdder::sum)
+                .description("Rotation batches that could not be written")
+                .register(registry);
+        Gauge.builder("auth.refresh.writes.pending", this, store -> store.pending.size())
+                .description("Rotations waiting for the next batch write")
+                .register(registry);
+        Gauge.builder("auth.refresh.revoked.families", revokedFamilies, ExpiringIdSet::size)
+                .description("Revoked families held in memory, including expired ones not yet swept")
+                .register(registry);
+    }
+}
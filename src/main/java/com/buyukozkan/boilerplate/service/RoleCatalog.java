@@ -0,0 +1,114 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.entity.Role;
+import com.buyukozkan.boilerplate.repository.PermissionRepository;
+import com.buyukozkan.boilerplate.repository.RoleRepository;
+import com.buyukozkan.boilerplate.security.AuthorityInterner;
+import com.buyukozkan.boilerplate.security.AuthorityRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory snapshot of {@code roles}, {@code permissions} and {@code role_permissions}.
+ * The {@link Role} instances handed out are detached; use them only as references
+ * (e.g. when assigning a role to a new user), never modify them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoleCatalog {
+
+    public static final String DEFAULT_ROLE = "USER";
+
+    private static final int RETAINED_REGISTRY_VERSIONS = 4;
+
+    private final RoleRepository roleRepository;
+    private final PermissionRepository permissionRepository;
+
+    private volatile Map<String, Role> roles = Map.of();
+    private volatile AuthorityRegistry registry;
+    private volatile Map<Integer, AuthorityRegistry> registries = Map.of();
+
+    @PostConstruct
+    public synchronized void reload() {
+        List<Role> loaded = roleRepository.findAllWithPermissions();
+        loaded.forEach(Role::getAuthorities);
+        AuthorityRegistry loadedRegistry = AuthorityRegistry.of(loaded, permissionRepository.findAll());
+
+        this.roles = loaded.stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity()));
+        this.registries = retain(loadedRegistry);
+        this.registry = loadedRegistry;
+        log.info("Role catalog loaded: {} roles, registry version {}", loaded.size(), loadedRegistry.version());
+    }
+
+    private Map<Integer, AuthorityRegistry> retain(AuthorityRegistry latest) {
+        Map<Integer, AuthorityRegistry> retained = new LinkedHashMap<>(registries);
+        retained.remove(latest.version());
+        retained.put(latest.version(), latest);
+        while (retained.size() > RETAINED_REGISTRY_VERSIONS) {
+            retained.remove(retained.keySet().iterator().next());
+        }
+        return Collections.unmodifiableMap(retained);
+    }
+
+    public AuthorityRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * The registry a token was encoded against; older versions are kept for a few reloads
+     * so tokens issued before a role change still decode.
+     */
+    public Optional<AuthorityRegistry> registry(int version) {
+        return Optional.ofNullable(registries.get(version));
+    }
+
+    public Optional<Role> findRole(String name) {
+        return Optional.ofNullable(roles.get(name));
+    }
+
+    public Role defaultRole() {
+        return findRole(DEFAULT_ROLE)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Default role '" + DEFAULT_ROLE + "' not found. Run database migrations first."));
+    }
+
+    public Set<GrantedAuthority> authoritiesOf(String roleName) {
+        return findRole(roleName).map(Role::getAuthorities).orElse(Set.of());
+    }
+
+    /**
+     * The current authorities of the roles among {@code issued}, the authorities of an earlier
+     * token, so permissions changed since then are not carried over. Roles that no longer exist
+     * grant nothing; role assignments themselves are checked by revoking sessions (V8).
+     */
+    public Set<GrantedAuthority> currentAuthoritiesOf(Collection<? extends GrantedAuthority> issued) {
+        Set<GrantedAuthority> current = new HashSet<>();
+        for (GrantedAuthority authority : issued) {
+            String name = authority.getAuthority();
+            if (name.startsWith(AuthorityInterner.ROLE_PREFIX)) {
+                current.addAll(authoritiesOf(name.substring(AuthorityInterner.ROLE_PREFIX.length())));
+            }
+        }
+        return Set.copyOf(current);
+    }
+
+    public Set<String> roleNames() {
+        return roles.keySet();
+    }
+}
@@ -0,0 +1,360 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.repository.SigningKeyRepository;
+import com.buyukozkan.boilerplate.repository.SigningKeyRepository.StoredKey;
+import com.buyukozkan.boilerplate.security.SigningAlgorithm;
+import com.buyukozkan.boilerplate.security.SigningKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Key pairs access tokens are signed with when {@code jwt.signing.algorithm} is ES256 or
+ * EdDSA; inert with the default HS256. Keys live in {@code jwt_signing_keys} so every node
+ * signs and verifies with the same set, and each node re-reads them every check interval.
+ * <p>
+ * A key is published (JWKS, verification) {@code publish-ahead} before it starts signing, so
+ * verifiers have fetched it by the time tokens carry its {@code kid}. It signs until the next
+ * key activates {@code rotation-interval} later, and keeps verifying for
+ * {@code retired-key-grace} after that, which covers the tokens it signed last.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SigningKeyRing implements MeterBinder {
+
+    private static final ObjectMapper JWKS_WRITER = new ObjectMapper();
+    private static final byte[] KEY_ENCRYPTION_LABEL = "jwt-signing-keys".getBytes(StandardCharsets.US_ASCII);
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SigningKeyRepository signingKeyRepository;
+
+    @Value("${jwt.signing.algorithm:HS256}")
+    private SigningAlgorithm algorithm = SigningAlgorithm.HS256;
+
+    @Value("${jwt.signing.rotation-interval:7d}")
+    private Duration rotationInterval = Duration.ofDays(7);
+
+    @Value("${jwt.signing.publish-ahead:1h}")
+    private Duration publishAhead = Duration.ofHours(1);
+
+    @Value("${jwt.signing.retired-key-grace:1h}")
+    private Duration retiredKeyGrace = Duration.ofHours(1);
+
+    @Value("${jwt.signing.check-interval:1m}")
+    private Duration checkInterval = Duration.ofMinutes(1);
+
+    @Value("${jwt.jwks.max-age:15m}")
+    private Duration jwksMaxAge = Duration.ofMinutes(15);
+
+    @Value("${jwt.access-token-expiration}")
+    private long accessTokenExpiration;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    private final SecureRandom random = new SecureRandom();
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder failedChecks = new LongAdder();
+
+    private volatile KeySet keys = KeySet.EMPTY;
+    private SecretKey keyEncryptionKey;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * What the ring holds at one point in time; replaced as a whole, never modified.
+     *
+     * @param current the key new tokens are signed with, {@code null} with HS256
+     * @param byKid   every key tokens may carry: published, current and retired within the grace period
+     * @param jwks    the JWKS document of {@code byKid}
+     * @param etag    quoted hash of {@code jwks}
+     */
+    public record KeySet(SigningKey current, Map<String, SigningKey> byKid, byte[] jwks, String etag) {
+
+        static final KeySet EMPTY = new KeySet(null, Map.of(), null, null);
+
+        public SigningKey find(String kid) {
+            return kid == null ? null : byKid.get(kid);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        if (!algorithm.isAsymmetric()) {
+            return;
+        }
+        if (retiredKeyGrace.toMillis() < accessTokenExpiration) {
+            throw new IllegalStateException(
+                    "jwt.signing.retired-key-grace must cover jwt.access-token-expiration, or tokens outlive their key");
+        }
+        if (publishAhead.compareTo(checkInterval.plus(jwksMaxAge)) < 0) {
+            throw new IllegalStateException(
+                    "jwt.signing.publish-ahead must cover jwt.signing.check-interval plus jwt.jwks.max-age, "
+                            + "or verifiers meet keys they have not loaded yet");
+        }
+        if (rotationInterval.compareTo(publishAhead) <= 0) {
+            throw new IllegalStateException("jwt.signing.rotation-interval must be longer than jwt.signing.publish-ahead");
+        }
+        keyEncryptionKey = keyEncryptionKey(secret);
+
+        check();
+        if (keys.current() == null) {
+            throw new IllegalStateException("No " + algorithm.jwsName() + " signing key is active yet");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("jwt-signing-keys-"));
+        scheduler.scheduleWithFixedDelay(this::checkQuietly, checkInterval.toMillis(), checkInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("Signing access tokens with {} key {}", keys.current().algorithm().jwsName(), keys.current().kid());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean enabled() {
+        return algorithm.isAsymmetric();
+    }
+
+    public KeySet keys() {
+        return keys;
+    }
+
+    public Duration jwksMaxAge() {
+        return jwksMaxAge;
+    }
+
+    /**
+     * Reloads the keys, adds the next one once it is due within {@code publish-ahead} and
+     * deletes keys past their grace period.
+     */
+    void check() {
+        Instant now = Instant.now();
+        SigningKey latest = reload(now);
+        if (isDue(latest, now)) {
+            if (rotate(latest, now)) {
+                rotations.increment();
+            }
+            reload(now);
+        }
+        int deleted = signingKeyRepository.deleteRetired(now.minus(retiredKeyGrace));
+        if (deleted > 0) {
+            log.info("Deleted {} retired signing keys", deleted);
+        }
+    }
+
+    private void checkQuietly() {
+        try {
+            check();
+        } catch (RuntimeException e) {
+            // Signing goes on with the keys loaded last; a key published meanwhile is picked up next time
+            failedChecks.increment();
+            log.warn("Checking signing keys failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean isDue(SigningKey latest, Instant now) {
+        return latest == null
+                || latest.algorithm() != algorithm
+                || !now.isBefore(latest.activatesAt().plus(rotationInterval).minus(publishAhead));
+    }
+
+    /**
+     * @return whether this node added the key; {@code false} if another one was faster
+     */
+    private boolean rotate(SigningKey latest, Instant now) {
+        Instant activatesAt;
+        if (latest == null) {
+            // Nothing to verify yet, so nobody has to see the first key ahead of time
+            activatesAt = now;
+        } else {
+            activatesAt = now.plus(publishAhead);
+            if (latest.algorithm() == algorithm && latest.activatesAt().plus(rotationInterval).isAfter(activatesAt)) {
+                activatesAt = latest.activatesAt().plus(rotationInterval);
+            }
+        }
+        KeyPair pair = algorithm.generateKeyPair();
+        Jwk<?> jwk = jwk(pair.getPublic());
+        StoredKey key = new StoredKey(jwk.getId(), algorithm.jwsName(), pair.getPublic().getEncoded(),
+                encrypt(jwk.getId(), pair.getPrivate().getEncoded()), now, activatesAt);
+        boolean inserted = signingKeyRepository.insertSuccessor(latest == null ? null : latest.kid(), key);
+        if (inserted) {
+            log.info("Added {} signing key {}, signing from {}", algorithm.jwsName(), key.kid(), activatesAt);
+        }
+        return inserted;
+    }
+
+    /**
+     * @return the key activating last, {@code null} if there is none
+     */
+    private SigningKey reload(Instant now) {
+        List<StoredKey> stored = signingKeyRepository.findAll();
+        KeySet previous = keys;
+        Map<String, SigningKey> byKid = new HashMap<>();
+        List<Map<String, Object>> published = new ArrayList<>();
+        SigningKey current = null;
+        SigningKey latest = null;
+        Instant retiredBefore = now.minus(retiredKeyGrace);
+        for (int i = 0; i < stored.size(); i++) {
+            StoredKey row = stored.get(i);
+            // Ordered by activation: the next row is this key's successor
+            if (i + 1 < stored.size() && !stored.get(i + 1).activatesAt().isAfter(retiredBefore)) {
+                continue;
+            }
+            SigningKey key = previous.find(row.kid());
+            if (key == null) {
+                key = decode(row);
+            }
+            byKid.put(key.kid(), key);
+            published.add(key.jwk());
+            if (key.isActiveAt(now)) {
+                current = key;
+            }
+            latest = key;
+        }
+        if (byKid.keySet().equals(previous.byKid().keySet()) && current == previous.current()) {
+            return latest;
+        }
+        byte[] jwks = jwks(published);
+        keys = new KeySet(current, Map.copyOf(byKid), jwks, etag(jwks));
+        return latest;
+    }
+
+    private SigningKey decode(StoredKey row) {
+        try {
+            SigningAlgorithm keyAlgorithm = SigningAlgorithm.ofJwsName(row.algorithm());
+            PublicKey publicKey = keyAlgorithm.publicKey(row.publicKey());
+            PrivateKey privateKey = keyAlgorithm.privateKey(decrypt(row.kid(), row.privateKey()));
+            Map<String, Object> jwk = new LinkedHashMap<>(jwk(publicKey));
+            // Signing something once gives the header every token of this key starts with
+            String token = Jwts.builder().header().keyId(row.kid()).and()
+                    .subject("header")
+                    .signWith(privateKey, keyAlgorithm.jws())
+                    .compact();
+            return new SigningKey(row.kid(), keyAlgorithm, privateKey, publicKey, row.activatesAt(), jwk,
+                    token.substring(0, token.indexOf('.')));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Signing key " + row.kid() + " cannot be read; was jwt.secret changed?", e);
+        }
+    }
+
+    private Jwk<?> jwk(PublicKey publicKey) {
+        return Jwks.builder().key(publicKey)
+                .algorithm(algorithmOf(publicKey).jwsName())
+                .publicKeyUse("sig")
+                .idFromThumbprint()
+                .build();
+    }
+
+    private static SigningAlgorithm algorithmOf(PublicKey publicKey) {
+        return "EC".equals(publicKey.getAlgorithm()) ? SigningAlgorithm.ES256 : SigningAlgorithm.EDDSA;
+    }
+
+    private static byte[] jwks(List<Map<String, Object>> published) {
+        try {
+            return JWKS_WRITER.writeValueAsBytes(Map.of("keys", published));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("JWKS cannot be serialized", e);
+        }
+    }
+
+    private static String etag(byte[] jwks) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(jwks);
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + '"';
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Private keys are stored AES-GCM encrypted under a key derived from {@code jwt.secret},
+     * with the {@code kid} as associated data so rows cannot be swapped.
+     */
+    private static SecretKey keyEncryptionKey(String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(Base64.getDecoder().decode(secret), "HmacSHA256"));
+            return new SecretKeySpec(mac.doFinal(KEY_ENCRYPTION_LABEL), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private byte[] encrypt(String kid, byte[] plaintext) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.US_ASCII));
+            byte[] ciphertext = cipher.doFinal(plaintext);
+            return ByteBuffer.allocate(IV_LENGTH + ciphertext.length).put(iv).put(ciphertext).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Signing key cannot be encrypted", e);
+        }
+    }
+
+    private byte[] decrypt(String kid, byte[] stored) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(TAG_BITS, stored, 0, IV_LENGTH));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.US_ASCII));
+        return cipher.doFinal(stored, IV_LENGTH, stored.length - IV_LENGTH);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("auth.signing.keys", this, ring -> ring.keys.byKid().size())
+                .description("Signing keys tokens may carry: published, current and retired within the grace period")
+                .register(registry);
+        FunctionCounter.builder("auth.signing.rotations", rotations, LongAdder::sum)
+                .description("Signing keys added by this node")
+                .register(registry);
+        FunctionCounter.builder("auth.signing.checks.failed", failedChecks, LongAdder::sum)
+                .description("Periodic signing key checks that could not reach the database")
+                .register(registry);
+    }
+}
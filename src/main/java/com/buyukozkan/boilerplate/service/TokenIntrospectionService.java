@@ -0,0 +1,172 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.dto.TokenIntrospection;
+import com.buyukozkan.boilerplate.exception.InvalidIntrospectionRequestException;
+import com.buyukozkan.boilerplate.security.AuthMetrics;
+import com.buyukozkan.boilerplate.security.VerifiedToken;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Verifies a streamed JSON array of access tokens and writes one {@link TokenIntrospection}
+ * per token, in request order, while the rest of the body is still being read. Tokens are
+ * verified in chunks spread over a fixed pool, through {@link JwtService#verify}, so they
+ * share the verified-token cache and the metrics of the authentication filter. At most two
+ * chunks are held at a time: the one being verified and the one being read.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenIntrospectionService {
+
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final AuthMetrics authMetrics;
+
+    @Value("${token-introspection.chunk-size:256}")
+    private int chunkSize = 256;
+
+    @Value("${token-introspection.threads:0}")
+    private int threads;
+
+    // Handing fewer tokens than this to another thread costs more than verifying them here
+    @Value("${token-introspection.min-slice-size:32}")
+    private int minSliceSize = 32;
+
+    private int parallelism;
+    private ExecutorService verifier;
+    private ObjectWriter resultWriter;
+
+    @PostConstruct
+    void init() {
+        parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        verifier = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("token-introspection-"));
+        // The generator is flushed once the servlet buffer fills, not after every entry
+        resultWriter = objectMapper.writerFor(TokenIntrospection.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        verifier.shutdownNow();
+    }
+
+    /**
+     * Nothing is written before the first chunk has been read, so a body that is malformed
+     * from the start is rejected with a clean error; a malformed entry further down cuts the
+     * response short instead.
+     *
+     * @return number of tokens introspected
+     * @throws InvalidIntrospectionRequestException if the body is not a JSON array of strings
+     */
+    public long introspect(InputStream body, OutputStream out) throws IOException {
+        final long start = System.nanoTime();
+        long count = 0;
+        JsonGenerator generator = null;
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidIntrospectionRequestException("Expected a JSON array of tokens");
+            }
+            CompletableFuture<TokenIntrospection[]> previous = null;
+            List<String> chunk = new ArrayList<>(chunkSize);
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.VALUE_STRING) {
+                    throw new InvalidIntrospectionRequestException("Expected a token string at entry " + (count + 1));
+                }
+                chunk.add(parser.getText());
+                count++;
+                if (chunk.size() == chunkSize) {
+                    CompletableFuture<TokenIntrospection[]> current = verify(chunk);
+                    if (previous != null) {
+                        generator = write(generator, out, previous);
+                    }
+                    previous = current;
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (previous != null) {
+                generator = write(generator, out, previous);
+            }
+            generator = write(generator, out, verify(chunk));
+            generator.writeEndArray();
+            generator.flush();
+        } catch (JsonProcessingException e) {
+            throw new InvalidIntrospectionRequestException("Malformed JSON after entry " + count + ": "
+                    + e.getOriginalMessage());
+        } finally {
+            authMetrics.recordIntrospection(count, start);
+        }
+        return count;
+    }
+
+    private CompletableFuture<TokenIntrospection[]> verify(List<String> tokens) {
+        TokenIntrospection[] results = new TokenIntrospection[tokens.size()];
+        int slices = Math.min(parallelism, Math.max(1, tokens.size() / minSliceSize));
+        if (slices == 1) {
+            verify(tokens, results, 0, tokens.size());
+            return CompletableFuture.completedFuture(results);
+        }
+        CompletableFuture<?>[] parts = new CompletableFuture<?>[slices];
+        for (int i = 0; i < slices; i++) {
+            int from = tokens.size() * i / slices;
+            int to = tokens.size() * (i + 1) / slices;
+            parts[i] = CompletableFuture.runAsync(() -> verify(tokens, results, from, to), verifier);
+        }
+        return CompletableFuture.allOf(parts).thenApply(ignored -> results);
+    }
+
+    private void verify(List<String> tokens, TokenIntrospection[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            results[i] = introspect(tokens.get(i));
+        }
+    }
+
+    TokenIntrospection introspect(String token) {
+        try {
+            VerifiedToken verified = jwtService.verify(token);
+            return verified.isExpired() ? TokenIntrospection.INACTIVE : TokenIntrospection.of(verified);
+        } catch (JwtException | IllegalArgumentException e) {
+            return TokenIntrospection.INACTIVE;
+        }
+    }
+
+    private JsonGenerator write(JsonGenerator generator, OutputStream out,
+                                CompletableFuture<TokenIntrospection[]> chunk) throws IOException {
+        TokenIntrospection[] results;
+        try {
+            results = chunk.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        if (generator == null) {
+            generator = objectMapper.createGenerator(out);
+            generator.writeStartArray();
+        }
+        for (TokenIntrospection result : results) {
+            resultWriter.writeValue(generator, result);
+        }
+        return generator;
+    }
+}
@@ -1,23 +1,78 @@
 package com.buyukozkan.boilerplate.service;
 
-import com.buyukozkan.boilerplate.repository.UserRepository;
+import com.buyukozkan.boilerplate.repository.UserPrincipalRepository;
+import com.buyukozkan.boilerplate.repository.UserPrincipalRepository.Credentials;
+import com.buyukozkan.boilerplate.security.AuthMetrics;
+import com.buyukozkan.boilerplate.security.AuthorityInterner;
+import com.buyukozkan.boilerplate.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
-    private final UserRepository userRepository;
+    private final UserPrincipalRepository userPrincipalRepository;
+    private final RoleCatalog roleCatalog;
+    private final AuthMetrics authMetrics;
+    private final PasswordRehasher passwordRehasher;
 
+    // Read-only: served by the read replica when one is configured
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        return userRepository.findByEmailWithRolesAndPermissions(email)
+        final long start = System.nanoTime();
+        final Optional<Credentials> credentials = userPrincipalRepository.findByEmail(email);
+        authMetrics.recordUserLookup(credentials.isPresent(), start);
+        return credentials
+                .map(this::principalOf)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
+
+    /**
+     * Called by the authentication provider after a successful login whose hash is outside the
+     * rehash tolerance band, with the password already rehashed; the write happens in the background.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) user;
+        passwordRehasher.replace(principal.id(), principal.passwordHash(), newPassword);
+        return new UserPrincipal(principal.id(), principal.email(), newPassword, principal.authorities());
+    }
+
+    /**
+     * The principal for a user row, with the authorities of its roles taken from the catalog.
+     */
+    public UserPrincipal principalOf(Credentials credentials) {
+        return new UserPrincipal(credentials.id(), credentials.email(), credentials.passwordHash(),
+                authoritiesOf(credentials.roleNames()));
+    }
+
+    private Set<GrantedAuthority> authoritiesOf(List<String> roleNames) {
+        if (roleNames.size() == 1) {
+            return authoritiesOf(roleNames.getFirst());
+        }
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        for (String roleName : roleNames) {
+            authorities.addAll(authoritiesOf(roleName));
+        }
+        return Set.copyOf(authorities);
+    }
+
+    private Set<GrantedAuthority> authoritiesOf(String roleName) {
+        // A role created after the catalog was loaded still grants ROLE_<name> until the next reload
+        Set<GrantedAuthority> authorities = roleCatalog.authoritiesOf(roleName);
+        return authorities.isEmpty() ? Set.of(AuthorityInterner.role(roleName)) : authorities;
+    }
 }
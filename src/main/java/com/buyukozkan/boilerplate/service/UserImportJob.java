@@ -0,0 +1,97 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.dto.UserImportStatus;
+import com.buyukozkan.boilerplate.dto.UserImportStatus.RowError;
+import com.buyukozkan.boilerplate.dto.UserImportStatus.State;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of one bulk import. Counters are exact; only the first {@code maxReportedErrors}
+ * row errors are kept so a bad file cannot grow the job without bound.
+ */
+class UserImportJob {
+
+    static final String DUPLICATE = "Email already in use";
+
+    private final UUID id = UUID.randomUUID();
+    private final Instant startedAt = Instant.now();
+    private final int maxReportedErrors;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder imported = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Queue<RowError> errors = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger reportedErrors = new AtomicInteger();
+
+    private volatile State state = State.RUNNING;
+    private volatile String message;
+    private volatile Instant finishedAt;
+
+    UserImportJob(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    UUID id() {
+        return id;
+    }
+
+    void received() {
+        received.increment();
+    }
+
+    void imported() {
+        imported.increment();
+    }
+
+    void duplicate(long row, String email) {
+        duplicates.increment();
+        report(row, email, DUPLICATE);
+    }
+
+    void failed(long row, String email, String reason) {
+        failed.increment();
+        report(row, email, reason);
+    }
+
+    private void report(long row, String email, String reason) {
+        if (reportedErrors.getAndIncrement() < maxReportedErrors) {
+            errors.add(new RowError(row, email, reason));
+        }
+    }
+
+    /**
+     * Stops the job with a reason; rows already handed off are still written.
+     */
+    void abort(String reason) {
+        if (message == null) {
+            message = reason;
+        }
+    }
+
+    void finish() {
+        finishedAt = Instant.now();
+        state = message == null ? State.COMPLETED : State.FAILED;
+    }
+
+    UserImportStatus status() {
+        return new UserImportStatus(
+                id,
+                state,
+                received.sum(),
+                imported.sum(),
+                duplicates.sum(),
+                failed.sum(),
+                errors.stream().sorted(Comparator.comparingLong(RowError::row)).toList(),
+                message,
+                startedAt,
+                finishedAt);
+    }
+}
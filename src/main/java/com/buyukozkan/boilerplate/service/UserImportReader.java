@@ -0,0 +1,145 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.dto.UserImportRow;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pulls import rows one at a time from a request body, so an import never holds more than
+ * the rows currently in flight.
+ */
+interface UserImportReader extends Closeable {
+
+    /**
+     * @return the next row, or {@code null} at the end of the body
+     */
+    UserImportRow next() throws IOException;
+
+    static UserImportReader json(InputStream body, ObjectMapper objectMapper) throws IOException {
+        return new Json(objectMapper.createParser(body), objectMapper);
+    }
+
+    /**
+     * {@code email,password[,roles]} with optional RFC 4180 quoting; roles are separated by
+     * {@code |} and a leading {@code email,...} header line is skipped.
+     */
+    static UserImportReader csv(InputStream body) {
+        return new Csv(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+
+    final class Json implements UserImportReader {
+
+        private final JsonParser parser;
+        private final ObjectMapper objectMapper;
+        private boolean started;
+
+        private Json(JsonParser parser, ObjectMapper objectMapper) {
+            this.parser = parser;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public UserImportRow next() throws IOException {
+            if (!started) {
+                started = true;
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("Expected a JSON array of users");
+                }
+            }
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY || token == null) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a user object at " + parser.currentLocation());
+            }
+            return objectMapper.readValue(parser, UserImportRow.class);
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    final class Csv implements UserImportReader {
+
+        private final BufferedReader reader;
+        private final StringBuilder field = new StringBuilder();
+        private boolean started;
+
+        private Csv(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public UserImportRow next() throws IOException {
+            List<String> fields;
+            while ((fields = readRecord()) != null) {
+                boolean header = !started && fields.get(0).trim().equalsIgnoreCase("email");
+                started = true;
+                if (header || (fields.size() == 1 && fields.get(0).isBlank())) {
+                    continue;
+                }
+                return new UserImportRow(
+                        fields.get(0).trim(),
+                        fields.size() > 1 ? fields.get(1) : null,
+                        fields.size() > 2 && !fields.get(2).isBlank()
+                                ? Arrays.stream(fields.get(2).split("\\|")).map(String::trim).toList()
+                                : null);
+            }
+            return null;
+        }
+
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>(3);
+            field.setLength(0);
+            boolean quoted = false;
+            boolean read = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                read = true;
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (!read) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.dto.UserImportRow;
+import com.buyukozkan.boilerplate.dto.UserImportStatus;
+import com.buyukozkan.boilerplate.entity.Role;
+import com.buyukozkan.boilerplate.entity.User;
+import com.buyukozkan.boilerplate.exception.ImportJobNotFoundException;
+import com.buyukozkan.boilerplate.exception.PasswordHashingRejectedException;
+import com.buyukozkan.boilerplate.repository.UserBulkRepository;
+import com.buyukozkan.boilerplate.repository.UserBulkRepository.NewUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Creates users in bulk from a streamed JSON or CSV body. Rows are validated and de-duplicated
+ * while the body is read, hashed in parallel and written in chunks with one round trip per
+ * table, in file order. The hashing goes through the shared {@link PasswordEncoder}, so an
+ * import is bounded by the same pool as logins instead of competing with it for every core.
+ * Reading blocks once {@code MAX_CHUNKS_IN_FLIGHT} chunks are pending, which caps how many
+ * plaintext passwords are held in memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserImportService {
+
+    private static final int MAX_CHUNKS_IN_FLIGHT = 4;
+    private static final int MAX_HASHING_ATTEMPTS = 10;
+
+    private final UserBulkRepository userBulkRepository;
+    private final RoleCatalog roleCatalog;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EmailExistenceFilter emailExistenceFilter;
+
+    @Value("${user-import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${user-import.hashing-threads:0}")
+    private int hashingThreads;
+
+    @Value("${user-import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${user-import.job-retention:1h}")
+    private Duration jobRetention;
+
+    private ExecutorService hashingExecutor;
+    private ExecutorService writingExecutor;
+    private Cache<UUID, UserImportJob> jobs;
+
+    @PostConstruct
+    void init() {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        hashingExecutor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("user-import-hash-"));
+        writingExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("user-import-write-"));
+        jobs = Caffeine.newBuilder()
+                .expireAfterAccess(jobRetention)
+                .maximumSize(1_000)
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingExecutor.shutdownNow();
+        writingExecutor.shutdownNow();
+    }
+
+    /**
+     * Reads the whole body and returns once every row has been handed off; hashing and writing
+     * of the last chunks continue in the background and can be followed with {@link #status}.
+     */
+    public UserImportStatus importUsers(InputStream body, boolean csv) {
+        UserImportJob job = new UserImportJob(maxReportedErrors);
+        jobs.put(job.id(), job);
+
+        Semaphore chunksInFlight = new Semaphore(MAX_CHUNKS_IN_FLIGHT);
+        Set<String> seenEmails = new HashSet<>();
+        CompletableFuture<Void> written = CompletableFuture.completedFuture(null);
+        long rowNumber = 0;
+
+        try (UserImportReader reader = csv ? UserImportReader.csv(body) : UserImportReader.json(body, objectMapper)) {
+            List<PendingRow> chunk = new ArrayList<>(batchSize);
+            UserImportRow row;
+            while ((row = reader.next()) != null) {
+                job.received();
+                PendingRow pending = prepare(job, ++rowNumber, row, seenEmails);
+                if (pending != null) {
+                    chunk.add(pending);
+                }
+                if (chunk.size() == batchSize) {
+                    written = submit(job, chunk, written, chunksInFlight);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+            written = submit(job, chunk, written, chunksInFlight);
+        } catch (IOException | RuntimeException e) {
+            log.warn("User import {} stopped after row {}: {}", job.id(), rowNumber, e.getMessage());
+            job.abort("Import stopped after row " + rowNumber + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.abort("Import interrupted after row " + rowNumber);
+        }
+
+        written.whenComplete((ignored, ex) -> {
+            job.finish();
+            UserImportStatus status = job.status();
+            log.info("User import {} finished: {} imported, {} duplicates, {} failed",
+                    job.id(), status.imported(), status.duplicates(), status.failed());
+        });
+        return job.status();
+    }
+
+    public UserImportStatus status(UUID jobId) {
+        UserImportJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new ImportJobNotFoundException(jobId);
+        }
+        return job.status();
+    }
+
+    private PendingRow prepare(UserImportJob job, long rowNumber, UserImportRow row, Set<String> seenEmails) {
+        Set<ConstraintViolation<UserImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            job.failed(rowNumber, row.email(), violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+
+        List<String> roleNames = row.roles() == null || row.roles().isEmpty()
+                ? List.of(RoleCatalog.DEFAULT_ROLE)
+                : row.roles();
+        Set<Long> roleIds = new HashSet<>();
+        for (String roleName : roleNames) {
+            Optional<Role> role = roleCatalog.findRole(roleName);
+            if (role.isEmpty()) {
+                job.failed(rowNumber, row.email(), "Unknown role: " + roleName);
+                return null;
+            }
+            roleIds.add(role.get().getId());
+        }
+
+        if (!seenEmails.add(User.normalizeEmail(row.email()))) {
+            job.duplicate(rowNumber, row.email());
+            return null;
+        }
+        return new PendingRow(rowNumber, row.email(), row.password(), roleIds);
+    }
+
+    private CompletableFuture<Void> submit(UserImportJob job, List<PendingRow> chunk,
+                                           CompletableFuture<Void> previous,
+                                           Semaphore chunksInFlight) throws InterruptedException {
+        // Existing emails are dropped before hashing; the insert still catches concurrent registrations
+        Set<String> existing = userBulkRepository.findExistingEmails(chunk.stream().map(PendingRow::email).toList());
+        List<PendingRow> rows = new ArrayList<>(chunk.size());
+        for (PendingRow row : chunk) {
+            if (existing.contains(User.normalizeEmail(row.email()))) {
+                job.duplicate(row.number(), row.email());
+            } else {
+                rows.add(row);
+            }
+        }
+        if (rows.isEmpty()) {
+            return previous;
+        }
+
+        chunksInFlight.acquire();
+        List<CompletableFuture<NewUser>> hashed = rows.stream()
+                .map(row -> CompletableFuture.supplyAsync(() -> new NewUser(
+                        UUID.randomUUID(), row.email(), encode(row.password()), row.roleIds()), hashingExecutor))
+                .toList();
+
+        return previous
+                .thenCombineAsync(CompletableFuture.allOf(hashed.toArray(CompletableFuture[]::new)),
+                        (ignored, alsoIgnored) -> write(job, rows, hashed.stream().map(CompletableFuture::join).toList()),
+                        writingExecutor)
+                .exceptionally(ex -> {
+                    String reason = "Not imported: " + rootCause(ex).getMessage();
+                    rows.forEach(row -> job.failed(row.number(), row.email(), reason));
+                    return null;
+                })
+                .whenComplete((ignored, ex) -> chunksInFlight.release());
+    }
+
+    private Void write(UserImportJob job, List<PendingRow> rows, List<NewUser> users) {
+        Set<UUID> inserted = userBulkRepository.insertIgnoringDuplicates(users);
+        for (int i = 0; i < users.size(); i++) {
+            if (inserted.contains(users.get(i).id())) {
+                emailExistenceFilter.add(users.get(i).email());
+                job.imported();
+            } else {
+                job.duplicate(rows.get(i).number(), rows.get(i).email());
+            }
+        }
+        return null;
+    }
+
+    private String encode(String password) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return passwordEncoder.encode(password);
+            } catch (PasswordHashingRejectedException e) {
+                // Logins keep priority: back off while the shared hashing queue is full
+                if (attempt == MAX_HASHING_ATTEMPTS) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(Duration.ofSeconds(e.getRetryAfterSeconds()));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static Throwable rootCause(Throwable ex) {
+        Throwable cause = ex;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private record PendingRow(long number, String email, String password, Set<Long> roleIds) {
+    }
+}
@@ -0,0 +1,7 @@
+-- ── Case-insensitive email uniqueness ─────────────────────────────────────────
+-- Emails keep the casing they were registered with, but lookups compare lower(email),
+-- so this index both enforces uniqueness and serves login and duplicate checks.
+-- Fails if existing accounts differ only by case; merge those before migrating.
+CREATE UNIQUE INDEX users_email_lower_key ON users (lower(email));
+
+ALTER TABLE users DROP CONSTRAINT users_email_key;
@@ -0,0 +1,55 @@
+-- ── Authorization change notifications ────────────────────────────────────────
+-- Every node LISTENs on this channel and drops its cached roles, permissions and user
+-- role assignments when they change. Statement-level triggers send one notification per
+-- statement; Postgres delivers them on commit and folds duplicates within a transaction.
+
+-- Payload: the table name; listeners reload everything derived from it
+CREATE FUNCTION notify_authorization_changed() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM pg_notify('authorization_changed', TG_TABLE_NAME);
+    RETURN NULL;
+END;
+$$;
+
+-- Payload: user_roles:<id>,<id>,...; plain user_roles (all users) when the ids would not
+-- fit into the 8000 byte NOTIFY limit
+CREATE FUNCTION notify_user_roles_changed() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+DECLARE
+    user_ids TEXT;
+BEGIN
+    SELECT string_agg(DISTINCT user_id::TEXT, ',') INTO user_ids FROM changed_rows;
+    IF user_ids IS NOT NULL THEN
+        PERFORM pg_notify('authorization_changed',
+                          'user_roles' || CASE WHEN length(user_ids) > 7900 THEN '' ELSE ':' || user_ids END);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER roles_changed
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON roles
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_authorization_changed();
+
+CREATE TRIGGER permissions_changed
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON permissions
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_authorization_changed();
+
+CREATE TRIGGER role_permissions_changed
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON role_permissions
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_authorization_changed();
+
+CREATE TRIGGER user_roles_inserted
+    AFTER INSERT ON user_roles
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_user_roles_changed();
+
+CREATE TRIGGER user_roles_deleted
+    AFTER DELETE ON user_roles
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_user_roles_changed();
+
+CREATE TRIGGER user_roles_updated
+    AFTER UPDATE OR TRUNCATE ON user_roles
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_authorization_changed();
@@ -0,0 +1,48 @@
+-- ── Refresh token families ────────────────────────────────────────────────────
+-- A family is one login session: every /refresh rotates to a new token of the same
+-- family, and presenting an already rotated token revokes the whole family.
+CREATE TABLE refresh_token_families (
+    id         UUID        PRIMARY KEY,
+    user_id    UUID        NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    created_at TIMESTAMPTZ NOT NULL,
+    revoked_at TIMESTAMPTZ
+);
+
+CREATE INDEX refresh_token_families_user_id_idx ON refresh_token_families (user_id);
+CREATE INDEX refresh_token_families_revoked_at_idx ON refresh_token_families (revoked_at)
+    WHERE revoked_at IS NOT NULL;
+
+-- ── Refresh tokens ────────────────────────────────────────────────────────────
+-- token_hash is the SHA-256 of the token's jti; the token itself is never stored.
+CREATE TABLE refresh_tokens (
+    token_hash BYTEA       PRIMARY KEY,
+    family_id  UUID        NOT NULL REFERENCES refresh_token_families(id) ON DELETE CASCADE,
+    expires_at TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    used_at    TIMESTAMPTZ
+);
+
+CREATE INDEX refresh_tokens_family_id_idx ON refresh_tokens (family_id);
+CREATE INDEX refresh_tokens_expires_at_idx ON refresh_tokens (expires_at);
+
+-- Payload: refresh_token_families:<id>,<id>,...; plain refresh_token_families when the ids
+-- would not fit into the 8000 byte NOTIFY limit. Sent on the channel from V4, so every node
+-- adds the families to its in-memory revocation set.
+CREATE FUNCTION notify_refresh_token_families_revoked() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+DECLARE
+    family_ids TEXT;
+BEGIN
+    SELECT string_agg(id::TEXT, ',') INTO family_ids FROM changed_rows WHERE revoked_at IS NOT NULL;
+    IF family_ids IS NOT NULL THEN
+        PERFORM pg_notify('authorization_changed',
+                          'refresh_token_families' || CASE WHEN length(family_ids) > 7900 THEN '' ELSE ':' || family_ids END);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER refresh_token_families_revoked
+    AFTER UPDATE ON refresh_token_families
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_refresh_token_families_revoked();
@@ -0,0 +1,9 @@
+-- ── Token introspection ───────────────────────────────────────────────────────
+-- POST /api/tokens/introspect; meant for service accounts of gateways and sidecars, which
+-- get a role holding this permission. ADMIN holds every permission.
+INSERT INTO permissions (name) VALUES ('tokens:introspect') ON CONFLICT (name) DO NOTHING;
+
+INSERT INTO role_permissions (role_id, permission_id)
+SELECT r.id, p.id FROM roles r, permissions p
+WHERE r.name = 'ADMIN' AND p.name = 'tokens:introspect'
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,15 @@
+-- ── JWT signing keys ──────────────────────────────────────────────────────────
+-- Key pairs for jwt.signing.algorithm=ES256/EdDSA, shared by every node. A key is published
+-- in the JWKS from created_at and signs from activates_at; it keeps verifying until its
+-- successor has been active for the grace period, then it is deleted. private_key is the
+-- PKCS#8 encoding, AES-GCM encrypted with a key derived from jwt.secret.
+CREATE TABLE jwt_signing_keys (
+    kid          VARCHAR(64) PRIMARY KEY,
+    algorithm    VARCHAR(16) NOT NULL,
+    public_key   BYTEA       NOT NULL,
+    private_key  BYTEA       NOT NULL,
+    created_at   TIMESTAMPTZ NOT NULL,
+    activates_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX jwt_signing_keys_activates_at_idx ON jwt_signing_keys (activates_at);
@@ -0,0 +1,45 @@
+-- ── User role changes ─────────────────────────────────────────────────────────
+-- Every registration and import chunk inserts into user_roles. A transaction that sent a
+-- NOTIFY takes Postgres's global notify queue lock at commit, which serialized all of those
+-- commits across the cluster, and a new role link has nothing to invalidate. Inserts no
+-- longer notify.
+DROP TRIGGER user_roles_inserted ON user_roles;
+DROP TRIGGER user_roles_deleted ON user_roles;
+DROP TRIGGER user_roles_updated ON user_roles;
+DROP FUNCTION notify_user_roles_changed();
+
+-- No node caches role assignments; logins read them with the principal query, and /refresh
+-- re-expands the roles its token carries. Removing or changing a user's role links therefore
+-- revokes that user's open refresh token families in the same transaction, and the trigger
+-- from V5 notifies every node. Access tokens already issued keep their authorities until they
+-- expire.
+CREATE FUNCTION revoke_refresh_token_families_of_changed_users() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE refresh_token_families SET revoked_at = now()
+    WHERE revoked_at IS NULL AND user_id IN (SELECT user_id FROM changed_rows);
+    RETURN NULL;
+END;
+$$;
+
+CREATE FUNCTION revoke_all_refresh_token_families() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE refresh_token_families SET revoked_at = now() WHERE revoked_at IS NULL;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER user_roles_deleted
+    AFTER DELETE ON user_roles
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION revoke_refresh_token_families_of_changed_users();
+
+CREATE TRIGGER user_roles_updated
+    AFTER UPDATE ON user_roles
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION revoke_refresh_token_families_of_changed_users();
+
+CREATE TRIGGER user_roles_truncated
+    AFTER TRUNCATE ON user_roles
+    FOR EACH STATEMENT EXECUTE FUNCTION revoke_all_refresh_token_families();
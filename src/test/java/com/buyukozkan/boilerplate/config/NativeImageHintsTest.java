@@ -0,0 +1,45 @@
+package com.buyukozkan.boilerplate.config;
+
+import com.buyukozkan.boilerplate.dto.UserImportRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+class NativeImageHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeImageHintsTest() {
+        new NativeImageHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void jjwtImplementationsExistAndAreReflectivelyConstructible() {
+        for (String type : NativeImageHints.JJWT_IMPLEMENTATIONS) {
+            // A renamed class after a jjwt upgrade would only fail at runtime in the native image
+            assertThatCode(() -> Class.forName(type)).as(type).doesNotThrowAnyException();
+            assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(type))
+                    .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        }
+    }
+
+    @Test
+    void registersResourcesLoadedOutsideSpring() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Serializer"))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Deserializer"))
+                .accepts(hints);
+    }
+
+    @Test
+    void registersImportRowsForBinding() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(UserImportRow.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(UserImportRow.class, "email")).accepts(hints);
+    }
+}
@@ -0,0 +1,132 @@
+package com.buyukozkan.boilerplate.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReadReplicaTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final ResultSet checkResult = mock(ResultSet.class);
+    private final ReadReplica readReplica = new ReadReplica(primary, replica, Duration.ofSeconds(5), Duration.ofSeconds(1));
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Statement statement = mock(Statement.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReadReplica.CHECK_QUERY)).thenReturn(checkResult);
+        when(checkResult.next()).thenReturn(true);
+    }
+
+    @Test
+    void readsUseThePrimaryUntilTheReplicaPassedACheck() throws SQLException {
+        assertThat(readReplica.dataSource().getConnection()).isSameAs(primaryConnection);
+        verify(primaryConnection).setReadOnly(true);
+
+        replicaLagging(0.5);
+
+        assertThat(readReplica.isUsable()).isTrue();
+        assertThat(readReplica.dataSource().getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void replicaTooFarBehindIsSkippedUntilItCatchesUp() throws SQLException {
+        replicaLagging(0);
+        replicaLagging(30);
+
+        assertThat(readReplica.isUsable()).isFalse();
+        assertThat(readReplica.dataSource().getConnection()).isSameAs(primaryConnection);
+
+        replicaLagging(2);
+
+        assertThat(readReplica.dataSource().getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void unknownLagCountsAsUnhealthy() throws SQLException {
+        when(checkResult.getDouble(1)).thenReturn(0.0);
+        when(checkResult.wasNull()).thenReturn(true);
+
+        readReplica.check();
+
+        assertThat(readReplica.isUsable()).isFalse();
+    }
+
+    @Test
+    void refusedConnectionFallsBackAndStopsUsingTheReplica() throws SQLException {
+        replicaLagging(0);
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("replica - Connection is not available"));
+
+        assertThat(readReplica.dataSource().getConnection()).isSameAs(primaryConnection);
+        assertThat(readReplica.dataSource().getConnection()).isSameAs(primaryConnection);
+
+        assertThat(readReplica.isUsable()).isFalse();
+        verify(replica, times(2)).getConnection();
+    }
+
+    @Test
+    void failedCheckMarksTheReplicaUnusable() throws SQLException {
+        replicaLagging(0);
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        readReplica.check();
+
+        assertThat(readReplica.isUsable()).isFalse();
+    }
+
+    @Test
+    void connectionsAreCountedPerPool() throws SQLException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        readReplica.bindTo(registry);
+
+        readReplica.dataSource().getConnection();
+        replicaLagging(1.5);
+        readReplica.dataSource().getConnection();
+        readReplica.dataSource().getConnection();
+
+        assertThat(registry.get("db.read-only.connections").tag("pool", "primary").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("db.read-only.connections").tag("pool", "replica").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("db.replica.lag").gauge().value()).isEqualTo(1.5);
+        assertThat(registry.get("db.replica.usable").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void withoutReplicaNothingIsCheckedOrReported() throws SQLException {
+        ReadReplica none = new ReadReplica(primary, null, Duration.ofSeconds(5), Duration.ofSeconds(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        none.start();
+        none.bindTo(registry);
+
+        assertThat(none.isConfigured()).isFalse();
+        assertThat(registry.getMeters()).isEmpty();
+        verify(replica, never()).getConnection();
+        none.close();
+    }
+
+    private void replicaLagging(double seconds) throws SQLException {
+        when(checkResult.getDouble(1)).thenReturn(seconds);
+        when(checkResult.wasNull()).thenReturn(false);
+        readReplica.check();
+    }
+}
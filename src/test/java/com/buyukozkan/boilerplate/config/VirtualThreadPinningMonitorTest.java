@@ -0,0 +1,36 @@
+package com.buyukozkan.boilerplate.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void reportsBlockingInsideSynchronizedOnVirtualThread() throws InterruptedException {
+        try (VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(5))) {
+            monitor.start();
+
+            Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+
+            await().atMost(Duration.ofSeconds(10)).until(() -> monitor.pinnedEvents() > 0);
+            assertThat(monitor.report().keySet())
+                    .anyMatch(site -> site.startsWith(VirtualThreadPinningMonitorTest.class.getName()));
+        }
+    }
+
+    private void sleepWhileHoldingMonitor() {
+        synchronized (lock) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.buyukozkan.boilerplate.controller;
+
+import com.buyukozkan.boilerplate.dto.AuthResponse;
+import com.buyukozkan.boilerplate.dto.ErrorResponse;
+import com.buyukozkan.boilerplate.service.JwtService;
+import com.buyukozkan.boilerplate.service.RoleCatalog;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * HTTP behaviour of the auth API that both web stacks must show, run over a real socket against
+ * an embedded Postgres migrated by Flyway. Subclasses only pick the stack.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        // WebTestClient shares Reactor Netty's resources with the server, which would wait out the graceful shutdown
+        "server.shutdown=immediate",
+        "rate-limit.login.per-client=1000",
+        "rate-limit.login.per-account=3",
+        "rate-limit.refresh.per-client=20"
+})
+abstract class AuthApiContract {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RoleCatalog roleCatalog;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @BeforeAll
+    static void requirePostgres() {
+        assumeFalse("root".equals(System.getProperty("user.name")), "Postgres refuses to run as root");
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres().getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    // One database for both stacks, stopped by its own shutdown hook; every test uses its own email
+    private static synchronized EmbeddedPostgres postgres() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return postgres;
+    }
+
+    @Test
+    void registeredUserGetsTokensThatAuthenticate() {
+        String email = newEmail();
+        AuthResponse tokens = register(email, "secret123");
+
+        client.get().uri("/api/demo")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.accessToken())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Hello! You are authenticated as: " + email);
+    }
+
+    @Test
+    void registeringATakenEmailIsAConflict() {
+        String email = newEmail();
+        register(email, "secret123");
+
+        ErrorResponse error = post("/api/auth/register", Map.of("email", email.toUpperCase(), "password", "secret123"))
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody(ErrorResponse.class).returnResult().getResponseBody();
+
+        assertThat(error.error()).isEqualTo("Conflict");
+        assertThat(error.path()).isEqualTo("/api/auth/register");
+    }
+
+    @Test
+    void invalidRegistrationListsTheFieldErrors() {
+        ErrorResponse error = post("/api/auth/register", Map.of("email", "not-an-email", "password", "123"))
+                .expectStatus().isBadRequest()
+                .expectBody(ErrorResponse.class).returnResult().getResponseBody();
+
+        assertThat(error.error()).isEqualTo("Validation Failed");
+        assertThat(error.message()).contains("Invalid email format", "Password must be at least 6 characters long");
+    }
+
+    @Test
+    void loginStartsANewSession() {
+        String email = newEmail();
+        register(email, "secret123");
+
+        AuthResponse tokens = login(email, "secret123")
+                .expectStatus().isOk()
+                .expectBody(AuthResponse.class).returnResult().getResponseBody();
+
+        assertThat(tokens.accessToken()).isNotBlank();
+        refresh(tokens.refreshToken()).expectStatus().isOk();
+    }
+
+    @Test
+    void wrongPasswordAndUnknownEmailGetTheSameAnswer() {
+        String email = newEmail();
+        register(email, "secret123");
+
+        ErrorResponse wrongPassword = login(email, "wrong-password")
+                .expectStatus().isUnauthorized()
+                .expectBody(ErrorResponse.class).returnResult().getResponseBody();
+        ErrorResponse unknownEmail = login(newEmail(), "secret123")
+                .expectStatus().isUnauthorized()
+                .expectBody(ErrorResponse.class).returnResult().getResponseBody();
+
+        assertThat(wrongPassword.message()).isEqualTo("Invalid credentials").isEqualTo(unknownEmail.message());
+        assertThat(wrongPassword.path()).isEqualTo("/api/auth/login");
+    }
+
+    @Test
+    void replayingARotatedRefreshTokenRevokesTheFamily() {
+        AuthResponse first = register(newEmail(), "secret123");
+        AuthResponse second = refresh(first.refreshToken())
+                .expectStatus().isOk()
+                .expectBody(AuthResponse.class).returnResult().getResponseBody();
+
+        refresh(first.refreshToken()).expectStatus().isUnauthorized();
+        refresh(second.refreshToken()).expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void permissionRemovedFromARoleIsGoneAfterTheNextRefresh() {
+        String email = newEmail();
+        register(email, "secret123");
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String role = "CONTRACT_" + suffix;
+        String permission = "contract:" + suffix;
+        jdbcTemplate.update("INSERT INTO roles (name) VALUES (?)", role);
+        jdbcTemplate.update("INSERT INTO permissions (name) VALUES (?)", permission);
+        jdbcTemplate.update("""
+                INSERT INTO role_permissions (role_id, permission_id)
+                SELECT r.id, p.id FROM roles r, permissions p WHERE r.name = ? AND p.name = ?
+                """, role, permission);
+        jdbcTemplate.update("""
+                INSERT INTO user_roles (user_id, role_id)
+                SELECT u.id, r.id FROM users u, roles r WHERE u.email = ? AND r.name = ?
+                """, email, role);
+        // Outside tests the reload arrives through LISTEN/NOTIFY, asynchronously
+        roleCatalog.reload();
+        AuthResponse granted = login(email, "secret123")
+                .expectStatus().isOk()
+                .expectBody(AuthResponse.class).returnResult().getResponseBody();
+        // Decoded claims carry the ROLE_ prefix on every entry, permissions included
+        String decodedPermission = "ROLE_" + permission;
+        assertThat(authoritiesOf(granted.accessToken())).contains(decodedPermission);
+
+        jdbcTemplate.update("DELETE FROM permissions WHERE name = ?", permission);
+        roleCatalog.reload();
+        AuthResponse refreshed = refresh(granted.refreshToken())
+                .expectStatus().isOk()
+                .expectBody(AuthResponse.class).returnResult().getResponseBody();
+
+        assertThat(authoritiesOf(refreshed.accessToken())).contains("ROLE_" + role).doesNotContain(decodedPermission);
+    }
+
+    @Test
+    void logoutEndsOnlyThatSession() {
+        String email = newEmail();
+        AuthResponse loggedOut = register(email, "secret123");
+        AuthResponse other = login(email, "secret123")
+                .expectStatus().isOk()
+                .expectBody(AuthResponse.class).returnResult().getResponseBody();
+
+        post("/api/auth/logout", Map.of("refreshToken", loggedOut.refreshToken()))
+                .expectStatus().isNoContent();
+
+        refresh(loggedOut.refreshToken()).expectStatus().isUnauthorized();
+        refresh(other.refreshToken()).expectStatus().isOk();
+    }
+
+    @Test
+    void logoutAllNeedsAnAccessTokenAndEndsEverySession() {
+        String email = newEmail();
+        AuthResponse first = register(email, "secret123");
+        AuthResponse second = login(email, "secret123")
+                .expectStatus().isOk()
+                .expectBody(AuthResponse.class).returnResult().getResponseBody();
+
+        client.post().uri("/api/auth/logout-all").exchange().expectStatus().isForbidden();
+        client.post().uri("/api/auth/logout-all")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + first.accessToken())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        refresh(first.refreshToken()).expectStatus().isUnauthorized();
+        refresh(second.refreshToken()).expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void protectedEndpointsRejectMissingAndInvalidTokens() {
+        client.get().uri("/api/demo").exchange().expectStatus().isForbidden();
+        client.get().uri("/api/demo")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not.a.token")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void malformedRefreshTokenIsUnauthorized() {
+        ErrorResponse error = refresh("not.a.token")
+                .expectStatus().isUnauthorized()
+                .expectBody(ErrorResponse.class).returnResult().getResponseBody();
+
+        assertThat(error.path()).isEqualTo("/api/auth/refresh");
+    }
+
+    @Test
+    void healthIsPublicAndMetricsAreNot() {
+        client.get().uri("/actuator/health").exchange().expectStatus().isOk();
+        client.get().uri("/actuator/prometheus").exchange().expectStatus().isForbidden();
+    }
+
+    @Test
+    void loginAttemptsAreLimitedPerAccount() {
+        String email = newEmail();
+        for (int attempt = 0; attempt < 3; attempt++) {
+            login(email, "wrong-password").expectStatus().isUnauthorized();
+        }
+
+        login(email, "wrong-password")
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().exists(HttpHeaders.RETRY_AFTER);
+    }
+
+    @Test
+    void refreshAttemptsAreLimitedPerForwardedClient() {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            refreshFrom("203.0.113.7").expectStatus().isUnauthorized();
+        }
+
+        refreshFrom("203.0.113.7").expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        // Behind the gateway every client shares the proxy's address; only the forwarded one tells them apart
+        refreshFrom("203.0.113.8").expectStatus().isUnauthorized();
+    }
+
+    private List<String> authoritiesOf(String accessToken) {
+        return jwtService.extractAuthorities(accessToken).stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
+    private AuthResponse register(String email, String password) {
+        return post("/api/auth/register", Map.of("email", email, "password", password))
+                .expectStatus().isOk()
+                .expectBody(AuthResponse.class).returnResult().getResponseBody();
+    }
+
+    private WebTestClient.ResponseSpec login(String email, String password) {
+        return post("/api/auth/login", Map.of("email", email, "password", password));
+    }
+
+    private WebTestClient.ResponseSpec refresh(String refreshToken) {
+        return post("/api/auth/refresh", Map.of("refreshToken", refreshToken));
+    }
+
+    private WebTestClient.ResponseSpec refreshFrom(String clientAddress) {
+        return client.post().uri("/api/auth/refresh")
+                .header("X-Forwarded-For", clientAddress)
+                .bodyValue(Map.of("refreshToken", "not.a.token"))
+                .exchange();
+    }
+
+    private WebTestClient.ResponseSpec post(String path, Map<String, String> body) {
+        return client.post().uri(path).bodyValue(body).exchange();
+    }
+
+    private static String newEmail() {
+        return "contract-" + UUID.randomUUID() + "@example.com";
+    }
+}
@@ -0,0 +1,7 @@
+package com.buyukozkan.boilerplate.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.main.web-application-type=reactive")
+class ReactiveAuthApiContractTest extends AuthApiContract {
+}
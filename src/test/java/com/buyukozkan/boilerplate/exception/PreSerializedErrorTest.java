@@ -0,0 +1,37 @@
+package com.buyukozkan.boilerplate.exception;
+
+import com.buyukozkan.boilerplate.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PreSerializedErrorTest {
+
+    // As configured by Spring Boot's JacksonAutoConfiguration
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void writesWhatJacksonWritesForTheRecord() throws Exception {
+        PreSerializedError error = new PreSerializedError(HttpStatus.UNAUTHORIZED, "Unauthorized", "Say \"hi\"");
+
+        ResponseEntity<byte[]> response = error.toResponse("/api/auth/\u00e7\u0131k\u0131\u015f?q=\"x\\y\"");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        ErrorResponse parsed = objectMapper.readValue(response.getBody(), ErrorResponse.class);
+        String expected = objectMapper.writeValueAsString(parsed);
+        assertThat(new String(response.getBody(), StandardCharsets.UTF_8)).isEqualTo(expected);
+        assertThat(parsed.message()).isEqualTo("Say \"hi\"");
+        assertThat(parsed.path()).isEqualTo("/api/auth/\u00e7\u0131k\u0131\u015f?q=\"x\\y\"");
+    }
+}
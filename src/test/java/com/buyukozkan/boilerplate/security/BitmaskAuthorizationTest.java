@@ -0,0 +1,139 @@
+package com.buyukozkan.boilerplate.security;
+
+import com.buyukozkan.boilerplate.service.RoleCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BitmaskAuthorizationTest {
+
+    private static final List<String> EXPRESSIONS = List.of(
+            "hasAuthority('users:read')",
+            "hasAuthority('ROLE_users:read')",
+            "hasAuthority('ROLE_admin:access')",
+            "hasAuthority('never:seen')",
+            "hasRole('USER')",
+            "hasRole('ROLE_ADMIN')",
+            "hasRole('users:write')",
+            "hasAnyRole('ADMIN', 'USER')",
+            "hasAnyRole('AUDITOR', 'ADMIN')",
+            "hasAnyAuthority('users:write', 'reports:export')",
+            "hasAnyAuthority('ROLE_users:delete', 'ROLE_ADMIN')",
+            "hasRole('ADMIN') and hasAuthority('ROLE_users:delete')",
+            "hasRole('USER') and !hasRole('ADMIN')",
+            "isAuthenticated() and hasAuthority('ROLE_users:read')",
+            "isAnonymous() or hasRole('ADMIN')",
+            "isFullyAuthenticated()",
+            "permitAll",
+            "denyAll");
+
+    private static final List<String> URL_ROLES = List.of("USER", "ADMIN", "AUDITOR");
+
+    private AuthorityMasks masks;
+    private final MethodSecurityExpressionHandler stringHandler = new DefaultMethodSecurityExpressionHandler();
+    private MethodSecurityExpressionHandler bitmaskHandler;
+
+    @BeforeEach
+    void setUp() {
+        RoleCatalog catalog = mock(RoleCatalog.class);
+        when(catalog.roleNames()).thenReturn(Set.of("USER", "ADMIN"));
+        when(catalog.authoritiesOf("USER")).thenReturn(authorities("ROLE_USER", "users:read"));
+        when(catalog.authoritiesOf("ADMIN")).thenReturn(authorities(
+                "ROLE_ADMIN", "users:read", "users:write", "users:delete", "admin:access"));
+        masks = new AuthorityMasks(catalog);
+        masks.seed();
+        bitmaskHandler = new BitmaskMethodSecurityExpressionHandler(() -> masks);
+    }
+
+    static Stream<Arguments> principals() {
+        return Stream.of(
+                Arguments.of("anonymous", new AnonymousAuthenticationToken("key", "anonymousUser",
+                        AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"))),
+                Arguments.of("no authorities", authenticated()),
+                Arguments.of("user token", authenticated("ROLE_USER", "ROLE_users:read")),
+                Arguments.of("user entity", authenticated("ROLE_USER", "users:read")),
+                Arguments.of("admin token", authenticated("ROLE_ADMIN", "ROLE_users:read", "ROLE_users:write",
+                        "ROLE_users:delete", "ROLE_admin:access")),
+                Arguments.of("unknown authority", authenticated("ROLE_USER", "reports:export")),
+                Arguments.of("role-prefixed permission only", authenticated("ROLE_users:write")));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("principals")
+    void methodExpressionsMatchStringBasedEvaluation(String name, Authentication authentication) {
+        for (String expression : EXPRESSIONS) {
+            assertThat(evaluate(bitmaskHandler, expression, authentication))
+                    .as(expression)
+                    .isEqualTo(evaluate(stringHandler, expression, authentication));
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("principals")
+    void maskedTokensMatchStringBasedEvaluation(String name, Authentication authentication) {
+        Authentication masked = new MaskedAuthenticationToken(
+                authentication.getPrincipal(), authentication.getAuthorities(), masks.maskOf(authentication.getAuthorities()));
+        for (String expression : EXPRESSIONS) {
+            if (expression.contains("Authenticated") || expression.contains("isAnonymous")) {
+                continue;
+            }
+            assertThat(evaluate(bitmaskHandler, expression, masked))
+                    .as(expression)
+                    .isEqualTo(evaluate(stringHandler, expression, authentication));
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("principals")
+    void urlRulesMatchAuthorityAuthorizationManager(String name, Authentication authentication) {
+        for (String role : URL_ROLES) {
+            assertThat(masks.hasRole(role).authorize(() -> authentication, null).isGranted())
+                    .as(role)
+                    .isEqualTo(AuthorityAuthorizationManager.hasRole(role).authorize(() -> authentication, null).isGranted());
+        }
+    }
+
+    private static boolean evaluate(MethodSecurityExpressionHandler handler, String expression,
+                                    Authentication authentication) {
+        Expression parsed = handler.getExpressionParser().parseExpression(expression);
+        SimpleMethodInvocation invocation = new SimpleMethodInvocation(new Object(), toStringMethod());
+        return ExpressionUtils.evaluateAsBoolean(parsed, handler.createEvaluationContext(() -> authentication, invocation));
+    }
+
+    private static java.lang.reflect.Method toStringMethod() {
+        try {
+            return Object.class.getMethod("toString");
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Authentication authenticated(String... authorities) {
+        return UsernamePasswordAuthenticationToken.authenticated("user@example.com", null,
+                AuthorityUtils.createAuthorityList(authorities));
+    }
+
+    private static Set<GrantedAuthority> authorities(String... names) {
+        return Set.copyOf(AuthorityUtils.createAuthorityList(names));
+    }
+}
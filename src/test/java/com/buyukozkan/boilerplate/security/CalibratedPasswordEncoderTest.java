@@ -0,0 +1,132 @@
+package com.buyukozkan.boilerplate.security;
+
+import com.buyukozkan.boilerplate.security.CalibratedPasswordEncoder.Algorithm;
+import com.buyukozkan.boilerplate.security.CalibratedPasswordEncoder.WorkFactors;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalibratedPasswordEncoderTest {
+
+    // Cheapest settings, these tests are about formats and not about cost
+    private static final WorkFactors CHEAP = new WorkFactors(4, 64, 1, 1);
+
+    @Test
+    void legacyUnprefixedBcryptHashesStillMatchAndAreUpgraded() {
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(Algorithm.BCRYPT, CHEAP, true, 0);
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertThat(encoder.matches("secret", legacy)).isTrue();
+        assertThat(encoder.matches("wrong", legacy)).isFalse();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+    }
+
+    @Test
+    void newHashesRecordTheirAlgorithm() {
+        String bcrypt = new CalibratedPasswordEncoder(Algorithm.BCRYPT, CHEAP, true, 0).encode("secret");
+        String argon2 = new CalibratedPasswordEncoder(Algorithm.ARGON2, CHEAP, true, 0).encode("secret");
+
+        assertThat(bcrypt).startsWith("{bcrypt}$2a$04$");
+        assertThat(argon2).startsWith("{argon2}$argon2id$v=19$m=64,t=1,p=1$");
+    }
+
+    @Test
+    void hashesOfEitherAlgorithmMatchWhicheverIsSelected() {
+        CalibratedPasswordEncoder bcrypt = new CalibratedPasswordEncoder(Algorithm.BCRYPT, CHEAP, true, 0);
+        CalibratedPasswordEncoder argon2 = new CalibratedPasswordEncoder(Algorithm.ARGON2, CHEAP, true, 0);
+
+        assertThat(bcrypt.matches("secret", argon2.encode("secret"))).isTrue();
+        assertThat(argon2.matches("secret", bcrypt.encode("secret"))).isTrue();
+        assertThat(bcrypt.upgradeEncoding(argon2.encode("secret"))).isTrue();
+        assertThat(argon2.upgradeEncoding(bcrypt.encode("secret"))).isTrue();
+    }
+
+    @Test
+    void costsWithinTheToleranceBandAreKept() {
+        CalibratedPasswordEncoder current = bcrypt(6, 1);
+
+        assertThat(current.upgradeEncoding(current.encode("secret"))).isFalse();
+        // Nodes that calibrated one step apart keep each other's hashes
+        assertThat(current.upgradeEncoding(bcrypt(5, 1).encode("secret"))).isFalse();
+        assertThat(current.upgradeEncoding(bcrypt(7, 1).encode("secret"))).isFalse();
+        assertThat(current.upgradeEncoding(bcrypt(4, 1).encode("secret"))).isTrue();
+        assertThat(current.upgradeEncoding(bcrypt(8, 1).encode("secret"))).isTrue();
+        assertThat(bcrypt(6, 0).upgradeEncoding(bcrypt(5, 0).encode("secret"))).isTrue();
+    }
+
+    @Test
+    void argon2MemoryHasTheSameBandAndOtherParametersMustMatch() {
+        CalibratedPasswordEncoder current = argon2(256, 1, 1);
+
+        assertThat(current.upgradeEncoding(argon2(128, 1, 1).encode("secret"))).isFalse();
+        assertThat(current.upgradeEncoding(argon2(512, 1, 1).encode("secret"))).isFalse();
+        assertThat(current.upgradeEncoding(argon2(64, 1, 1).encode("secret"))).isTrue();
+        assertThat(current.upgradeEncoding(argon2(1024, 1, 1).encode("secret"))).isTrue();
+        assertThat(current.upgradeEncoding(argon2(256, 2, 1).encode("secret"))).isTrue();
+    }
+
+    @Test
+    void rehashingCanBeTurnedOff() {
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(Algorithm.ARGON2, CHEAP, false, 0);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isFalse();
+    }
+
+    @Test
+    void calibrationPicksTheLargestWorkFactorWithinTheBudget() {
+        // Each step doubles a 4 ms base: 4, 8, 16, 32, 64 ms for work factors 1 to 5
+        PasswordHashCalibrator.Result result = PasswordHashCalibrator.calibrate(
+                workFactor -> sleeping(Duration.ofMillis(4L << (workFactor - 1))),
+                workFactor -> workFactor + 1, 1, 10, Duration.ofMillis(40), 1);
+
+        assertThat(result.workFactor()).isEqualTo(4);
+        // 32 ms leaves no room for a doubling, so 64 ms is never measured
+        assertThat(result.measurements()).extracting(PasswordHashCalibrator.Measurement::workFactor)
+                .containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    void calibrationNeverGoesBelowTheMinimum() {
+        PasswordHashCalibrator.Result result = PasswordHashCalibrator.calibrate(
+                workFactor -> sleeping(Duration.ofMillis(10)),
+                workFactor -> workFactor + 1, 10, 31, Duration.ofMillis(1), 1);
+
+        assertThat(result.workFactor()).isEqualTo(10);
+    }
+
+    @Test
+    void configuredWorkFactorsSkipCalibration() {
+        CalibratedPasswordEncoder encoder = CalibratedPasswordEncoder.calibrated(Algorithm.ARGON2, CHEAP,
+                new CalibratedPasswordEncoder.Calibration(Duration.ofSeconds(10), 1, 4, 64, 1 << 20), true, 0);
+
+        assertThat(encoder.workFactors()).isEqualTo(CHEAP);
+    }
+
+    private static CalibratedPasswordEncoder bcrypt(int strength, int toleranceSteps) {
+        return new CalibratedPasswordEncoder(Algorithm.BCRYPT, new WorkFactors(strength, 64, 1, 1), true, toleranceSteps);
+    }
+
+    private static CalibratedPasswordEncoder argon2(int memoryKib, int iterations, int toleranceSteps) {
+        return new CalibratedPasswordEncoder(Algorithm.ARGON2, new WorkFactors(4, memoryKib, iterations, 1), true, toleranceSteps);
+    }
+
+    private static PasswordEncoder sleeping(Duration latency) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                LockSupport.parkNanos(latency.toNanos());
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+}
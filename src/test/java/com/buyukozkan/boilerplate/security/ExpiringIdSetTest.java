@@ -0,0 +1,54 @@
+package com.buyukozkan.boilerplate.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringIdSetTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final ExpiringIdSet set = new ExpiringIdSet(4, now::get);
+
+    @Test
+    void idsAreMembersUntilTheyExpire() {
+        UUID id = UUID.randomUUID();
+
+        assertThat(set.add(id, at(1_000))).isTrue();
+        assertThat(set.contains(id)).isTrue();
+        assertThat(set.contains(UUID.randomUUID())).isFalse();
+
+        now.addAndGet(1_000);
+        assertThat(set.contains(id)).isFalse();
+    }
+
+    @Test
+    void addingAPresentIdFailsUntilItExpired() {
+        UUID id = UUID.randomUUID();
+        set.add(id, at(1_000));
+
+        assertThat(set.add(id, at(5_000))).isFalse();
+        now.addAndGet(1_000);
+        assertThat(set.add(id, at(5_000))).isTrue();
+        assertThat(set.contains(id)).isTrue();
+    }
+
+    @Test
+    void writesSweepExpiredEntries() {
+        IntStream.range(0, 1_000).forEach(i -> set.add(UUID.randomUUID(), at(1_000)));
+        assertThat(set.size()).isEqualTo(1_000);
+
+        now.addAndGet(60_000);
+        IntStream.range(0, 4).forEach(i -> set.add(UUID.randomUUID(), at(1_000)));
+
+        assertThat(set.size()).isEqualTo(4);
+    }
+
+    private Instant at(long millisFromNow) {
+        return Instant.ofEpochMilli(now.get() + millisFromNow);
+    }
+}
@@ -0,0 +1,134 @@
+package com.buyukozkan.boilerplate.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Hs256TokenCodecTest {
+
+    private static final byte[] SECRET = Base64.getDecoder().decode("3SRc2bDRibfj92LJfSX0Jtel2z9PVRI8XhRtwhCab2s=");
+    private static final int CASES = 500;
+
+    private final SecretKey key = Keys.hmacShaKeyFor(SECRET);
+    private final JwtParser jjwtParser = Jwts.parser().verifyWith(key).build();
+    private final Hs256TokenCodec codec = new Hs256TokenCodec(SECRET);
+
+    @Test
+    void fastTokensParseIdenticallyWithJjwt() {
+        Random random = new Random(8);
+        for (int i = 0; i < CASES; i++) {
+            String subject = "u" + randomString(random, random.nextInt(40));
+            List<String> authorities = randomAuthorities(random);
+            long iat = Instant.now().getEpochSecond() - random.nextInt(1000);
+            long exp = Instant.now().getEpochSecond() + 60 + random.nextInt(1_000_000);
+
+            Claims claims = jjwtParser.parseSignedClaims(codec.sign(subject, authorities, iat, exp)).getPayload();
+
+            assertThat(claims.getSubject()).isEqualTo(subject);
+            assertThat(claims.get("authorities")).isEqualTo(authorities);
+            assertThat(claims.getIssuedAt().getTime()).isEqualTo(iat * 1000);
+            assertThat(claims.getExpiration().getTime()).isEqualTo(exp * 1000);
+            assertThat(claims.keySet()).containsExactly("sub", "authorities", "iat", "exp");
+        }
+    }
+
+    @Test
+    void jjwtTokensVerifyIdenticallyWithFastCodec() {
+        Random random = new Random(21);
+        for (int i = 0; i < CASES; i++) {
+            String subject = "u" + randomString(random, random.nextInt(40));
+            List<String> authorities = randomAuthorities(random);
+            Date exp = new Date((Instant.now().getEpochSecond() + 60 + random.nextInt(1_000_000)) * 1000);
+
+            String token = Jwts.builder()
+                    .subject(subject)
+                    .claim("authorities", authorities)
+                    .issuedAt(new Date())
+                    .expiration(exp)
+                    .signWith(key, Jwts.SIG.HS256)
+                    .compact();
+            VerifiedToken verified = codec.verify(token);
+
+            assertThat(verified).as(token).isNotNull();
+            assertThat(verified.subject()).isEqualTo(subject);
+            assertThat(verified.expiresAt()).isEqualTo(exp.toInstant());
+            assertThat(verified.authorities()).isEqualTo(authorities.stream()
+                    .filter(authority -> !authority.isBlank())
+                    .map(AuthorityInterner::role)
+                    .toList());
+        }
+    }
+
+    @Test
+    void tokensOutsideTheFixedLayoutAreLeftToJjwt() {
+        Date exp = new Date(System.currentTimeMillis() + 60_000);
+        String extraClaim = Jwts.builder().subject("a@example.com").claim("authorities", List.of())
+                .claim("tenant", "acme").expiration(exp).signWith(key, Jwts.SIG.HS256).compact();
+        String notBefore = Jwts.builder().subject("a@example.com").notBefore(new Date())
+                .expiration(exp).signWith(key, Jwts.SIG.HS256).compact();
+        String hs384 = Jwts.builder().subject("a@example.com").expiration(exp)
+                .signWith(Keys.hmacShaKeyFor(new byte[48]), Jwts.SIG.HS384).compact();
+        long now = Instant.now().getEpochSecond();
+        String expired = codec.sign("a@example.com", List.of(), now - 120, now - 60);
+
+        assertThat(codec.verify(extraClaim)).isNull();
+        assertThat(codec.verify(notBefore)).isNull();
+        assertThat(codec.verify(hs384)).isNull();
+        assertThat(codec.verify(expired)).isNull();
+        assertThat(codec.verify("not-a-token")).isNull();
+    }
+
+    @Test
+    void rejectsForgedSignaturesAndNonCanonicalEncodings() {
+        long now = Instant.now().getEpochSecond();
+        String token = codec.sign("a@example.com", List.of("ROLE_USER"), now, now + 60);
+        String forged = codec.sign("admin@example.com", List.of("ROLE_ADMIN"), now, now + 60);
+        String spliced = forged.substring(0, forged.lastIndexOf('.')) + token.substring(token.lastIndexOf('.'));
+
+        char last = token.charAt(token.length() - 1);
+        String nonCanonical = token.substring(0, token.length() - 1) + (char) (last + 1);
+
+        assertThatThrownBy(() -> codec.verify(spliced)).isInstanceOf(SignatureException.class);
+        assertThat(codec.verify(nonCanonical)).isNull();
+        assertThat(codec.verify(token).authorities()).containsExactly(new SimpleGrantedAuthority("ROLE_USER"));
+    }
+
+    private static List<String> randomAuthorities(Random random) {
+        List<String> authorities = new ArrayList<>();
+        int count = random.nextInt(12);
+        for (int i = 0; i < count; i++) {
+            authorities.add(random.nextInt(10) == 0 ? " " : randomString(random, 1 + random.nextInt(24)));
+        }
+        return authorities;
+    }
+
+    private static String randomString(Random random, int length) {
+        String alphabet = "abcXYZ019@.:_-+ \"\\/\n\t\u0001çğü€😀";
+        StringBuilder value = new StringBuilder(length);
+        while (value.length() < length) {
+            int index = random.nextInt(alphabet.length());
+            char c = alphabet.charAt(index);
+            if (Character.isHighSurrogate(c)) {
+                value.append(c).append(alphabet.charAt(index + 1));
+            } else if (!Character.isLowSurrogate(c)) {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package com.buyukozkan.boilerplate.security;
+
+import com.buyukozkan.boilerplate.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTest {
+
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    private final AtomicLong clock = new AtomicLong(42);
+
+    private LoginRateLimiter limiter(int perClient, int perAccount, int refreshPerClient) {
+        return new LoginRateLimiter(true,
+                new LoginRateLimiter.Limit(perClient, MINUTE),
+                new LoginRateLimiter.Limit(perAccount, MINUTE),
+                new LoginRateLimiter.Limit(refreshPerClient, MINUTE),
+                1_000, clock::get);
+    }
+
+    @Test
+    void allowsBurstUpToCapacityThenRejectsWithRetryAfter() {
+        LoginRateLimiter limiter = limiter(100, 3, 100);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.checkLogin("10.0.0.1", "user@example.com");
+        }
+
+        assertThatThrownBy(() -> limiter.checkLogin("10.0.0.1", "user@example.com"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .extracting("retryAfterSeconds").isEqualTo(20L);
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() {
+        LoginRateLimiter limiter = limiter(100, 3, 100);
+        for (int i = 0; i < 3; i++) {
+            limiter.checkLogin("10.0.0.1", "user@example.com");
+        }
+
+        clock.addAndGet(Duration.ofSeconds(19).toNanos());
+        assertThatThrownBy(() -> limiter.checkLogin("10.0.0.1", "user@example.com"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .extracting("retryAfterSeconds").isEqualTo(1L);
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        limiter.checkLogin("10.0.0.1", "user@example.com");
+        assertThatThrownBy(() -> limiter.checkLogin("10.0.0.1", "user@example.com"))
+                .isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void accountBucketIsSharedAcrossClientsAndIgnoresCase() {
+        LoginRateLimiter limiter = limiter(100, 2, 100);
+
+        limiter.checkLogin("10.0.0.1", "User@Example.com");
+        limiter.checkLogin("10.0.0.2", " user@example.com ");
+
+        assertThatThrownBy(() -> limiter.checkLogin("10.0.0.3", "USER@EXAMPLE.COM"))
+                .isInstanceOf(RateLimitExceededException.class);
+        limiter.checkLogin("10.0.0.3", "other@example.com");
+    }
+
+    @Test
+    void clientBucketIsSharedAcrossAccounts() {
+        LoginRateLimiter limiter = limiter(2, 100, 100);
+
+        limiter.checkLogin("10.0.0.1", "a@example.com");
+        limiter.checkLogin("10.0.0.1", "b@example.com");
+
+        assertThatThrownBy(() -> limiter.checkLogin("10.0.0.1", "c@example.com"))
+                .isInstanceOf(RateLimitExceededException.class);
+        limiter.checkLogin("10.0.0.2", "c@example.com");
+    }
+
+    @Test
+    void refreshHasItsOwnClientBucket() {
+        LoginRateLimiter limiter = limiter(1, 100, 2);
+
+        limiter.checkLogin("10.0.0.1", "a@example.com");
+        limiter.checkRefresh("10.0.0.1");
+        limiter.checkRefresh("10.0.0.1");
+
+        assertThatThrownBy(() -> limiter.checkRefresh("10.0.0.1"))
+                .isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void disabledLimiterNeverRejects() {
+        LoginRateLimiter limiter = new LoginRateLimiter(false,
+                new LoginRateLimiter.Limit(1, MINUTE),
+                new LoginRateLimiter.Limit(1, MINUTE),
+                new LoginRateLimiter.Limit(1, MINUTE),
+                1_000, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.checkLogin("10.0.0.1", "user@example.com");
+            limiter.checkRefresh("10.0.0.1");
+        }
+    }
+
+    @Test
+    void concurrentAttemptsNeverExceedCapacity() {
+        LoginRateLimiter limiter = limiter(1_000, 50, 100);
+        AtomicInteger allowed = new AtomicInteger();
+
+        CompletableFuture.allOf(IntStream.range(0, 8)
+                .mapToObj(thread -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        try {
+                            limiter.checkLogin("10.0.0." + thread, "user@example.com");
+                            allowed.incrementAndGet();
+                        } catch (RateLimitExceededException ignored) {
+                            // expected once the shared account bucket is empty
+                        }
+                    }
+                }))
+                .toArray(CompletableFuture[]::new)).join();
+
+        assertThat(allowed).hasValue(50);
+    }
+
+    @Test
+    void countsRejectionsPerEndpointAndScope() {
+        LoginRateLimiter limiter = limiter(1, 100, 1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        limiter.bindTo(registry);
+
+        limiter.checkLogin("10.0.0.1", "a@example.com");
+        assertThatThrownBy(() -> limiter.checkLogin("10.0.0.1", "a@example.com"))
+                .isInstanceOf(RateLimitExceededException.class);
+        limiter.checkRefresh("10.0.0.1");
+        assertThatThrownBy(() -> limiter.checkRefresh("10.0.0.1"))
+                .isInstanceOf(RateLimitExceededException.class);
+
+        assertThat(registry.get("auth.throttle.rejected").tags("endpoint", "login", "scope", "client")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("auth.throttle.rejected").tags("endpoint", "login", "scope", "account")
+                .functionCounter().count()).isZero();
+        assertThat(registry.get("auth.throttle.rejected").tags("endpoint", "refresh", "scope", "client")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("auth.throttle.tracked.keys").tags("endpoint", "login", "scope", "client")
+                .gauge().value()).isEqualTo(1);
+    }
+}
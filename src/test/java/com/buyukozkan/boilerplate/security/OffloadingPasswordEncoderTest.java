@@ -0,0 +1,89 @@
+package com.buyukozkan.boilerplate.security;
+
+import com.buyukozkan.boilerplate.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class OffloadingPasswordEncoderTest {
+
+    @Test
+    void delegatesHashingAndVerification() {
+        try (OffloadingPasswordEncoder encoder = new OffloadingPasswordEncoder(
+                new BlockingEncoder(new CountDownLatch(0)), 1, 1, 1)) {
+            assertThat(encoder.encode("secret")).isEqualTo("secret");
+            assertThat(encoder.matches("secret", "secret")).isTrue();
+        }
+    }
+
+    @Test
+    void asyncVariantsShareThePoolAndItsLimit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (OffloadingPasswordEncoder encoder = new OffloadingPasswordEncoder(new BlockingEncoder(release), 1, 1, 3)) {
+            CompletableFuture<String> running = encoder.encodeAsync("a");
+            await().until(() -> encoder.queueDepth() == 0 && !running.isDone());
+            CompletableFuture<Boolean> queued = encoder.matchesAsync("b", "b");
+            await().until(() -> encoder.queueDepth() == 1);
+
+            assertThatThrownBy(() -> encoder.encodeAsync("c"))
+                    .isInstanceOf(PasswordHashingRejectedException.class);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void rejectsWorkOnceTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new BlockingEncoder(release);
+
+        try (OffloadingPasswordEncoder encoder = new OffloadingPasswordEncoder(blocking, 1, 1, 3)) {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            encoder.bindTo(registry);
+
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+            await().until(() -> registry.get("auth.password.hashing.active").gauge().value() == 1);
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+            await().until(() -> encoder.queueDepth() == 1);
+
+            assertThatThrownBy(() -> encoder.encode("c"))
+                    .isInstanceOf(PasswordHashingRejectedException.class)
+                    .extracting("retryAfterSeconds").isEqualTo(3L);
+            assertThat(registry.get("auth.password.hashing.rejected").functionCounter().count()).isEqualTo(1);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+            assertThat(registry.get("auth.password.hashing.wait").functionTimer().count()).isEqualTo(2);
+        }
+    }
+
+    private record BlockingEncoder(CountDownLatch release) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.buyukozkan.boilerplate.security;
+
+import com.buyukozkan.boilerplate.security.AuthMetrics.TokenRejection;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenPrecheckTest {
+
+    private final TokenPrecheck precheck = new TokenPrecheck(200, Set.of("HS256"), Set.of("2024-01"));
+
+    @Test
+    void acceptsWellFormedTokensWithAKnownHeader() {
+        assertThat(precheck.check(header("{\"alg\":\"HS256\"}") + ".eyJzdWIiOiJhIn0.c2ln")).isNull();
+        assertThat(precheck.check(header("{\"typ\":\"JWT\",\"alg\":\"HS256\",\"kid\":\"2024-01\"}") + ".e30.c2ln"))
+                .isNull();
+    }
+
+    @Test
+    void rejectsTokensOverTheLengthCap() {
+        assertThat(precheck.check(header("{\"alg\":\"HS256\"}") + ".e30." + "a".repeat(200)))
+                .isEqualTo(TokenRejection.TOO_LONG);
+    }
+
+    @Test
+    void rejectsAnythingButThreeNonEmptyBase64UrlSegments() {
+        String header = header("{\"alg\":\"HS256\"}");
+
+        assertThat(precheck.check("")).isEqualTo(TokenRejection.MALFORMED);
+        assertThat(precheck.check(header + ".e30")).isEqualTo(TokenRejection.MALFORMED);
+        assertThat(precheck.check(header + ".e30.c2ln.c2ln")).isEqualTo(TokenRejection.MALFORMED);
+        assertThat(precheck.check(header + "..c2ln")).isEqualTo(TokenRejection.MALFORMED);
+        assertThat(precheck.check(header + ".e30.")).isEqualTo(TokenRejection.MALFORMED);
+        assertThat(precheck.check(".e30.c2ln")).isEqualTo(TokenRejection.MALFORMED);
+        assertThat(precheck.check(header + ".e30=.c2ln")).isEqualTo(TokenRejection.MALFORMED);
+        assertThat(precheck.check(header + ".e3+0.c2ln")).isEqualTo(TokenRejection.MALFORMED);
+    }
+
+    @Test
+    void rejectsUnknownAlgorithmsAndKeys() {
+        assertThat(precheck.check(header("{\"alg\":\"none\"}") + ".e30.c2ln")).isEqualTo(TokenRejection.UNKNOWN_HEADER);
+        assertThat(precheck.check(header("{\"alg\":\"RS256\"}") + ".e30.c2ln")).isEqualTo(TokenRejection.UNKNOWN_HEADER);
+        assertThat(precheck.check(header("{\"alg\":\"HS256\",\"kid\":\"old\"}") + ".e30.c2ln"))
+                .isEqualTo(TokenRejection.UNKNOWN_HEADER);
+        assertThat(precheck.check(header("{\"kid\":\"2024-01\"}") + ".e30.c2ln")).isEqualTo(TokenRejection.UNKNOWN_HEADER);
+        assertThat(precheck.check(header("not json") + ".e30.c2ln")).isEqualTo(TokenRejection.UNKNOWN_HEADER);
+        assertThat(precheck.check("a.e30.c2ln")).isEqualTo(TokenRejection.UNKNOWN_HEADER);
+    }
+
+    @Test
+    void issuedHeadersAreRecognisedWithoutDecoding() {
+        // Past the length up to which other headers are decoded at all
+        String issued = header("{\"kid\":\"" + "k".repeat(200) + "\",\"alg\":\"ES256\"}");
+        TokenPrecheck withIssued = new TokenPrecheck(1_000, Set.of("HS256", "ES256"), Set.of("k".repeat(200)), Set.of(issued));
+
+        assertThat(withIssued.check(issued + ".e30.c2ln")).isNull();
+        assertThat(withIssued.check(header("{\"alg\":\"HS256\"}") + ".e30.c2ln")).isNull();
+        assertThat(new TokenPrecheck(1_000, Set.of("HS256", "ES256"), Set.of("k".repeat(200))).check(issued + ".e30.c2ln"))
+                .isEqualTo(TokenRejection.UNKNOWN_HEADER);
+    }
+
+    private static String header(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
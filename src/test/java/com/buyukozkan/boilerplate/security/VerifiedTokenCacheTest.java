@@ -0,0 +1,37 @@
+package com.buyukozkan.boilerplate.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+    private final AtomicInteger verifications = new AtomicInteger();
+    private final Function<String, VerifiedToken> verifier = token -> {
+        verifications.incrementAndGet();
+        return new VerifiedToken("user@example.com", Instant.now().plusSeconds(60), List.of(), "kid-1");
+    };
+
+    @Test
+    void trustedHitsAreNotVerifiedAgain() {
+        cache.get("token", verifier, verified -> true);
+        cache.get("token", verifier, verified -> true);
+
+        assertThat(verifications).hasValue(1);
+    }
+
+    @Test
+    void hitsNoLongerTrustedAreVerifiedAgain() {
+        cache.get("token", verifier, verified -> true);
+        VerifiedToken again = cache.get("token", verifier, verified -> !"kid-1".equals(verified.keyId()));
+
+        assertThat(verifications).hasValue(2);
+        assertThat(again.keyId()).isEqualTo("kid-1");
+    }
+}
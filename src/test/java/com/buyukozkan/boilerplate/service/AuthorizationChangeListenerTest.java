@@ -0,0 +1,67 @@
+package com.buyukozkan.boilerplate.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AuthorizationChangeListenerTest {
+
+    private final RoleCatalog roleCatalog = mock(RoleCatalog.class);
+    private final RefreshTokenStore refreshTokenStore = mock(RefreshTokenStore.class);
+    private final AuthorizationChangeListener listener = new AuthorizationChangeListener(
+            mock(DataSource.class), roleCatalog, refreshTokenStore, Duration.ofSeconds(10), Duration.ofSeconds(5));
+
+    @Test
+    void catalogChangesReloadOncePerBatch() {
+        listener.handle(List.of("roles", "role_permissions", "permissions"));
+
+        verify(roleCatalog, times(1)).reload();
+        verify(refreshTokenStore, never()).reloadRevocations();
+    }
+
+    @Test
+    void revokedFamiliesReachTheRefreshTokenStore() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        listener.handle(List.of("refresh_token_families:" + first + "," + second, "refresh_token_families:" + first));
+
+        verify(refreshTokenStore).revoked(Set.of(first, second));
+        verify(refreshTokenStore, never()).reloadRevocations();
+        verify(roleCatalog, never()).reload();
+    }
+
+    @Test
+    void payloadWithoutIdsReloadsEveryRevocation() {
+        listener.handle(List.of("refresh_token_families:" + UUID.randomUUID(), "refresh_token_families"));
+
+        verify(refreshTokenStore).reloadRevocations();
+        verify(roleCatalog, never()).reload();
+    }
+
+    @Test
+    void fullReloadClearsEverythingAndIsCounted() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        listener.bindTo(registry);
+
+        listener.reloadAll();
+        listener.handle(List.of("roles"));
+
+        verify(roleCatalog, times(2)).reload();
+        verify(refreshTokenStore).reloadRevocations();
+        assertThat(registry.get("auth.invalidation.full.reloads").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("auth.invalidation.notifications").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("auth.invalidation.connected").gauge().value()).isZero();
+    }
+}
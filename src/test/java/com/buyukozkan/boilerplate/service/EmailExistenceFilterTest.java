@@ -0,0 +1,138 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmailExistenceFilterTest {
+
+    private final Set<String> emails = new LinkedHashSet<>();
+    private final AtomicInteger databaseLookups = new AtomicInteger();
+    private EmailExistenceFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.count()).thenAnswer(invocation -> (long) emails.size());
+        when(userRepository.streamAllEmails()).thenAnswer(invocation -> List.copyOf(emails).stream());
+        filter = new EmailExistenceFilter(userRepository, TransactionOperations.withoutTransaction());
+        ReflectionTestUtils.setField(filter, "rebuildExecutor", (Executor) Runnable::run);
+    }
+
+    @Test
+    void everyLookupGoesToTheDatabaseUntilTheFilterIsBuilt() {
+        filter.add("known@example.com");
+
+        assertThat(filter.exists("new@example.com", this::inDatabase)).isFalse();
+        assertThat(databaseLookups).hasValue(1);
+    }
+
+    @Test
+    void existingEmailsAreNeverReportedMissing() {
+        users(20_000);
+        filter.build();
+
+        assertThat(emails).allMatch(email -> filter.exists(email, this::inDatabase));
+        assertThat(databaseLookups).hasValue(emails.size());
+    }
+
+    @Test
+    void mostNewEmailsSkipTheDatabase() {
+        users(20_000);
+        filter.build();
+
+        int lookups = 100_000;
+        IntStream.range(0, lookups).forEach(i -> filter.exists("new-" + i + "@example.com", this::inDatabase));
+
+        assertThat(filter.observedFalsePositiveRate()).isLessThan(0.02);
+        assertThat(databaseLookups.get()).isLessThan(lookups / 50);
+    }
+
+    @Test
+    void addedEmailsAreChecked() {
+        filter.build();
+        filter.add("fresh@example.com");
+        emails.add("fresh@example.com");
+
+        assertThat(filter.exists("fresh@example.com", this::inDatabase)).isTrue();
+        assertThat(databaseLookups).hasValue(1);
+    }
+
+    @Test
+    void asyncLookupSkipsTheQueryForNewEmails() {
+        users(1_000);
+        filter.build();
+
+        assertThat(filter.existsAsync("user-1@example.com", email -> Mono.fromSupplier(() -> inDatabase(email))).block()).isTrue();
+        assertThat(filter.existsAsync("new@example.com", email -> Mono.fromSupplier(() -> inDatabase(email))).block()).isFalse();
+        assertThat(databaseLookups).hasValue(1);
+    }
+
+    @Test
+    void emailsAreComparedCaseInsensitively() {
+        emails.add("mixed.case@example.com");
+        filter.build();
+        filter.add("Added@Example.com");
+
+        assertThat(filter.exists("Mixed.Case@Example.COM", email -> true)).isTrue();
+        assertThat(filter.exists("added@example.com", email -> true)).isTrue();
+    }
+
+    @Test
+    void filterIsRebuiltLargerOnceItFillsUp() {
+        filter.build();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        double initialSize = registry.get("auth.email.filter.size").gauge().value();
+
+        IntStream.range(0, 50_000).forEach(i -> {
+            String email = "user-" + i + "@example.com";
+            emails.add(email);
+            filter.add(email);
+        });
+
+        assertThat(registry.get("auth.email.filter.rebuilds").functionCounter().count()).isGreaterThan(1);
+        assertThat(registry.get("auth.email.filter.size").gauge().value()).isGreaterThan(initialSize);
+        assertThat(registry.get("auth.email.filter.false.positive.rate.expected").gauge().value()).isLessThan(0.02);
+    }
+
+    @Test
+    void memoryBudgetCapsTheFilterAndStopsRebuilds() {
+        ReflectionTestUtils.setField(filter, "maxMemory", DataSize.ofKilobytes(1));
+        users(5_000);
+        filter.build();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+
+        IntStream.range(0, 1_000).forEach(i -> filter.add("more-" + i + "@example.com"));
+
+        assertThat(registry.get("auth.email.filter.size").gauge().value()).isEqualTo(1024);
+        assertThat(registry.get("auth.email.filter.rebuilds").functionCounter().count()).isEqualTo(1);
+        assertThat(emails).allMatch(email -> filter.exists(email, this::inDatabase));
+    }
+
+    private void users(int count) {
+        IntStream.range(0, count).forEach(i -> emails.add("user-" + i + "@example.com"));
+    }
+
+    private boolean inDatabase(String email) {
+        databaseLookups.incrementAndGet();
+        return emails.contains(email);
+    }
+}
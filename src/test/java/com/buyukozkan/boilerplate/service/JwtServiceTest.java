@@ -0,0 +1,295 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.entity.Permission;
+import com.buyukozkan.boilerplate.repository.PermissionRepository;
+import com.buyukozkan.boilerplate.repository.RoleRepository;
+import com.buyukozkan.boilerplate.repository.SigningKeyRepository;
+import com.buyukozkan.boilerplate.security.AuthMetrics;
+import com.buyukozkan.boilerplate.security.AuthorityClaimCodec;
+import com.buyukozkan.boilerplate.security.RefreshToken;
+import com.buyukozkan.boilerplate.security.SigningAlgorithm;
+import com.buyukozkan.boilerplate.security.VerifiedToken;
+import com.buyukozkan.boilerplate.security.VerifiedTokenCache;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static com.buyukozkan.boilerplate.service.RoleFixtures.permission;
+import static com.buyukozkan.boilerplate.service.RoleFixtures.role;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "3SRc2bDRibfj92LJfSX0Jtel2z9PVRI8XhRtwhCab2s=";
+
+    private VerifiedTokenCache cache;
+    private SimpleMeterRegistry meterRegistry;
+    private RoleCatalog roleCatalog;
+    private JwtService jwtService;
+    private SigningKeyRing signingKeys;
+
+    @BeforeEach
+    void setUp() {
+        Permission read = permission(1L, "users:read");
+        Permission write = permission(2L, "users:write");
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        when(roleRepository.findAllWithPermissions()).thenReturn(List.of(
+                role(1L, "USER", read),
+                role(2L, "ADMIN", read, write)));
+        when(permissionRepository.findAll()).thenReturn(List.of(read, write));
+        roleCatalog = new RoleCatalog(roleRepository, permissionRepository);
+        roleCatalog.reload();
+
+        cache = new VerifiedTokenCache(true, 100);
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = jwtService(new SigningKeyRing(mock(SigningKeyRepository.class)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (signingKeys != null) {
+            signingKeys.shutdown();
+        }
+    }
+
+    private JwtService jwtService(SigningKeyRing ring) {
+        JwtService service = new JwtService(cache, new AuthorityClaimCodec(roleCatalog), new AuthMetrics(meterRegistry), ring);
+        ReflectionTestUtils.setField(service, "secret", SECRET);
+        ReflectionTestUtils.setField(service, "accessTokenExpiration", 60_000L);
+        ReflectionTestUtils.setField(service, "refreshTokenExpiration", 120_000L);
+        service.init();
+        return service;
+    }
+
+    @Test
+    void verifyReturnsSubjectExpiryAndPrefixedAuthorities() {
+        String token = jwtService.generateAccessToken("user@example.com",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("users:read")));
+
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertThat(verified.subject()).isEqualTo("user@example.com");
+        assertThat(verified.isExpired()).isFalse();
+        assertThat(verified.authorities()).extracting(SimpleGrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_users:read");
+    }
+
+    @Test
+    void verifiedTokensAreServedFromCache() {
+        String token = jwtService.generateAccessToken("user@example.com", List.of());
+
+        VerifiedToken first = jwtService.verify(token);
+        VerifiedToken second = jwtService.verify(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void tamperedTokensAreRejectedAndNotCached() {
+        String token = jwtService.generateAccessToken("user@example.com", List.of());
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtService.verify(tampered)).isInstanceOf(JwtException.class);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void bitsetTokensDecodeToTheSameAuthoritiesAsListTokens() {
+        List<GrantedAuthority> admin = List.copyOf(roleCatalog.authoritiesOf("ADMIN"));
+        String listToken = jwtService.generateAccessToken("admin@example.com", admin);
+
+        ReflectionTestUtils.setField(jwtService, "authoritiesFormat", JwtService.AuthoritiesFormat.BITSET);
+        String bitsetToken = jwtService.generateAccessToken("admin@example.com", admin);
+
+        assertThat(payload(bitsetToken)).contains("\"authz\"").doesNotContain("\"authorities\"");
+        assertThat(bitsetToken.length()).isLessThan(listToken.length());
+        assertThat(jwtService.extractAuthorities(bitsetToken))
+                .containsExactlyInAnyOrderElementsOf(jwtService.extractAuthorities(listToken));
+    }
+
+    @Test
+    void bitsetDecodingSharesAuthorityListsAcrossTokens() {
+        ReflectionTestUtils.setField(jwtService, "authoritiesFormat", JwtService.AuthoritiesFormat.BITSET);
+        List<GrantedAuthority> user = List.copyOf(roleCatalog.authoritiesOf("USER"));
+
+        String first = jwtService.generateAccessToken("a@example.com", user);
+        String second = jwtService.generateAccessToken("b@example.com", user);
+
+        assertThat(jwtService.extractAuthorities(first)).isSameAs(jwtService.extractAuthorities(second));
+    }
+
+    @Test
+    void unknownAuthoritiesFallBackToTheStringList() {
+        ReflectionTestUtils.setField(jwtService, "authoritiesFormat", JwtService.AuthoritiesFormat.BITSET);
+
+        String token = jwtService.generateAccessToken("user@example.com",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("reports:export")));
+
+        assertThat(payload(token)).contains("\"authorities\"");
+        assertThat(jwtService.extractAuthorities(token)).extracting(SimpleGrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_reports:export");
+    }
+
+    @Test
+    void fastCodecTokensAreInterchangeableWithJjwtTokens() {
+        List<GrantedAuthority> admin = List.copyOf(roleCatalog.authoritiesOf("ADMIN"));
+        String jjwtToken = jwtService.generateAccessToken("admin@example.com", admin);
+
+        ReflectionTestUtils.setField(jwtService, "fastCodecEnabled", true);
+        jwtService.init();
+        String fastToken = jwtService.generateAccessToken("admin@example.com", admin);
+
+        assertThat(jwtService.verify(fastToken).subject()).isEqualTo("admin@example.com");
+        assertThat(jwtService.extractAuthorities(fastToken))
+                .containsExactlyInAnyOrderElementsOf(jwtService.extractAuthorities(jjwtToken));
+    }
+
+    @Test
+    void refreshTokensCarryTheirFamilyAndId() {
+        UUID familyId = UUID.randomUUID();
+        UUID tokenId = UUID.randomUUID();
+        ReflectionTestUtils.setField(jwtService, "fastCodecEnabled", true);
+        jwtService.init();
+
+        RefreshToken verified = jwtService.verifyRefreshToken(jwtService.generateRefreshToken("user@example.com",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), familyId, tokenId));
+
+        assertThat(verified.subject()).isEqualTo("user@example.com");
+        assertThat(verified.familyId()).isEqualTo(familyId);
+        assertThat(verified.tokenId()).isEqualTo(tokenId);
+        assertThat(verified.authorities()).extracting(SimpleGrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void accessAndRefreshTokensAreNotInterchangeable() {
+        String access = jwtService.generateAccessToken("user@example.com", List.of());
+        String refresh = jwtService.generateRefreshToken("user@example.com", List.of(),
+                UUID.randomUUID(), UUID.randomUUID());
+
+        assertThatThrownBy(() -> jwtService.verifyRefreshToken(access)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtService.verify(refresh)).isInstanceOf(JwtException.class);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void verificationsAreTimedByOutcome() {
+        String valid = jwtService.generateAccessToken("user@example.com", List.of());
+        jwtService.verify(valid);
+        jwtService.verify(valid);
+
+        String tampered = valid.substring(0, valid.length() - 2) + (valid.endsWith("A") ? "BB" : "AA");
+        assertThatThrownBy(() -> jwtService.verify(tampered)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtService.verify("not-a-token")).isInstanceOf(JwtException.class);
+
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", -60_000L);
+        String expired = jwtService.generateAccessToken("user@example.com", List.of());
+        assertThatThrownBy(() -> jwtService.verify(expired)).isInstanceOf(ExpiredJwtException.class);
+
+        assertThat(verifications("valid")).isEqualTo(2);
+        assertThat(verifications("bad_signature")).isEqualTo(1);
+        assertThat(verifications("malformed")).isEqualTo(1);
+        assertThat(verifications("expired")).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.token.sign").tag("type", "access").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void structurallyInvalidTokensAreRejectedBeforeTheCache() {
+        String unsigned = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.US_ASCII)) + ".e30.c2ln";
+
+        assertThatThrownBy(() -> jwtService.verify("x".repeat(5_000))).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtService.verify(unsigned)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtService.verifyRefreshToken("a.b")).isInstanceOf(JwtException.class);
+
+        assertThat(cache.size()).isZero();
+        assertThat(meterRegistry.get("auth.token.rejected").tag("reason", "too_long").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.token.rejected").tag("reason", "unknown_header").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.token.rejected").tag("reason", "malformed").counter().count()).isEqualTo(1);
+        assertThat(verifications("malformed")).isEqualTo(3);
+    }
+
+    @Test
+    void asymmetricAccessTokensNameTheirKey() {
+        for (SigningAlgorithm algorithm : List.of(SigningAlgorithm.ES256, SigningAlgorithm.EDDSA)) {
+            signingKeys = SigningKeyRingTest.started(algorithm);
+            jwtService = jwtService(signingKeys);
+            String kid = signingKeys.keys().current().kid();
+
+            String token = jwtService.generateAccessToken("user@example.com", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+            assertThat(header(token)).contains("\"kid\":\"" + kid + "\"", "\"alg\":\"" + algorithm.jwsName() + "\"");
+            assertThat(jwtService.verify(token).subject()).isEqualTo("user@example.com");
+            signingKeys.shutdown();
+        }
+    }
+
+    @Test
+    void asymmetricModeRefusesHs256AccessTokensButKeepsHs256RefreshTokens() {
+        String hs256Access = jwtService.generateAccessToken("user@example.com", List.of());
+        signingKeys = SigningKeyRingTest.started(SigningAlgorithm.ES256);
+        jwtService = jwtService(signingKeys);
+        UUID familyId = UUID.randomUUID();
+
+        String refresh = jwtService.generateRefreshToken("user@example.com", List.of(), familyId, UUID.randomUUID());
+
+        assertThatThrownBy(() -> jwtService.verify(hs256Access)).isInstanceOf(JwtException.class);
+        assertThat(header(refresh)).doesNotContain("kid");
+        assertThat(jwtService.verifyRefreshToken(refresh).familyId()).isEqualTo(familyId);
+    }
+
+    @Test
+    void tokensOfUnknownKeysAreRejectedBeforeVerification() {
+        signingKeys = SigningKeyRingTest.started(SigningAlgorithm.ES256);
+        jwtService = jwtService(signingKeys);
+        String token = jwtService.generateAccessToken("user@example.com", List.of());
+        SigningKeyRing otherRing = SigningKeyRingTest.started(SigningAlgorithm.ES256);
+        String foreign = jwtService(otherRing).generateAccessToken("user@example.com", List.of());
+        otherRing.shutdown();
+
+        assertThat(jwtService.verify(token).subject()).isEqualTo("user@example.com");
+        assertThatThrownBy(() -> jwtService.verify(foreign)).isInstanceOf(JwtException.class);
+        assertThat(meterRegistry.get("auth.token.rejected").tag("reason", "unknown_header").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void cachedTokensStopAuthenticatingOnceTheirKeyLeavesTheRing() {
+        signingKeys = SigningKeyRingTest.started(SigningAlgorithm.ES256);
+        jwtService = jwtService(signingKeys);
+        String token = jwtService.generateAccessToken("user@example.com", List.of());
+        assertThat(jwtService.verify(token).keyId()).isEqualTo(signingKeys.keys().current().kid());
+
+        SigningKeyRing successor = SigningKeyRingTest.started(SigningAlgorithm.ES256);
+        ReflectionTestUtils.setField(signingKeys, "keys", successor.keys());
+        successor.shutdown();
+
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(JwtException.class);
+    }
+
+    private long verifications(String outcome) {
+        return meterRegistry.get("auth.token.verify").tag("outcome", outcome).timer().count();
+    }
+
+    private static String header(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.split("\\.")[0]), StandardCharsets.UTF_8);
+    }
+
+    private static String payload(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.split("\\.")[1]), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,146 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.exception.InvalidTokenException;
+import com.buyukozkan.boilerplate.repository.RefreshTokenRepository;
+import com.buyukozkan.boilerplate.repository.RefreshTokenRepository.Rotation;
+import com.buyukozkan.boilerplate.repository.RefreshTokenRepository.RotationResult;
+import com.buyukozkan.boilerplate.security.RefreshToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenStoreTest {
+
+    private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+    private final RefreshTokenStore store = new RefreshTokenStore(repository);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(store, "refreshTokenExpiration", 600_000L);
+        // Long enough that only explicit flush() calls write
+        ReflectionTestUtils.setField(store, "flushInterval", Duration.ofHours(1));
+        store.init();
+        store.bindTo(registry);
+        when(repository.recordRotations(anyList())).thenReturn(new RotationResult(Set.of(), Set.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void rotationsAreWrittenInBatchesOffTheRequestPath() {
+        UUID familyId = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        store.rotate(token(familyId, first), second);
+        store.rotate(token(familyId, second), third);
+        verify(repository, never()).recordRotations(anyList());
+        assertThat(registry.get("auth.refresh.writes.pending").gauge().value()).isEqualTo(2);
+
+        store.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Rotation>> batch = ArgumentCaptor.forClass(List.class);
+        verify(repository).recordRotations(batch.capture());
+        assertThat(batch.getValue()).extracting(Rotation::used)
+                .containsExactly(RefreshTokenStore.hash(first), RefreshTokenStore.hash(second));
+        assertThat(batch.getValue()).extracting(Rotation::issued)
+                .containsExactly(RefreshTokenStore.hash(second), RefreshTokenStore.hash(third));
+        assertThat(registry.get("auth.refresh.rotations").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void presentingAConsumedTokenRevokesTheFamily() {
+        UUID familyId = UUID.randomUUID();
+        UUID tokenId = UUID.randomUUID();
+        store.rotate(token(familyId, tokenId), UUID.randomUUID());
+
+        assertThatThrownBy(() -> store.rotate(token(familyId, tokenId), UUID.randomUUID()))
+                .isInstanceOf(InvalidTokenException.class);
+
+        verify(repository).revokeFamilies(eq(List.of(familyId)), any());
+        // The legitimate successor dies with the family
+        assertThatThrownBy(() -> store.rotate(token(familyId, UUID.randomUUID()), UUID.randomUUID()))
+                .isInstanceOf(InvalidTokenException.class);
+        assertThat(registry.get("auth.refresh.reuse").tag("detected", "memory").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("auth.refresh.revoked.rejected").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void replaysFoundByTheBatchWriteRevokeTheFamily() {
+        UUID replayed = UUID.randomUUID();
+        UUID revokedElsewhere = UUID.randomUUID();
+        when(repository.recordRotations(anyList()))
+                .thenReturn(new RotationResult(Set.of(replayed), Set.of(revokedElsewhere)));
+        store.rotate(token(replayed, UUID.randomUUID()), UUID.randomUUID());
+
+        store.flush();
+
+        verify(repository).revokeFamilies(eq(Set.of(replayed)), any());
+        verify(repository, never()).revokeFamilies(eq(Set.of(revokedElsewhere)), any());
+        assertThatThrownBy(() -> store.rotate(token(replayed, UUID.randomUUID()), UUID.randomUUID()))
+                .isInstanceOf(InvalidTokenException.class);
+        assertThatThrownBy(() -> store.rotate(token(revokedElsewhere, UUID.randomUUID()), UUID.randomUUID()))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void aFullQueueWritesOnTheRequestThread() {
+        ReflectionTestUtils.setField(store, "queueCapacity", 1);
+        store.shutdown();
+        store.init();
+
+        store.rotate(token(UUID.randomUUID(), UUID.randomUUID()), UUID.randomUUID());
+        store.rotate(token(UUID.randomUUID(), UUID.randomUUID()), UUID.randomUUID());
+
+        verify(repository).recordRotations(anyList());
+        assertThat(registry.get("auth.refresh.writes.synchronous").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void revocationsAreLoadedAndAnnounced() {
+        UUID loaded = UUID.randomUUID();
+        UUID announced = UUID.randomUUID();
+        UUID loggedOut = UUID.randomUUID();
+        when(repository.findRevokedSince(any())).thenReturn(Map.of(loaded, Instant.now()));
+        when(repository.revokeFamiliesOf(eq("user@example.com"), any())).thenReturn(List.of(loggedOut));
+
+        store.reloadRevocations();
+        store.revoked(List.of(announced));
+        assertThat(store.revokeAll("user@example.com")).isEqualTo(1);
+
+        for (UUID familyId : List.of(loaded, announced, loggedOut)) {
+            assertThatThrownBy(() -> store.rotate(token(familyId, UUID.randomUUID()), UUID.randomUUID()))
+                    .isInstanceOf(InvalidTokenException.class);
+        }
+    }
+
+    private static RefreshToken token(UUID familyId, UUID tokenId) {
+        return new RefreshToken("user@example.com", familyId, tokenId, Instant.now().plusSeconds(600), List.of());
+    }
+}
@@ -0,0 +1,86 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.entity.Permission;
+import com.buyukozkan.boilerplate.repository.PermissionRepository;
+import com.buyukozkan.boilerplate.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+import static com.buyukozkan.boilerplate.service.RoleFixtures.permission;
+import static com.buyukozkan.boilerplate.service.RoleFixtures.role;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoleCatalogTest {
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final RoleCatalog catalog = new RoleCatalog(roleRepository, mock(PermissionRepository.class));
+
+    @Test
+    void precomputesInternedAuthoritiesPerRole() {
+        Permission read = permission(1L, "users:read");
+        Permission write = permission(2L, "users:write");
+        when(roleRepository.findAllWithPermissions()).thenReturn(List.of(
+                role(1L, "USER", read),
+                role(2L, "ADMIN", read, write)));
+
+        catalog.reload();
+
+        assertThat(catalog.authoritiesOf("ADMIN")).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_ADMIN", "users:read", "users:write");
+        assertThat(catalog.authoritiesOf("USER")).isSameAs(catalog.defaultRole().getAuthorities());
+
+        GrantedAuthority readFromUser = find(catalog.authoritiesOf("USER"), "users:read");
+        GrantedAuthority readFromAdmin = find(catalog.authoritiesOf("ADMIN"), "users:read");
+        assertThat(readFromUser).isSameAs(readFromAdmin);
+    }
+
+    @Test
+    void reloadReplacesTheSnapshot() {
+        when(roleRepository.findAllWithPermissions())
+                .thenReturn(List.of(role(1L, "USER")))
+                .thenReturn(List.of());
+
+        catalog.reload();
+        assertThat(catalog.findRole("USER")).isPresent();
+
+        catalog.reload();
+        assertThat(catalog.findRole("USER")).isEmpty();
+        assertThatThrownBy(catalog::defaultRole).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void issuedRolesAreExpandedWithTheirCurrentPermissions() {
+        Permission read = permission(1L, "users:read");
+        Permission write = permission(2L, "users:write");
+        when(roleRepository.findAllWithPermissions()).thenReturn(List.of(
+                role(1L, "USER", read),
+                role(2L, "ADMIN", read, write)));
+        catalog.reload();
+        List<GrantedAuthority> issued = List.copyOf(catalog.authoritiesOf("ADMIN"));
+
+        when(roleRepository.findAllWithPermissions()).thenReturn(List.of(
+                role(1L, "USER", read),
+                role(2L, "ADMIN", read)));
+        catalog.reload();
+        assertThat(catalog.currentAuthoritiesOf(issued)).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_ADMIN", "users:read");
+
+        when(roleRepository.findAllWithPermissions()).thenReturn(List.of(role(1L, "USER", read)));
+        catalog.reload();
+        assertThat(catalog.currentAuthoritiesOf(issued)).isEmpty();
+    }
+
+    private static GrantedAuthority find(Iterable<GrantedAuthority> authorities, String name) {
+        for (GrantedAuthority authority : authorities) {
+            if (authority.getAuthority().equals(name)) {
+                return authority;
+            }
+        }
+        throw new AssertionError(name + " not found");
+    }
+}
@@ -0,0 +1,31 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.entity.Permission;
+import com.buyukozkan.boilerplate.entity.Role;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+/**
+ * Roles and permissions with explicit ids, as loaded from the database. Ids become bit
+ * positions in {@code AuthorityRegistry}, so each test picks distinct ones and shares one
+ * {@link Permission} instance between the roles that grant it.
+ */
+final class RoleFixtures {
+
+    private RoleFixtures() {
+    }
+
+    static Permission permission(long id, String name) {
+        Permission permission = new Permission(name);
+        ReflectionTestUtils.setField(permission, "id", id);
+        return permission;
+    }
+
+    static Role role(long id, String name, Permission... permissions) {
+        Role role = new Role(name);
+        ReflectionTestUtils.setField(role, "id", id);
+        role.getPermissions().addAll(List.of(permissions));
+        return role;
+    }
+}
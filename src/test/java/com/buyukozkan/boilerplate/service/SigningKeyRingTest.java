@@ -0,0 +1,201 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.repository.SigningKeyRepository;
+import com.buyukozkan.boilerplate.repository.SigningKeyRepository.StoredKey;
+import com.buyukozkan.boilerplate.security.SigningAlgorithm;
+import com.buyukozkan.boilerplate.security.SigningKey;
+import com.buyukozkan.boilerplate.service.SigningKeyRing.KeySet;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class SigningKeyRingTest {
+
+    static final String SECRET = "3SRc2bDRibfj92LJfSX0Jtel2z9PVRI8XhRtwhCab2s=";
+    private static final Duration ROTATION_INTERVAL = Duration.ofDays(7);
+    private static final Duration PUBLISH_AHEAD = Duration.ofHours(1);
+    private static final Duration GRACE = Duration.ofHours(1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<SigningKeyRing> started = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(SigningKeyRing::shutdown);
+    }
+
+    @Test
+    void bootstrapsAKeyAndPublishesOnlyItsPublicHalf() throws IOException {
+        List<StoredKey> table = new ArrayList<>();
+        KeySet keys = start(SigningAlgorithm.ES256, table, SECRET).keys();
+
+        assertThat(table).hasSize(1);
+        assertThat(keys.current().kid()).isEqualTo(table.get(0).kid());
+        JsonNode jwk = objectMapper.readTree(keys.jwks()).get("keys").get(0);
+        assertThat(jwk.get("kid").asText()).isEqualTo(keys.current().kid());
+        assertThat(jwk.get("kty").asText()).isEqualTo("EC");
+        assertThat(jwk.get("alg").asText()).isEqualTo("ES256");
+        assertThat(jwk.get("use").asText()).isEqualTo("sig");
+        assertThat(jwk.has("d")).isFalse();
+        assertThat(keys.etag()).startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    void privateKeysAreStoredEncryptedUnderTheSecret() {
+        List<StoredKey> table = new ArrayList<>();
+        SigningKey key = start(SigningAlgorithm.EDDSA, table, SECRET).keys().current();
+
+        assertThat(table.get(0).privateKey()).isNotEqualTo(key.privateKey().getEncoded());
+        assertThatThrownBy(() -> start(SigningAlgorithm.EDDSA, table, "q".repeat(43) + "="))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(key.kid());
+    }
+
+    @Test
+    void nextKeyIsPublishedAheadWhileTheCurrentOneKeepsSigning() throws IOException {
+        List<StoredKey> table = new ArrayList<>();
+        start(SigningAlgorithm.ES256, table, SECRET);
+        Instant activated = Instant.now().minus(ROTATION_INTERVAL).plus(PUBLISH_AHEAD.dividedBy(2));
+        table.set(0, activatingAt(table.get(0), activated));
+
+        Instant before = Instant.now();
+        KeySet keys = start(SigningAlgorithm.ES256, table, SECRET).keys();
+
+        assertThat(table).hasSize(2);
+        // Due half way into the publish-ahead window: signs a full window after being published
+        assertThat(table.get(1).activatesAt()).isBetween(before.plus(PUBLISH_AHEAD), Instant.now().plus(PUBLISH_AHEAD));
+        assertThat(keys.current().kid()).isEqualTo(table.get(0).kid());
+        assertThat(keys.byKid()).containsOnlyKeys(table.get(0).kid(), table.get(1).kid());
+        assertThat(objectMapper.readTree(keys.jwks()).get("keys")).hasSize(2);
+    }
+
+    @Test
+    void retiredKeysVerifyUntilTheGracePeriodEnds() {
+        List<StoredKey> table = new ArrayList<>();
+        start(SigningAlgorithm.ES256, table, SECRET);
+        Instant now = Instant.now();
+        StoredKey retired = activatingAt(table.get(0), now.minus(ROTATION_INTERVAL));
+        table.clear();
+        table.add(retired);
+        SigningKeyRing ring = start(SigningAlgorithm.ES256, table, SECRET);
+        StoredKey successor = table.get(1);
+
+        table.set(1, activatingAt(successor, now.minus(GRACE.dividedBy(2))));
+        KeySet withinGrace = start(SigningAlgorithm.ES256, table, SECRET).keys();
+        table.set(1, activatingAt(successor, now.minus(GRACE.multipliedBy(2))));
+        KeySet afterGrace = start(SigningAlgorithm.ES256, table, SECRET).keys();
+
+        assertThat(ring.keys().current().kid()).isEqualTo(retired.kid());
+        assertThat(withinGrace.current().kid()).isEqualTo(successor.kid());
+        assertThat(withinGrace.byKid()).containsKey(retired.kid());
+        assertThat(afterGrace.byKid()).containsOnlyKeys(successor.kid());
+        assertThat(afterGrace.etag()).isNotEqualTo(withinGrace.etag());
+    }
+
+    @Test
+    void switchingTheAlgorithmPublishesAKeyOfTheNewOneAhead() {
+        List<StoredKey> table = new ArrayList<>();
+        start(SigningAlgorithm.ES256, table, SECRET);
+
+        KeySet keys = start(SigningAlgorithm.EDDSA, table, SECRET).keys();
+
+        assertThat(table).extracting(StoredKey::algorithm).containsExactly("ES256", "EdDSA");
+        assertThat(keys.current().algorithm()).isEqualTo(SigningAlgorithm.ES256);
+        assertThat(keys.find(table.get(1).kid()).activatesAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void hs256LeavesTheRingEmpty() {
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        SigningKeyRing ring = new SigningKeyRing(repository);
+        ReflectionTestUtils.setField(ring, "accessTokenExpiration", 60_000L);
+        ReflectionTestUtils.setField(ring, "secret", SECRET);
+        ring.init();
+
+        assertThat(ring.enabled()).isFalse();
+        assertThat(ring.keys().current()).isNull();
+        assertThat(ring.keys().jwks()).isNull();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void graceShorterThanTheAccessTokenLifetimeIsRefused() {
+        SigningKeyRing ring = ring(SigningAlgorithm.ES256, new ArrayList<>(), SECRET);
+        ReflectionTestUtils.setField(ring, "accessTokenExpiration", GRACE.toMillis() + 1);
+
+        assertThatThrownBy(ring::init)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("retired-key-grace");
+    }
+
+    @Test
+    void everyCheckDeletesKeysPastTheGracePeriod() {
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        SigningKeyRing ring = ring(SigningAlgorithm.ES256, repository);
+
+        Instant before = Instant.now();
+        ring.check();
+
+        verify(repository).deleteRetired(argThat(cutoff -> !cutoff.isBefore(before.minus(GRACE))
+                && cutoff.isBefore(Instant.now().minus(GRACE).plusMillis(1))));
+    }
+
+    /**
+     * An initialised ring over an in-memory key table; the caller shuts it down.
+     */
+    static SigningKeyRing started(SigningAlgorithm algorithm) {
+        SigningKeyRing ring = ring(algorithm, new ArrayList<>(), SECRET);
+        ring.init();
+        return ring;
+    }
+
+    private SigningKeyRing start(SigningAlgorithm algorithm, List<StoredKey> table, String secret) {
+        SigningKeyRing ring = ring(algorithm, table, secret);
+        ring.init();
+        started.add(ring);
+        return ring;
+    }
+
+    private static SigningKeyRing ring(SigningAlgorithm algorithm, List<StoredKey> table, String secret) {
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        when(repository.findAll()).thenAnswer(invocation -> List.copyOf(table));
+        when(repository.insertSuccessor(any(), any())).thenAnswer(invocation -> table.add(invocation.getArgument(1)));
+        SigningKeyRing ring = ring(algorithm, repository);
+        ReflectionTestUtils.setField(ring, "secret", secret);
+        return ring;
+    }
+
+    private static SigningKeyRing ring(SigningAlgorithm algorithm, SigningKeyRepository repository) {
+        SigningKeyRing ring = new SigningKeyRing(repository);
+        ReflectionTestUtils.setField(ring, "algorithm", algorithm);
+        ReflectionTestUtils.setField(ring, "rotationInterval", ROTATION_INTERVAL);
+        ReflectionTestUtils.setField(ring, "publishAhead", PUBLISH_AHEAD);
+        ReflectionTestUtils.setField(ring, "retiredKeyGrace", GRACE);
+        ReflectionTestUtils.setField(ring, "accessTokenExpiration", 60_000L);
+        ReflectionTestUtils.setField(ring, "secret", SECRET);
+        ReflectionTestUtils.setField(ring, "keyEncryptionKey",
+                ReflectionTestUtils.invokeMethod(SigningKeyRing.class, "keyEncryptionKey", SECRET));
+        return ring;
+    }
+
+    private static StoredKey activatingAt(StoredKey key, Instant activatesAt) {
+        return new StoredKey(key.kid(), key.algorithm(), key.publicKey(), key.privateKey(), key.createdAt(), activatesAt);
+    }
+}
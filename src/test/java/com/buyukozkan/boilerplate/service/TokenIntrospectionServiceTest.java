@@ -0,0 +1,141 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.exception.InvalidIntrospectionRequestException;
+import com.buyukozkan.boilerplate.repository.PermissionRepository;
+import com.buyukozkan.boilerplate.repository.RoleRepository;
+import com.buyukozkan.boilerplate.repository.SigningKeyRepository;
+import com.buyukozkan.boilerplate.security.AuthMetrics;
+import com.buyukozkan.boilerplate.security.AuthorityClaimCodec;
+import com.buyukozkan.boilerplate.security.VerifiedTokenCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class TokenIntrospectionServiceTest {
+
+    private static final String SECRET = "3SRc2bDRibfj92LJfSX0Jtel2z9PVRI8XhRtwhCab2s=";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(true, 1_000);
+    private JwtService jwtService;
+    private TokenIntrospectionService service;
+
+    @BeforeEach
+    void setUp() {
+        RoleCatalog roleCatalog = new RoleCatalog(mock(RoleRepository.class), mock(PermissionRepository.class));
+        roleCatalog.reload();
+        AuthMetrics authMetrics = new AuthMetrics(meterRegistry);
+        jwtService = new JwtService(cache, new AuthorityClaimCodec(roleCatalog), authMetrics,
+                new SigningKeyRing(mock(SigningKeyRepository.class)));
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 120_000L);
+        jwtService.init();
+
+        service = new TokenIntrospectionService(jwtService, objectMapper, authMetrics);
+        ReflectionTestUtils.setField(service, "chunkSize", 8);
+        ReflectionTestUtils.setField(service, "threads", 3);
+        ReflectionTestUtils.setField(service, "minSliceSize", 2);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void resultsKeepRequestOrderAcrossChunksAndThreads() throws IOException {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tokens.add(i % 5 == 0 ? "not-a-token-" + i : accessToken("user" + i + "@example.com"));
+        }
+
+        JsonNode results = introspect(objectMapper.writeValueAsString(tokens));
+
+        assertThat(results).hasSize(50);
+        for (int i = 0; i < 50; i++) {
+            JsonNode result = results.get(i);
+            if (i % 5 == 0) {
+                assertThat(result.get("active").asBoolean()).as("entry %d", i).isFalse();
+            } else {
+                assertThat(result.get("sub").asText()).as("entry %d", i).isEqualTo("user" + i + "@example.com");
+                assertThat(result.get("authorities").get(0).asText()).isEqualTo("ROLE_USER");
+                assertThat(result.get("exp").asLong()).isGreaterThan(System.currentTimeMillis() / 1000);
+            }
+        }
+        assertThat(meterRegistry.get("auth.introspection.tokens").summary().totalAmount()).isEqualTo(50);
+    }
+
+    @Test
+    void inactiveTokensCarryNothingButTheFlag() throws IOException {
+        String valid = accessToken("alice@example.com");
+        String tampered = valid.substring(0, valid.length() - 2) + (valid.endsWith("A") ? "BB" : "AA");
+        String refresh = jwtService.generateRefreshToken("alice@example.com", List.of(), UUID.randomUUID(), UUID.randomUUID());
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", -1_000L);
+        String expired = accessToken("alice@example.com");
+
+        JsonNode results = introspect(objectMapper.writeValueAsString(List.of(tampered, refresh, expired, "")));
+
+        assertThat(results).hasSize(4);
+        results.forEach(result -> assertThat(result.toString()).isEqualTo("{\"active\":false}"));
+    }
+
+    @Test
+    void sharesTheVerifiedTokenCache() throws IOException {
+        String token = accessToken("alice@example.com");
+
+        introspect(objectMapper.writeValueAsString(List.of(token, token, token)));
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(jwtService.verify(token).subject()).isEqualTo("alice@example.com");
+    }
+
+    @Test
+    void emptyBatchAnswersWithAnEmptyArray() throws IOException {
+        assertThat(introspect("[]")).isEmpty();
+    }
+
+    @Test
+    void malformedBodyIsRejectedBeforeAnythingIsWritten() {
+        for (String body : List.of("{\"tokens\": []}", "[\"a\", 1]", "[\"a\", ")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertThatThrownBy(() -> service.introspect(stream(body), out))
+                    .as(body)
+                    .isInstanceOf(InvalidIntrospectionRequestException.class);
+            assertThat(out.size()).as(body).isZero();
+        }
+    }
+
+    private String accessToken(String email) {
+        return jwtService.generateAccessToken(email, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    private JsonNode introspect(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.introspect(stream(body), out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,101 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.entity.Permission;
+import com.buyukozkan.boilerplate.repository.PermissionRepository;
+import com.buyukozkan.boilerplate.repository.RoleRepository;
+import com.buyukozkan.boilerplate.repository.UserPrincipalRepository;
+import com.buyukozkan.boilerplate.repository.UserPrincipalRepository.Credentials;
+import com.buyukozkan.boilerplate.security.AuthMetrics;
+import com.buyukozkan.boilerplate.security.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.buyukozkan.boilerplate.service.RoleFixtures.permission;
+import static com.buyukozkan.boilerplate.service.RoleFixtures.role;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserDetailsServiceImplTest {
+
+    private final UserPrincipalRepository repository = mock(UserPrincipalRepository.class);
+    private final PasswordRehasher passwordRehasher = mock(PasswordRehasher.class);
+    private RoleCatalog roleCatalog;
+    private UserDetailsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        Permission read = permission(1L, "users:read");
+        Permission write = permission(2L, "users:write");
+        when(roleRepository.findAllWithPermissions()).thenReturn(List.of(
+                role(1L, "USER", read),
+                role(2L, "ADMIN", read, write)));
+        roleCatalog = new RoleCatalog(roleRepository, mock(PermissionRepository.class));
+        roleCatalog.reload();
+        service = new UserDetailsServiceImpl(repository, roleCatalog, new AuthMetrics(new SimpleMeterRegistry()),
+                passwordRehasher);
+        when(repository.findByEmail(anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void singleRoleUsersShareTheCatalogAuthorities() {
+        UUID id = UUID.randomUUID();
+        when(repository.findByEmail("user@example.com"))
+                .thenReturn(Optional.of(new Credentials(id, "user@example.com", "{noop}secret", List.of("USER"))));
+
+        UserDetails details = service.loadUserByUsername("user@example.com");
+
+        assertThat(details).isEqualTo(new UserPrincipal(id, "user@example.com", "{noop}secret",
+                roleCatalog.authoritiesOf("USER")));
+        assertThat(details.getAuthorities()).isSameAs(roleCatalog.authoritiesOf("USER"));
+    }
+
+    @Test
+    void authoritiesOfSeveralRolesAreMerged() {
+        when(repository.findByEmail("admin@example.com")).thenReturn(Optional.of(new Credentials(
+                UUID.randomUUID(), "admin@example.com", "{noop}secret", List.of("USER", "ADMIN", "AUDITOR"))));
+
+        assertThat(service.loadUserByUsername("admin@example.com").getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN", "ROLE_AUDITOR", "users:read", "users:write");
+    }
+
+    @Test
+    void unknownEmailsAreRejected() {
+        assertThatThrownBy(() -> service.loadUserByUsername("missing@example.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void passwordHashIsNotPrinted() {
+        UserPrincipal principal = new UserPrincipal(UUID.randomUUID(), "user@example.com", "$2a$10$hash",
+                roleCatalog.authoritiesOf("USER"));
+
+        assertThat(principal.toString()).doesNotContain("$2a$10$hash");
+    }
+
+    @Test
+    void updatedPasswordsAreWrittenInTheBackgroundAgainstTheHashTheLoginChecked() {
+        UUID id = UUID.randomUUID();
+        UserPrincipal principal = new UserPrincipal(id, "user@example.com", "$2a$10$old",
+                roleCatalog.authoritiesOf("USER"));
+
+        UserDetails updated = service.updatePassword(principal, "{bcrypt}$2a$12$new");
+
+        verify(passwordRehasher).replace(id, "$2a$10$old", "{bcrypt}$2a$12$new");
+        assertThat(updated).isEqualTo(new UserPrincipal(id, "user@example.com", "{bcrypt}$2a$12$new",
+                roleCatalog.authoritiesOf("USER")));
+    }
+}
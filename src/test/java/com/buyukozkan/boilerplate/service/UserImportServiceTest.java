@@ -0,0 +1,214 @@
+package com.buyukozkan.boilerplate.service;
+
+import com.buyukozkan.boilerplate.dto.UserImportStatus;
+import com.buyukozkan.boilerplate.dto.UserImportStatus.RowError;
+import com.buyukozkan.boilerplate.dto.UserImportStatus.State;
+import com.buyukozkan.boilerplate.entity.User;
+import com.buyukozkan.boilerplate.exception.ImportJobNotFoundException;
+import com.buyukozkan.boilerplate.repository.PermissionRepository;
+import com.buyukozkan.boilerplate.repository.RoleRepository;
+import com.buyukozkan.boilerplate.repository.UserBulkRepository;
+import com.buyukozkan.boilerplate.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.buyukozkan.boilerplate.service.RoleFixtures.role;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceTest {
+
+    private final InMemoryUsers users = new InMemoryUsers();
+    private UserImportService service;
+
+    @BeforeEach
+    void setUp() {
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAllWithPermissions()).thenReturn(List.of(role(1L, "USER"), role(2L, "ADMIN")));
+        RoleCatalog roleCatalog = new RoleCatalog(roleRepository, mock(PermissionRepository.class));
+        roleCatalog.reload();
+
+        service = new UserImportService(users, roleCatalog, new PlainTextEncoder(),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                new EmailExistenceFilter(mock(UserRepository.class), TransactionOperations.withoutTransaction()));
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "hashingThreads", 2);
+        ReflectionTestUtils.setField(service, "maxReportedErrors", 10);
+        ReflectionTestUtils.setField(service, "jobRetention", Duration.ofMinutes(1));
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void importsJsonRowsInBatchesWithRoles() {
+        UserImportStatus status = finished(service.importUsers(body("""
+                [
+                  {"email": "a@example.com", "password": "secret-a"},
+                  {"email": "b@example.com", "password": "secret-b", "roles": ["ADMIN", "USER"]},
+                  {"email": "c@example.com", "password": "secret-c"}
+                ]
+                """), false));
+
+        assertThat(status.state()).isEqualTo(State.COMPLETED);
+        assertThat(status.received()).isEqualTo(3);
+        assertThat(status.imported()).isEqualTo(3);
+        assertThat(status.errors()).isEmpty();
+        assertThat(users.byEmail.get("b@example.com").roleIds()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(users.byEmail.get("a@example.com").roleIds()).containsExactly(1L);
+        assertThat(users.byEmail.get("c@example.com").passwordHash()).isEqualTo("secret-c");
+        assertThat(users.insertCalls).isEqualTo(2);
+    }
+
+    @Test
+    void reportsDuplicatesAndInvalidRowsWithoutAborting() {
+        users.byEmail.put("taken@example.com",
+                new UserBulkRepository.NewUser(UUID.randomUUID(), "taken@example.com", "hash", Set.of(1L)));
+
+        UserImportStatus status = finished(service.importUsers(body("""
+                email,password,roles
+                Taken@Example.com,secret-1
+                new@example.com,secret-2
+                NEW@example.com,secret-3
+                not-an-email,secret-4
+                short@example.com,123
+                role@example.com,secret-5,OWNER
+                "quoted@example.com","pa,ss""word",ADMIN|USER
+                """), true));
+
+        assertThat(status.state()).isEqualTo(State.COMPLETED);
+        assertThat(status.received()).isEqualTo(7);
+        assertThat(status.imported()).isEqualTo(2);
+        assertThat(status.duplicates()).isEqualTo(2);
+        assertThat(status.failed()).isEqualTo(3);
+        assertThat(status.errors()).containsExactly(
+                new RowError(1, "Taken@Example.com", UserImportJob.DUPLICATE),
+                new RowError(3, "NEW@example.com", UserImportJob.DUPLICATE),
+                new RowError(4, "not-an-email", "Invalid email format"),
+                new RowError(5, "short@example.com", "Password must be at least 6 characters long"),
+                new RowError(6, "role@example.com", "Unknown role: OWNER"));
+        assertThat(users.byEmail.get("quoted@example.com").passwordHash()).isEqualTo("pa,ss\"word");
+        assertThat(users.byEmail.get("quoted@example.com").roleIds()).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void rowsLosingAnInsertRaceAreReportedAsDuplicates() {
+        users.raceOn = "late@example.com";
+
+        UserImportStatus status = finished(service.importUsers(body("""
+                [{"email": "late@example.com", "password": "secret-1"}]
+                """), false));
+
+        assertThat(status.imported()).isZero();
+        assertThat(status.duplicates()).isEqualTo(1);
+    }
+
+    @Test
+    void malformedBodyFailsTheJobButKeepsWrittenRows() {
+        UserImportStatus status = finished(service.importUsers(body("""
+                [
+                  {"email": "a@example.com", "password": "secret-a"},
+                  {"email": "b@example.com", "password": "secret-b"},
+                  {"email": "c@example.com", "password":
+                """), false));
+
+        assertThat(status.state()).isEqualTo(State.FAILED);
+        assertThat(status.message()).startsWith("Import stopped after row 2");
+        assertThat(status.imported()).isEqualTo(2);
+    }
+
+    @Test
+    void failedWritesAreReportedPerRow() {
+        users.failWrites = true;
+
+        UserImportStatus status = finished(service.importUsers(body("""
+                [{"email": "a@example.com", "password": "secret-a"}]
+                """), false));
+
+        assertThat(status.state()).isEqualTo(State.COMPLETED);
+        assertThat(status.failed()).isEqualTo(1);
+        assertThat(status.errors()).singleElement()
+                .extracting(RowError::reason).isEqualTo("Not imported: database unavailable");
+    }
+
+    @Test
+    void unknownJobIsNotFound() {
+        assertThatThrownBy(() -> service.status(UUID.randomUUID()))
+                .isInstanceOf(ImportJobNotFoundException.class);
+    }
+
+    private UserImportStatus finished(UserImportStatus started) {
+        await().until(() -> service.status(started.jobId()).finishedAt() != null);
+        return service.status(started.jobId());
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class InMemoryUsers extends UserBulkRepository {
+
+        final Map<String, NewUser> byEmail = new ConcurrentHashMap<>();
+        volatile int insertCalls;
+        volatile String raceOn;
+        volatile boolean failWrites;
+
+        InMemoryUsers() {
+            super(null);
+        }
+
+        @Override
+        public Set<String> findExistingEmails(Collection<String> emails) {
+            Set<String> existing = new HashSet<>();
+            emails.stream().map(User::normalizeEmail).forEach(existing::add);
+            existing.retainAll(byEmail.keySet());
+            return existing;
+        }
+
+        @Override
+        public Set<UUID> insertIgnoringDuplicates(List<NewUser> users) {
+            if (failWrites) {
+                throw new IllegalStateException("database unavailable");
+            }
+            insertCalls++;
+            Set<UUID> inserted = new HashSet<>();
+            for (NewUser user : users) {
+                if (!user.email().equals(raceOn) && byEmail.putIfAbsent(User.normalizeEmail(user.email()), user) == null) {
+                    inserted.add(user.id());
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private record PlainTextEncoder() implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}